@@ -6,6 +6,7 @@ import com.example.alabuga.dto.ArtifactUpdateDTO;
 import com.example.alabuga.dto.UserArtifactDTO;
 import com.example.alabuga.entity.Artifact;
 import com.example.alabuga.service.ArtifactService;
+import com.example.alabuga.service.CatalogCache;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -14,6 +15,7 @@ import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -24,19 +26,18 @@ import java.util.List;
 public class ArtifactController {
 
     private final ArtifactService artifactService;
+    private final CatalogCache catalogCache;
 
     @GetMapping
     @Operation(summary = "Получить все артефакты")
-    public ResponseEntity<List<ArtifactDTO>> getAllArtifacts() {
-        List<ArtifactDTO> artifacts = artifactService.getAllArtifacts();
-        return ResponseEntity.ok(artifacts);
+    public ResponseEntity<List<ArtifactDTO>> getAllArtifacts(WebRequest request) {
+        return catalogCache.conditional(CatalogCache.Section.ARTIFACTS, request, artifactService::getAllArtifacts);
     }
 
     @GetMapping("/active")
     @Operation(summary = "Получить только активные артефакты")
-    public ResponseEntity<List<ArtifactDTO>> getActiveArtifacts() {
-        List<ArtifactDTO> artifacts = artifactService.getActiveArtifacts();
-        return ResponseEntity.ok(artifacts);
+    public ResponseEntity<List<ArtifactDTO>> getActiveArtifacts(WebRequest request) {
+        return catalogCache.conditional(CatalogCache.Section.ARTIFACTS, request, artifactService::getActiveArtifacts);
     }
 
     @GetMapping("/{id}")
@@ -8,12 +8,14 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.example.alabuga.dto.CardDTO;
 import com.example.alabuga.dto.UserCardDTO;
 import com.example.alabuga.entity.Card;
 import com.example.alabuga.entity.UserCard;
 import com.example.alabuga.service.CardService;
+import com.example.alabuga.service.CatalogCache;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -32,6 +34,7 @@ import lombok.extern.slf4j.Slf4j;
 public class CardController {
 
     private final CardService cardService;
+    private final CatalogCache catalogCache;
 
     @GetMapping("/available/{userId}")
     @Operation(summary = "Получить доступные карты для пользователя",
@@ -143,10 +146,9 @@ public class CardController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Список серий карт")
     })
-    public ResponseEntity<List<String>> getAllSeries() {
+    public ResponseEntity<List<String>> getAllSeries(WebRequest request) {
         try {
-            List<String> series = cardService.getAllSeries();
-            return ResponseEntity.ok(series);
+            return catalogCache.conditional(CatalogCache.Section.CARDS, request, cardService::getAllSeries);
         } catch (Exception e) {
             log.error("Ошибка при получении серий карт: {}", e.getMessage());
             return ResponseEntity.internalServerError().build();
@@ -3,6 +3,7 @@ package com.example.alabuga.controller;
 import com.example.alabuga.entity.Competency;
 import com.example.alabuga.exception.ResourceNotFoundException;
 import com.example.alabuga.repository.CompetencyRepository;
+import com.example.alabuga.service.CatalogCache;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -10,6 +11,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -20,12 +22,13 @@ import java.util.List;
 public class CompetencyController {
 
     private final CompetencyRepository competencyRepository;
+    private final CatalogCache catalogCache;
 
     @GetMapping
     @Operation(summary = "Получить все компетенции")
-    public ResponseEntity<List<Competency>> getAllCompetencies() {
-        List<Competency> competencies = competencyRepository.findByIsActive(true);
-        return ResponseEntity.ok(competencies);
+    public ResponseEntity<List<Competency>> getAllCompetencies(WebRequest request) {
+        return catalogCache.conditional(CatalogCache.Section.COMPETENCIES, request,
+                () -> competencyRepository.findByIsActive(true));
     }
 
     @GetMapping("/{id}")
@@ -41,6 +44,7 @@ public class CompetencyController {
     @Operation(summary = "Создать новую компетенцию")
     public ResponseEntity<Competency> createCompetency(@RequestBody Competency competency) {
         Competency savedCompetency = competencyRepository.save(competency);
+        catalogCache.invalidate(CatalogCache.Section.COMPETENCIES);
         return ResponseEntity.status(HttpStatus.CREATED).body(savedCompetency);
     }
 
@@ -58,6 +62,7 @@ public class CompetencyController {
         existingCompetency.setIsActive(competencyDetails.getIsActive());
 
         Competency updatedCompetency = competencyRepository.save(existingCompetency);
+        catalogCache.invalidate(CatalogCache.Section.COMPETENCIES);
         return ResponseEntity.ok(updatedCompetency);
     }
 
@@ -69,6 +74,7 @@ public class CompetencyController {
                 .orElseThrow(() -> new ResourceNotFoundException("Компетенция", id));
 
         competencyRepository.delete(competency);
+        catalogCache.invalidate(CatalogCache.Section.COMPETENCIES);
         return ResponseEntity.noContent().build();
     }
 
@@ -0,0 +1,72 @@
+package com.example.alabuga.controller;
+
+import com.example.alabuga.dto.LeaderboardEntryDTO;
+import com.example.alabuga.dto.LeaderboardPositionDTO;
+import com.example.alabuga.entity.Rank;
+import com.example.alabuga.service.LeaderboardService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/leaderboard")
+@Tag(name = "Leaderboard", description = "API таблиц лидеров по опыту")
+@RequiredArgsConstructor
+public class LeaderboardController {
+
+    private final LeaderboardService leaderboardService;
+
+    @GetMapping("/global")
+    @Operation(summary = "Топ пользователей по опыту")
+    public ResponseEntity<List<LeaderboardEntryDTO>> getGlobalTop(
+            @Parameter(description = "Количество строк (до 100)") @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(leaderboardService.getGlobalTop(limit));
+    }
+
+    @GetMapping("/global/user/{userId}")
+    @Operation(summary = "Позиция пользователя в общей таблице и k соседей")
+    public ResponseEntity<LeaderboardPositionDTO> getGlobalPosition(
+            @Parameter(description = "ID пользователя") @PathVariable Long userId,
+            @Parameter(description = "Соседей сверху и снизу") @RequestParam(defaultValue = "5") int k) {
+        return ResponseEntity.ok(leaderboardService.getGlobalPosition(userId, k));
+    }
+
+    @GetMapping("/rank-branch/{branch}")
+    @Operation(summary = "Топ пользователей ветки рангов")
+    public ResponseEntity<List<LeaderboardEntryDTO>> getRankBranchTop(
+            @Parameter(description = "Ветка рангов") @PathVariable Rank.RankBranch branch,
+            @Parameter(description = "Количество строк (до 100)") @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(leaderboardService.getRankBranchTop(branch, limit));
+    }
+
+    @GetMapping("/rank-branch/{branch}/user/{userId}")
+    @Operation(summary = "Позиция пользователя в таблице ветки рангов и k соседей")
+    public ResponseEntity<LeaderboardPositionDTO> getRankBranchPosition(
+            @Parameter(description = "Ветка рангов") @PathVariable Rank.RankBranch branch,
+            @Parameter(description = "ID пользователя") @PathVariable Long userId,
+            @Parameter(description = "Соседей сверху и снизу") @RequestParam(defaultValue = "5") int k) {
+        return ResponseEntity.ok(leaderboardService.getRankBranchPosition(branch, userId, k));
+    }
+
+    @GetMapping("/mission-branch/{branchId}")
+    @Operation(summary = "Топ пользователей по опыту за миссии ветки")
+    public ResponseEntity<List<LeaderboardEntryDTO>> getMissionBranchTop(
+            @Parameter(description = "ID ветки миссий") @PathVariable Long branchId,
+            @Parameter(description = "Количество строк (до 100)") @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(leaderboardService.getMissionBranchTop(branchId, limit));
+    }
+
+    @GetMapping("/mission-branch/{branchId}/user/{userId}")
+    @Operation(summary = "Позиция пользователя в таблице ветки миссий и k соседей")
+    public ResponseEntity<LeaderboardPositionDTO> getMissionBranchPosition(
+            @Parameter(description = "ID ветки миссий") @PathVariable Long branchId,
+            @Parameter(description = "ID пользователя") @PathVariable Long userId,
+            @Parameter(description = "Соседей сверху и снизу") @RequestParam(defaultValue = "5") int k) {
+        return ResponseEntity.ok(leaderboardService.getMissionBranchPosition(branchId, userId, k));
+    }
+}
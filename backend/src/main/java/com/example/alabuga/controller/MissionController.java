@@ -1,16 +1,24 @@
 package com.example.alabuga.controller;
 
+import com.example.alabuga.dto.BulkModerationRequestDTO;
+import com.example.alabuga.dto.BulkModerationResultDTO;
 import com.example.alabuga.dto.MissionCreateDTO;
 import com.example.alabuga.dto.MissionDTO;
 import com.example.alabuga.dto.MissionUpdateDTO;
+import com.example.alabuga.dto.ModerationQueuePageDTO;
 import com.example.alabuga.dto.UserMissionDTO;
+import com.example.alabuga.service.CatalogCache;
+import com.example.alabuga.service.MissionEligibilityService;
+import com.example.alabuga.service.MissionModerationService;
 import com.example.alabuga.service.MissionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -21,19 +29,31 @@ import java.util.List;
 public class MissionController {
 
     private final MissionService missionService;
+    private final CatalogCache catalogCache;
+    private final MissionEligibilityService missionEligibilityService;
+    private final MissionModerationService missionModerationService;
 
     @GetMapping
     @Operation(summary = "Получить все активные миссии")
-    public ResponseEntity<List<MissionDTO>> getAllMissions() {
-        List<MissionDTO> missions = missionService.getAllMissions();
-        return ResponseEntity.ok(missions);
+    public ResponseEntity<List<MissionDTO>> getAllMissions(WebRequest request) {
+        return catalogCache.conditional(CatalogCache.Section.MISSIONS, request, missionService::getAllMissions);
     }
 
     @GetMapping("/branch/{branchId}")
     @Operation(summary = "Получить миссии по ветке")
     public ResponseEntity<List<MissionDTO>> getMissionsByBranch(
-            @Parameter(description = "ID ветки") @PathVariable Long branchId) {
-        List<MissionDTO> missions = missionService.getMissionsByBranch(branchId);
+            @Parameter(description = "ID ветки") @PathVariable Long branchId,
+            WebRequest request) {
+        return catalogCache.conditional(CatalogCache.Section.MISSIONS, request,
+                () -> missionService.getMissionsByBranch(branchId));
+    }
+
+    @GetMapping("/available/{userId}")
+    @Operation(summary = "Получить миссии, доступные пользователю",
+               description = "Активные миссии, требования которых по рангу, опыту и компетенциям выполнены и которые пользователь ещё не брал")
+    public ResponseEntity<List<MissionDTO>> getAvailableMissions(
+            @Parameter(description = "ID пользователя") @PathVariable Long userId) {
+        List<MissionDTO> missions = missionEligibilityService.getAvailableMissions(userId);
         return ResponseEntity.ok(missions);
     }
 
@@ -124,4 +144,21 @@ public class MissionController {
         UserMissionDTO userMission = missionService.moderateMission(userId, missionId, approved);
         return ResponseEntity.ok(userMission);
     }
+
+    @GetMapping("/moderation")
+    @Operation(summary = "Получить очередь модерации",
+               description = "Миссии с модерацией, доведённые до 100%, от старых к новым; для следующей страницы передайте nextAfterId")
+    public ResponseEntity<ModerationQueuePageDTO> getModerationQueue(
+            @Parameter(description = "ID ветки миссий") @RequestParam(required = false) Long branchId,
+            @Parameter(description = "Курсор: nextAfterId из предыдущей страницы") @RequestParam(required = false) Long afterId,
+            @Parameter(description = "Размер страницы (1-500)") @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(missionModerationService.getQueue(branchId, afterId, size));
+    }
+
+    @PostMapping("/moderate/bulk")
+    @Operation(summary = "Массово модерировать миссии",
+               description = "Одобряет или отклоняет до 1000 миссий; награды начисляются одним пакетом на пользователя")
+    public ResponseEntity<BulkModerationResultDTO> moderateMissions(@Valid @RequestBody BulkModerationRequestDTO request) {
+        return ResponseEntity.ok(missionModerationService.moderate(request));
+    }
 }
@@ -1,16 +1,25 @@
 package com.example.alabuga.controller;
 
+import com.example.alabuga.dto.BroadcastCreateDTO;
+import com.example.alabuga.dto.MarkReadResultDTO;
 import com.example.alabuga.dto.NotificationCreateDTO;
 import com.example.alabuga.dto.NotificationDTO;
+import com.example.alabuga.dto.NotificationPipelineStatsDTO;
 import com.example.alabuga.dto.NotificationUpdateDTO;
+import com.example.alabuga.service.BroadcastNotificationService;
 import com.example.alabuga.service.NotificationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -20,20 +29,36 @@ import java.util.List;
 public class NotificationController {
 
     private final NotificationService notificationService;
+    private final BroadcastNotificationService broadcastNotificationService;
 
     @GetMapping("/user/{userId}")
-    @Operation(summary = "Получить все уведомления пользователя")
+    @Operation(summary = "Получить последние уведомления пользователя", description = "Новые вместе с объявлениями; более старые — через /history")
     public ResponseEntity<List<NotificationDTO>> getUserNotifications(
-            @Parameter(description = "ID пользователя") @PathVariable Long userId) {
-        List<NotificationDTO> notifications = notificationService.getUserNotifications(userId);
+            @Parameter(description = "ID пользователя") @PathVariable Long userId,
+            @Parameter(description = "Сколько уведомлений вернуть (по умолчанию 50, максимум 500)") @RequestParam(required = false) Integer size) {
+        List<NotificationDTO> notifications = notificationService.getUserNotifications(userId, size);
+        return ResponseEntity.ok(notifications);
+    }
+
+    @GetMapping("/user/{userId}/history")
+    @Operation(summary = "Получить историю уведомлений пользователя", description = "От новых к старым; следующая страница — beforeCreatedAt и beforeId последней записи")
+    public ResponseEntity<List<NotificationDTO>> getNotificationHistory(
+            @Parameter(description = "ID пользователя") @PathVariable Long userId,
+            @Parameter(description = "Дата создания последней записи предыдущей страницы") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeCreatedAt,
+            @Parameter(description = "ID последней записи предыдущей страницы") @RequestParam(required = false) Long beforeId,
+            @Parameter(description = "Размер страницы (по умолчанию 50, максимум 500)") @RequestParam(required = false) Integer size,
+            @Parameter(description = "Включать уведомления из архива") @RequestParam(defaultValue = "false") boolean includeArchived) {
+        List<NotificationDTO> notifications = notificationService.getNotificationHistory(userId, beforeCreatedAt, beforeId, size, includeArchived);
         return ResponseEntity.ok(notifications);
     }
 
     @GetMapping("/user/{userId}/unread")
-    @Operation(summary = "Получить непрочитанные уведомления пользователя")
+    @Operation(summary = "Получить последние непрочитанные уведомления пользователя")
     public ResponseEntity<List<NotificationDTO>> getUnreadNotifications(
-            @Parameter(description = "ID пользователя") @PathVariable Long userId) {
-        List<NotificationDTO> notifications = notificationService.getUnreadNotifications(userId);
+            @Parameter(description = "ID пользователя") @PathVariable Long userId,
+            @Parameter(description = "Сколько уведомлений вернуть (по умолчанию 50, максимум 500)") @RequestParam(required = false) Integer size) {
+        List<NotificationDTO> notifications = notificationService.getUnreadNotifications(userId, size);
         return ResponseEntity.ok(notifications);
     }
 
@@ -79,10 +104,27 @@ public class NotificationController {
 
     @PutMapping("/user/{userId}/read-all")
     @Operation(summary = "Отметить все уведомления пользователя как прочитанные")
-    public ResponseEntity<Void> markAllAsRead(
+    public ResponseEntity<MarkReadResultDTO> markAllAsRead(
             @Parameter(description = "ID пользователя") @PathVariable Long userId) {
-        notificationService.markAllAsRead(userId);
-        return ResponseEntity.ok().build();
+        MarkReadResultDTO result = notificationService.markAllAsRead(userId);
+        return ResponseEntity.ok(result);
+    }
+
+    @PutMapping("/read-all")
+    @Operation(summary = "Отметить прочитанными все уведомления нескольких пользователей",
+            description = "Обрабатывает пользователей порциями, по одному UPDATE на порцию; возвращает число строк и строк в секунду")
+    public ResponseEntity<MarkReadResultDTO> markAllAsReadForUsers(@RequestBody List<Long> userIds) {
+        MarkReadResultDTO result = notificationService.markAllAsRead(userIds);
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping(value = "/user/{userId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Подписаться на новые уведомления пользователя (SSE)",
+            description = "События notification (id = номер доставки, растёт в порядке коммита) и unread-count. После переподключения передайте Last-Event-ID, чтобы получить пропущенное")
+    public SseEmitter streamNotifications(
+            @Parameter(description = "ID пользователя") @PathVariable Long userId,
+            @Parameter(description = "id последнего полученного события") @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return notificationService.subscribe(userId, lastEventId);
     }
 
     @GetMapping("/user/{userId}/unread-count")
@@ -93,4 +135,34 @@ public class NotificationController {
         return ResponseEntity.ok(count);
     }
 
+    @PostMapping("/broadcast")
+    @Operation(summary = "Создать общее объявление для всех пользователей", description = "Хранится одной строкой и подмешивается в уведомления каждого пользователя при чтении")
+    public ResponseEntity<NotificationDTO> createBroadcast(@Valid @RequestBody BroadcastCreateDTO dto) {
+        NotificationDTO broadcast = broadcastNotificationService.createBroadcast(dto);
+        return ResponseEntity.ok(broadcast);
+    }
+
+    @DeleteMapping("/broadcast/{id}")
+    @Operation(summary = "Удалить общее объявление")
+    public ResponseEntity<Void> deleteBroadcast(
+            @Parameter(description = "ID объявления") @PathVariable Long id) {
+        broadcastNotificationService.deleteBroadcast(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PutMapping("/broadcast/{id}/read")
+    @Operation(summary = "Отметить объявление прочитанным", description = "Вместе с ним прочитанными считаются все более ранние объявления")
+    public ResponseEntity<Void> markBroadcastAsRead(
+            @Parameter(description = "ID объявления") @PathVariable Long id,
+            @Parameter(description = "ID пользователя") @RequestParam Long userId) {
+        broadcastNotificationService.markAsRead(userId, id);
+        return ResponseEntity.ok().build();
+    }
+
+    @GetMapping("/pipeline/stats")
+    @Operation(summary = "Состояние конвейера записи уведомлений", description = "Очередь, пакеты, задержка от коммита до записи и число записей в вызывающем потоке при переполнении")
+    public ResponseEntity<NotificationPipelineStatsDTO> getPipelineStats() {
+        return ResponseEntity.ok(notificationService.getPipelineStats());
+    }
+
 }
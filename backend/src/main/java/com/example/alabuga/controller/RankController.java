@@ -3,13 +3,17 @@ package com.example.alabuga.controller;
 import com.example.alabuga.dto.*;
 import com.example.alabuga.entity.Rank.RankBranch;
 import com.example.alabuga.mapper.UserMapper;
+import com.example.alabuga.service.CatalogCache;
+import com.example.alabuga.service.RankReevaluationService;
 import com.example.alabuga.service.RankService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -21,6 +25,8 @@ public class RankController {
 
     private final RankService rankService;
     private final UserMapper userMapper;
+    private final CatalogCache catalogCache;
+    private final RankReevaluationService rankReevaluationService;
 
     // ========== RANK ENDPOINTS ==========
 
@@ -51,16 +57,14 @@ public class RankController {
 
     @GetMapping("/requirements")
     @Operation(summary = "Получить все требования рангов")
-    public ResponseEntity<List<RankRequirementsDTO>> getAllRankRequirements() {
-        List<RankRequirementsDTO> requirements = rankService.getAllRankRequirements();
-        return ResponseEntity.ok(requirements);
+    public ResponseEntity<List<RankRequirementsDTO>> getAllRankRequirements(WebRequest request) {
+        return catalogCache.conditional(CatalogCache.Section.RANKS, request, rankService::getAllRankRequirements);
     }
 
     @GetMapping("/requirements/active")
     @Operation(summary = "Получить активные требования рангов")
-    public ResponseEntity<List<RankRequirementsDTO>> getActiveRankRequirements() {
-        List<RankRequirementsDTO> requirements = rankService.getActiveRankRequirements();
-        return ResponseEntity.ok(requirements);
+    public ResponseEntity<List<RankRequirementsDTO>> getActiveRankRequirements(WebRequest request) {
+        return catalogCache.conditional(CatalogCache.Section.RANKS, request, rankService::getActiveRankRequirements);
     }
 
     @GetMapping("/requirements/level/{level}")
@@ -113,4 +117,27 @@ public class RankController {
         boolean canPromote = rankService.checkUserCanBePromoted(userId);
         return ResponseEntity.ok(canPromote);
     }
+
+    // ========== RANK REEVALUATION ENDPOINTS ==========
+
+    @PostMapping("/reevaluation")
+    @Operation(summary = "Запустить массовый пересчёт рангов",
+               description = "Задание выполняется в фоне; если ожидающее задание уже есть, возвращается оно")
+    public ResponseEntity<RankReevaluationStatusDTO> startReevaluation() {
+        RankReevaluationStatusDTO status = rankReevaluationService.requestReevaluation("Запуск вручную");
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+    }
+
+    @GetMapping("/reevaluation/latest")
+    @Operation(summary = "Получить состояние последнего пересчёта рангов")
+    public ResponseEntity<RankReevaluationStatusDTO> getLatestReevaluation() {
+        return ResponseEntity.ok(rankReevaluationService.getLatestStatus());
+    }
+
+    @GetMapping("/reevaluation/{jobId}")
+    @Operation(summary = "Получить состояние пересчёта рангов")
+    public ResponseEntity<RankReevaluationStatusDTO> getReevaluation(
+            @Parameter(description = "ID задания") @PathVariable Long jobId) {
+        return ResponseEntity.ok(rankReevaluationService.getStatus(jobId));
+    }
 }
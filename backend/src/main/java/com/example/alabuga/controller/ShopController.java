@@ -1,6 +1,7 @@
 package com.example.alabuga.controller;
 
 import com.example.alabuga.dto.*;
+import com.example.alabuga.service.CatalogCache;
 import com.example.alabuga.service.ShopService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -9,6 +10,7 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -19,19 +21,25 @@ import java.util.List;
 public class ShopController {
 
     private final ShopService shopService;
+    private final CatalogCache catalogCache;
 
     @GetMapping
     @Operation(summary = "Получить все товары магазина")
-    public ResponseEntity<List<ShopItemDTO>> getAllShopItems() {
-        List<ShopItemDTO> shopItems = shopService.getAllShopItems();
-        return ResponseEntity.ok(shopItems);
+    public ResponseEntity<List<ShopItemDTO>> getAllShopItems(WebRequest request) {
+        return catalogCache.conditional(CatalogCache.Section.SHOP, request, shopService::getAllShopItems);
     }
 
     @GetMapping("/available")
     @Operation(summary = "Получить доступные товары")
-    public ResponseEntity<List<ShopItemDTO>> getAvailableItems() {
-        List<ShopItemDTO> shopItems = shopService.getAvailableItems();
-        return ResponseEntity.ok(shopItems);
+    public ResponseEntity<List<ShopItemDTO>> getAvailableItems(WebRequest request) {
+        return catalogCache.conditional(CatalogCache.Section.SHOP, request, shopService::getAvailableItems);
+    }
+
+    @GetMapping("/stock")
+    @Operation(summary = "Текущие остатки товаров с ограниченным количеством",
+            description = "Списки товаров кэшируются без остатков; товара нет в ответе — количество не ограничено")
+    public ResponseEntity<List<ShopItemStockDTO>> getStock() {
+        return ResponseEntity.ok(shopService.getStock());
     }
 
     @GetMapping("/search")
@@ -91,6 +99,12 @@ public class ShopController {
         return ResponseEntity.ok(purchase);
     }
 
+    @GetMapping("/purchase/stats")
+    @Operation(summary = "Статистика покупок", description = "Попытки, успешные покупки, отказы, средняя задержка и пропускная способность с момента запуска")
+    public ResponseEntity<ShopPurchaseStatsDTO> getPurchaseStats() {
+        return ResponseEntity.ok(shopService.getPurchaseStats());
+    }
+
     @GetMapping("/purchases/{userId}")
     @Operation(summary = "Получить историю покупок пользователя")
     public ResponseEntity<List<UserPurchaseDTO>> getUserPurchaseHistory(
@@ -2,6 +2,8 @@ package com.example.alabuga.controller;
 
 import com.example.alabuga.dto.*;
 import com.example.alabuga.entity.UserRole;
+import com.example.alabuga.service.CatalogCache;
+import com.example.alabuga.service.UserImportService;
 import com.example.alabuga.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -9,10 +11,14 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -25,15 +31,36 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class UserController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final UserService userService;
+    private final UserImportService userImportService;
+    private final CatalogCache catalogCache;
 
     // ========== USER CRUD ENDPOINTS ==========
 
     @GetMapping
-    @Operation(summary = "Получить всех пользователей")
-    public ResponseEntity<List<UserDTO>> getAllUsers() {
-        List<UserDTO> users = userService.getAllUsers();
-        return ResponseEntity.ok(users);
+    @Operation(summary = "Получить всех пользователей (постранично, курсор следующей страницы в заголовке X-Next-Cursor)")
+    public ResponseEntity<List<UserDTO>> getAllUsers(
+            @Parameter(description = "Коллекции для загрузки: competencies,artifacts") @RequestParam(required = false) String include,
+            @Parameter(description = "Курсор страницы") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "" + UserService.MAX_PAGE_SIZE) Integer size) {
+        return pageResponse(userService.getAllUsers(UserInclude.parse(include), cursor, size));
+    }
+
+    @GetMapping("/page")
+    @Operation(summary = "Получить страницу пользователей с фильтрами (keyset-пагинация по рангу, опыту и ID)")
+    public ResponseEntity<UserPageDTO> getUsersPage(
+            @Parameter(description = "Роль пользователя") @RequestParam(required = false) UserRole role,
+            @Parameter(description = "Активность пользователя") @RequestParam(required = false) Boolean isActive,
+            @Parameter(description = "Минимальный ранг") @RequestParam(required = false) Integer minRank,
+            @Parameter(description = "Минимальный опыт") @RequestParam(required = false) Integer minExperience,
+            @Parameter(description = "Коллекции для загрузки: competencies,artifacts") @RequestParam(required = false) String include,
+            @Parameter(description = "Курсор страницы") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "" + UserService.DEFAULT_PAGE_SIZE) Integer size) {
+        UserPageDTO page = userService.getUsersPage(role, isActive, minRank, minExperience,
+                UserInclude.parse(include), cursor, size);
+        return ResponseEntity.ok(page);
     }
 
     @GetMapping("/roles")
@@ -51,8 +78,9 @@ public class UserController {
             @Parameter(description = "ID пользователя", required = true)
             @PathVariable
             @Positive(message = "ID пользователя должен быть положительным")
-            Long id) {
-        Optional<UserDTO> user = userService.getUserById(id);
+            Long id,
+            @Parameter(description = "Коллекции для загрузки: competencies,artifacts") @RequestParam(required = false) String include) {
+        Optional<UserDTO> user = userService.getUserById(id, UserInclude.parse(include));
         return user.map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -82,6 +110,24 @@ public class UserController {
         return ResponseEntity.status(HttpStatus.CREATED).body(savedUser);
     }
 
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, "text/csv"})
+    @Operation(summary = "Массовый импорт пользователей",
+            description = "JSON-массив UserCreateDTO или CSV с заголовком " + UserImportService.CSV_HEADER
+                    + ". Импорт идёт в фоне, ход — GET /api/users/import/{jobId}")
+    public ResponseEntity<UserImportStatusDTO> importUsers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) {
+        boolean csv = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType("text/csv"));
+        UserImportStatusDTO status = userImportService.startImport(body, csv);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+    }
+
+    @GetMapping("/import/{jobId}")
+    @Operation(summary = "Получить ход массового импорта пользователей")
+    public ResponseEntity<UserImportStatusDTO> getImportStatus(
+            @Parameter(description = "ID задачи импорта") @PathVariable String jobId) {
+        return ResponseEntity.ok(userImportService.getStatus(jobId));
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Обновить пользователя")
     public ResponseEntity<UserDTO> updateUser(
@@ -120,32 +166,40 @@ public class UserController {
     @GetMapping("/role/{role}")
     @Operation(summary = "Получить пользователей по роли")
     public ResponseEntity<List<UserDTO>> getUsersByRole(
-            @Parameter(description = "Роль пользователя") @PathVariable UserRole role) {
-        List<UserDTO> users = userService.getUsersByRole(role);
-        return ResponseEntity.ok(users);
+            @Parameter(description = "Роль пользователя") @PathVariable UserRole role,
+            @Parameter(description = "Коллекции для загрузки: competencies,artifacts") @RequestParam(required = false) String include,
+            @Parameter(description = "Курсор страницы") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "" + UserService.MAX_PAGE_SIZE) Integer size) {
+        return pageResponse(userService.getUsersByRole(role, UserInclude.parse(include), cursor, size));
     }
 
     @GetMapping("/active")
     @Operation(summary = "Получить активных пользователей")
-    public ResponseEntity<List<UserDTO>> getActiveUsers() {
-        List<UserDTO> users = userService.getActiveUsers();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<List<UserDTO>> getActiveUsers(
+            @Parameter(description = "Коллекции для загрузки: competencies,artifacts") @RequestParam(required = false) String include,
+            @Parameter(description = "Курсор страницы") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "" + UserService.MAX_PAGE_SIZE) Integer size) {
+        return pageResponse(userService.getActiveUsers(UserInclude.parse(include), cursor, size));
     }
 
     @GetMapping("/rank/{minRank}")
     @Operation(summary = "Получить пользователей с минимальным рангом")
     public ResponseEntity<List<UserDTO>> getUsersByMinRank(
-            @Parameter(description = "Минимальный ранг") @PathVariable Integer minRank) {
-        List<UserDTO> users = userService.getUsersByMinRank(minRank);
-        return ResponseEntity.ok(users);
+            @Parameter(description = "Минимальный ранг") @PathVariable Integer minRank,
+            @Parameter(description = "Коллекции для загрузки: competencies,artifacts") @RequestParam(required = false) String include,
+            @Parameter(description = "Курсор страницы") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "" + UserService.MAX_PAGE_SIZE) Integer size) {
+        return pageResponse(userService.getUsersByMinRank(minRank, UserInclude.parse(include), cursor, size));
     }
 
     @GetMapping("/experience/{minExperience}")
     @Operation(summary = "Получить пользователей с минимальным опытом")
     public ResponseEntity<List<UserDTO>> getUsersByMinExperience(
-            @Parameter(description = "Минимальный опыт") @PathVariable Integer minExperience) {
-        List<UserDTO> users = userService.getUsersByMinExperience(minExperience);
-        return ResponseEntity.ok(users);
+            @Parameter(description = "Минимальный опыт") @PathVariable Integer minExperience,
+            @Parameter(description = "Коллекции для загрузки: competencies,artifacts") @RequestParam(required = false) String include,
+            @Parameter(description = "Курсор страницы") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "" + UserService.MAX_PAGE_SIZE) Integer size) {
+        return pageResponse(userService.getUsersByMinExperience(minExperience, UserInclude.parse(include), cursor, size));
     }
 
     // ========== USER STATS ENDPOINTS ==========
@@ -177,13 +231,22 @@ public class UserController {
         return ResponseEntity.ok(user);
     }
 
+    @GetMapping("/{id}/energy/transactions")
+    @Operation(summary = "Получить историю операций с Энергонами", description = "От новых к старым; следующая страница — beforeId = id последней записи")
+    public ResponseEntity<List<EnergyTransactionDTO>> getEnergyHistory(
+            @Parameter(description = "ID пользователя") @PathVariable Long id,
+            @Parameter(description = "Вернуть операции с id меньше указанного") @RequestParam(required = false) Long beforeId,
+            @Parameter(description = "Размер страницы (по умолчанию 50, максимум 500)") @RequestParam(required = false) Integer size) {
+        List<EnergyTransactionDTO> transactions = userService.getEnergyHistory(id, beforeId, size);
+        return ResponseEntity.ok(transactions);
+    }
+
     // ========== COMPETENCY ENDPOINTS ==========
 
     @GetMapping("/competencies")
     @Operation(summary = "Получить все компетенции")
-    public ResponseEntity<List<CompetencyDTO>> getAllCompetencies() {
-        List<CompetencyDTO> competencies = userService.getAllCompetencies();
-        return ResponseEntity.ok(competencies);
+    public ResponseEntity<List<CompetencyDTO>> getAllCompetencies(WebRequest request) {
+        return catalogCache.conditional(CatalogCache.Section.COMPETENCIES, request, userService::getAllCompetencies);
     }
 
     @GetMapping("/{id}/competencies")
@@ -272,4 +335,13 @@ public class UserController {
         userService.removeMissionFromUser(id, missionId);
         return ResponseEntity.ok().build();
     }
-}
\ No newline at end of file
+
+    // Списочные эндпоинты сохраняют формат массива, курсор следующей страницы отдаётся в заголовке
+    private ResponseEntity<List<UserDTO>> pageResponse(UserPageDTO page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.alabuga.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "DTO для создания общего объявления")
+public class BroadcastCreateDTO {
+
+    @NotBlank(message = "Заголовок объявления не может быть пустым")
+    @Size(max = 200, message = "Заголовок объявления не может превышать 200 символов")
+    @Schema(description = "Заголовок объявления", example = "СИСТЕМНЫЙ ЖУРНАЛ: ПЛАНОВОЕ ОБСЛУЖИВАНИЕ СТАНЦИИ", required = true)
+    private String title;
+
+    @NotBlank(message = "Содержимое объявления не может быть пустым")
+    @Schema(description = "Содержимое объявления", example = "Станция уходит на плановое обслуживание в 03:00.", required = true)
+    private String content;
+
+    @Schema(description = "Тип уведомления (по умолчанию SYSTEM_MESSAGE)", example = "SYSTEM_MESSAGE")
+    private String notificationType;
+
+    @Size(max = 1000, message = "Метаданные не могут превышать 1000 символов")
+    @Schema(description = "Дополнительные данные в JSON формате")
+    private String metadata;
+}
@@ -0,0 +1,27 @@
+package com.example.alabuga.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "DTO для массовой модерации миссий")
+public class BulkModerationRequestDTO {
+
+    @NotEmpty(message = "Список прогрессов миссий не может быть пустым")
+    @Schema(description = "ID прогрессов миссий (UserMission) из очереди модерации", example = "[12, 15, 18]", required = true)
+    private List<Long> userMissionIds;
+
+    @NotNull(message = "Решение модерации обязательно")
+    @Schema(description = "Одобрить (true) или отклонить (false) все переданные миссии", example = "true", required = true)
+    private Boolean approved;
+}
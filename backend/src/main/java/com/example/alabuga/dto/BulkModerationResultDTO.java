@@ -0,0 +1,32 @@
+package com.example.alabuga.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Результат массовой модерации миссий")
+public class BulkModerationResultDTO {
+
+    @Schema(description = "Одобрено или отклонено миссий", example = "998")
+    private Integer moderated;
+
+    @Schema(description = "ID прогрессов, пропущенных: не найдены, не ждут модерации или уже обработаны", example = "[15, 18]")
+    private List<Long> skippedIds;
+
+    @Schema(description = "Пользователей, получивших награды", example = "640")
+    private Integer rewardedUsers;
+
+    @Schema(description = "Начислено опыта всего", example = "49900")
+    private Long experienceAwarded;
+
+    @Schema(description = "Начислено Энергонов всего", example = "19960")
+    private Long energyAwarded;
+}
@@ -0,0 +1,37 @@
+package com.example.alabuga.dto;
+
+import java.time.LocalDateTime;
+
+import com.example.alabuga.entity.EnergyTransactionType;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "DTO операции с Энергонами")
+public class EnergyTransactionDTO {
+    
+    @Schema(description = "ID операции", example = "1")
+    private Long id;
+    
+    @Schema(description = "Тип операции", example = "PURCHASE")
+    private EnergyTransactionType type;
+    
+    @Schema(description = "Изменение баланса (отрицательное для списаний)", example = "-150")
+    private Integer amount;
+    
+    @Schema(description = "Баланс после операции", example = "350")
+    private Integer balanceAfter;
+    
+    @Schema(description = "ID связанной сущности (миссии, товара)", example = "3")
+    private Long referenceId;
+    
+    @Schema(description = "Дата операции", example = "2025-01-20T12:34:27")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,27 @@
+package com.example.alabuga.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "DTO строки таблицы лидеров")
+public class LeaderboardEntryDTO {
+
+    @Schema(description = "Место в таблице (с 1)", example = "1")
+    private Integer position;
+
+    @Schema(description = "ID пользователя", example = "1")
+    private Long userId;
+
+    @Schema(description = "Имя пользователя", example = "Иван Петров")
+    private String userName;
+
+    @Schema(description = "Опыт, по которому строится таблица", example = "5000")
+    private Long experience;
+}
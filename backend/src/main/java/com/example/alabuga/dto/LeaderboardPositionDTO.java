@@ -0,0 +1,29 @@
+package com.example.alabuga.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "DTO позиции пользователя в таблице лидеров с соседями")
+public class LeaderboardPositionDTO {
+
+    @Schema(description = "Место пользователя (с 1)", example = "42")
+    private Integer position;
+
+    @Schema(description = "Опыт пользователя в этой таблице", example = "1200")
+    private Long experience;
+
+    @Schema(description = "Всего участников в таблице", example = "1000")
+    private Integer total;
+
+    @Schema(description = "Соседи сверху и снизу, включая самого пользователя")
+    private List<LeaderboardEntryDTO> neighbours;
+}
@@ -0,0 +1,27 @@
+package com.example.alabuga.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "DTO результата массовой отметки уведомлений прочитанными")
+public class MarkReadResultDTO {
+    
+    @Schema(description = "Обработано пользователей", example = "1000")
+    private int users;
+    
+    @Schema(description = "Отмечено уведомлений", example = "25000")
+    private long rows;
+    
+    @Schema(description = "Длительность, мс", example = "180.4")
+    private double durationMs;
+    
+    @Schema(description = "Строк в секунду", example = "138580.9")
+    private double rowsPerSecond;
+}
@@ -0,0 +1,29 @@
+package com.example.alabuga.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Страница очереди модерации с курсором для следующего запроса")
+public class ModerationQueuePageDTO {
+
+    @Schema(description = "Миссии, ожидающие модерации, от старых к новым (по ID прогресса)")
+    private List<UserMissionDTO> items;
+
+    @Schema(description = "ID последнего прогресса страницы для следующего запроса; null, если страница последняя", example = "1250")
+    private Long nextAfterId;
+
+    @Schema(description = "Есть ли следующая страница", example = "true")
+    private Boolean hasNext;
+
+    @Schema(description = "Запрошенный размер страницы", example = "50")
+    private Integer size;
+}
@@ -29,6 +29,9 @@ public class NotificationCreateDTO {
     @Schema(description = "Содержимое уведомления", example = "ЗАГРУЗКА ПРОТОКОЛА «СТАРТ»...", required = true)
     private String content;
 
+    @Schema(hidden = true)
+    private String templateId;
+
     @NotBlank(message = "Тип уведомления обязателен")
     @Schema(description = "Тип уведомления", example = "RANK_ASSIGNMENT", required = true)
     private String notificationType;
@@ -15,7 +15,7 @@ import lombok.NoArgsConstructor;
 @Schema(description = "DTO для системного уведомления")
 public class NotificationDTO {
 
-    @Schema(description = "Уникальный идентификатор уведомления", example = "1")
+    @Schema(description = "Уникальный идентификатор уведомления; у объявлений не заполняется", example = "1")
     private Long id;
 
     @Schema(description = "ID пользователя", example = "1")
@@ -42,4 +42,11 @@ public class NotificationDTO {
 
     @Schema(description = "Дополнительные данные в JSON формате", example = "{\"rankLevel\": 0, \"rankName\": \"Космо-Кадет\"}")
     private String metadata;
+
+    @Builder.Default
+    @Schema(description = "Общее объявление", example = "false")
+    private Boolean broadcast = false;
+
+    @Schema(description = "ID объявления (отдельно от id уведомлений), отмечается прочитанным через /broadcast/{id}/read", example = "1")
+    private Long broadcastId;
 }
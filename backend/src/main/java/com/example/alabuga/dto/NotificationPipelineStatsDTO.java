@@ -0,0 +1,45 @@
+package com.example.alabuga.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "DTO состояния конвейера записи уведомлений")
+public class NotificationPipelineStatsDTO {
+    
+    @Schema(description = "Уведомлений в очереди", example = "12")
+    private int queueSize;
+    
+    @Schema(description = "Ёмкость очереди", example = "10000")
+    private int queueCapacity;
+    
+    @Schema(description = "Всего принято после коммита", example = "5400")
+    private long enqueued;
+    
+    @Schema(description = "Всего записано в БД", example = "5388")
+    private long inserted;
+    
+    @Schema(description = "Выполнено пакетных вставок", example = "120")
+    private long batches;
+    
+    @Schema(description = "Средний размер пакета", example = "44.9")
+    private double averageBatchSize;
+    
+    @Schema(description = "Записано вызывающим потоком из-за переполнения очереди", example = "0")
+    private long callerRuns;
+    
+    @Schema(description = "Не удалось сформировать или записать", example = "0")
+    private long failed;
+    
+    @Schema(description = "Средняя задержка от коммита до записи, мс", example = "8.5")
+    private double averageLagMs;
+    
+    @Schema(description = "Максимальная задержка от коммита до записи, мс", example = "140")
+    private long maxLagMs;
+}
@@ -0,0 +1,52 @@
+package com.example.alabuga.dto;
+
+import java.time.LocalDateTime;
+
+import com.example.alabuga.entity.RankReevaluationJob;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "DTO состояния массового пересчёта рангов")
+public class RankReevaluationStatusDTO {
+
+    @Schema(description = "Идентификатор задания", example = "1")
+    private Long jobId;
+
+    @Schema(description = "Состояние задания", example = "RUNNING")
+    private RankReevaluationJob.JobStatus status;
+
+    @Schema(description = "Причина запуска", example = "Изменены требования ранга уровня 2")
+    private String triggerReason;
+
+    @Schema(description = "ID последнего обработанного пользователя; с него задание продолжится после сбоя", example = "42000")
+    private Long lastUserId;
+
+    @Schema(description = "Проверено пользователей", example = "42000")
+    private Long processedUsers;
+
+    @Schema(description = "Повышено пользователей", example = "350")
+    private Long promotedUsers;
+
+    @Schema(description = "Скорость проверки пользователей в секунду", example = "65000.0")
+    private double usersPerSecond;
+
+    @Schema(description = "Время постановки в очередь", example = "2025-09-20T12:34:27.818026")
+    private LocalDateTime createdAt;
+
+    @Schema(description = "Время первого запуска", example = "2025-09-20T12:34:27.918026")
+    private LocalDateTime startedAt;
+
+    @Schema(description = "Время завершения", example = "2025-09-20T12:34:29.018026")
+    private LocalDateTime finishedAt;
+
+    @Schema(description = "Текст ошибки, если задание прервано")
+    private String error;
+}
@@ -42,7 +42,7 @@ public class ShopItemDTO {
     @NotNull(message = "Статус активности обязателен")
     private Boolean isActive;
 
-    @Schema(description = "Количество на складе", example = "10")
+    @Schema(description = "Количество на складе; в кэшируемых списках каталога не заполняется — остатки отдаёт /api/shop/stock", example = "10")
     @Min(value = 0, message = "Количество на складе не может быть отрицательным")
     private Integer stockQuantity;
 }
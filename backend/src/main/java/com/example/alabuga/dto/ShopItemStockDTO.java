@@ -0,0 +1,21 @@
+package com.example.alabuga.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "DTO текущего остатка товара с ограниченным количеством")
+public class ShopItemStockDTO {
+    
+    @Schema(description = "ID товара", example = "1")
+    private Long shopItemId;
+    
+    @Schema(description = "Количество на складе", example = "10")
+    private Integer stockQuantity;
+}
@@ -0,0 +1,33 @@
+package com.example.alabuga.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "DTO статистики покупок в Нексусе с момента запуска")
+public class ShopPurchaseStatsDTO {
+    
+    @Schema(description = "Всего попыток покупки", example = "5000")
+    private long attempts;
+    
+    @Schema(description = "Успешных покупок", example = "100")
+    private long completed;
+    
+    @Schema(description = "Отказов по бизнес-правилам (нет Энергонов, товара, товар снят)", example = "4900")
+    private long rejected;
+    
+    @Schema(description = "Из них отказов из-за пустого склада", example = "4850")
+    private long soldOut;
+    
+    @Schema(description = "Средняя длительность покупки, мс", example = "3.2")
+    private double averageLatencyMs;
+    
+    @Schema(description = "Успешных покупок в секунду с момента запуска", example = "12.5")
+    private double completedPerSecond;
+}
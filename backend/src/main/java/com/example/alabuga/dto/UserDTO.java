@@ -4,7 +4,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import com.example.alabuga.entity.UserRole;
-import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.Email;
@@ -76,11 +76,11 @@ public class UserDTO {
     @Schema(description = "Дата последнего обновления", example = "2025-09-20T12:34:27.818026")
     private LocalDateTime updatedAt;
     
-    @JsonIgnore
-    @Schema(hidden = true)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "Компетенции пользователя (только при include=competencies)")
     private List<UserCompetencyDTO> competencies;
     
-    @JsonIgnore
-    @Schema(hidden = true)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "Артефакты пользователя (только при include=artifacts)")
     private List<UserArtifactDTO> artifacts;
 }
@@ -0,0 +1,24 @@
+package com.example.alabuga.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "DTO ошибки строки массового импорта пользователей")
+public class UserImportErrorDTO {
+    
+    @Schema(description = "Номер записи во входных данных (с 1, без заголовка CSV)", example = "42")
+    private int line;
+    
+    @Schema(description = "Логин из записи", example = "cadet042")
+    private String login;
+    
+    @Schema(description = "Причина отказа", example = "Пользователь с email 'cadet042@alabuga.com' уже существует")
+    private String message;
+}
@@ -0,0 +1,60 @@
+package com.example.alabuga.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "DTO состояния массового импорта пользователей")
+public class UserImportStatusDTO {
+    
+    @Schema(description = "Идентификатор задачи импорта", example = "3f1c2a9e-7d4b-4c1e-9a51-0d6f2b8e1c77")
+    private String jobId;
+    
+    @Schema(description = "Состояние задачи", example = "RUNNING")
+    private Status status;
+    
+    @Schema(description = "Всего записей во входных данных", example = "5000")
+    private int total;
+    
+    @Schema(description = "Обработано записей", example = "3000")
+    private int processed;
+    
+    @Schema(description = "Создано пользователей", example = "2990")
+    private int created;
+    
+    @Schema(description = "Отклонено записей", example = "10")
+    private int failed;
+    
+    @Schema(description = "Скорость создания пользователей в секунду", example = "4200.5")
+    private double usersPerSecond;
+    
+    @Schema(description = "Время запуска", example = "2025-09-20T12:34:27.818026")
+    private LocalDateTime startedAt;
+    
+    @Schema(description = "Время завершения", example = "2025-09-20T12:34:29.018026")
+    private LocalDateTime finishedAt;
+    
+    @Schema(description = "Ошибки по записям (не больше 1000 первых)")
+    private List<UserImportErrorDTO> errors;
+    
+    @Schema(description = "Состояния задачи импорта")
+    public enum Status {
+        @Schema(description = "Выполняется")
+        RUNNING,
+        
+        @Schema(description = "Завершена")
+        COMPLETED,
+        
+        @Schema(description = "Прервана ошибкой")
+        FAILED
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.alabuga.dto;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import com.example.alabuga.exception.BusinessLogicException;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Тяжёлые коллекции, которые можно запросить вместе с пользователем через параметр include")
+public enum UserInclude {
+    COMPETENCIES,
+    ARTIFACTS;
+
+    /**
+     * Разбирает значение параметра include, например "competencies,artifacts".
+     * Пустое значение означает облегчённое представление без коллекций.
+     */
+    public static Set<UserInclude> parse(String include) {
+        Set<UserInclude> result = EnumSet.noneOf(UserInclude.class);
+        if (include == null || include.isBlank()) {
+            return result;
+        }
+        for (String part : include.split(",")) {
+            String name = part.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            try {
+                result.add(UserInclude.valueOf(name.toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                throw new BusinessLogicException("Неизвестное значение include: %s", name);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.alabuga.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Страница пользователей с курсором для следующего запроса")
+public class UserPageDTO {
+
+    @Schema(description = "Пользователи страницы, упорядоченные по рангу, опыту и ID (по убыванию)")
+    private List<UserDTO> items;
+
+    @Schema(description = "Курсор следующей страницы; null, если страница последняя", example = "M18xMjAwXzQy")
+    private String nextCursor;
+
+    @Schema(description = "Есть ли следующая страница", example = "true")
+    private Boolean hasNext;
+
+    @Schema(description = "Запрошенный размер страницы", example = "50")
+    private Integer size;
+}
@@ -17,7 +17,8 @@ import lombok.NoArgsConstructor;
 public class Artifact {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "artifacts_seq")
+    @SequenceGenerator(name = "artifacts_seq", sequenceName = "artifacts_id_seq", allocationSize = 50)
     @Schema(description = "Уникальный идентификатор артефакта", example = "1")
     private Long id;
 
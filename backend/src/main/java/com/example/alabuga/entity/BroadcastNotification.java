@@ -0,0 +1,56 @@
+package com.example.alabuga.entity;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "broadcast_notifications")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Сущность общего объявления для всех пользователей")
+public class BroadcastNotification {
+
+    @Id
+    // Шаг 1: маркер прочтения хранит последний прочитанный id, более поздние объявления должны быть больше
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "broadcast_notifications_seq")
+    @SequenceGenerator(name = "broadcast_notifications_seq", sequenceName = "broadcast_notifications_id_seq", allocationSize = 1)
+    @Schema(description = "Уникальный идентификатор объявления", example = "1")
+    private Long id;
+
+    @Column(name = "title", nullable = false, length = 200)
+    @Schema(description = "Заголовок объявления", example = "СИСТЕМНЫЙ ЖУРНАЛ: ПЛАНОВОЕ ОБСЛУЖИВАНИЕ СТАНЦИИ")
+    private String title;
+
+    @Column(name = "content", nullable = false, columnDefinition = "TEXT")
+    @Schema(description = "Содержимое объявления", example = "Станция уходит на плановое обслуживание в 03:00.")
+    private String content;
+
+    @Column(name = "notification_type", nullable = false, length = 50)
+    @Schema(description = "Тип уведомления", example = "SYSTEM_MESSAGE")
+    private String notificationType;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @Schema(description = "Дата создания объявления", example = "2025-09-20T12:34:27.818026")
+    private LocalDateTime createdAt;
+
+    @Column(name = "metadata", length = 1000)
+    @Schema(description = "Дополнительные данные в JSON формате")
+    private String metadata;
+}
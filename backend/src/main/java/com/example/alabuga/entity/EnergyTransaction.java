@@ -0,0 +1,65 @@
+package com.example.alabuga.entity;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Immutable;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Immutable
+@Table(name = "energy_transactions")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Запись журнала операций с Энергонами")
+public class EnergyTransaction {
+
+    @Id
+    // Шаг 1: история и сверка баланса идут по возрастанию id записей журнала
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "energy_transactions_seq")
+    @SequenceGenerator(name = "energy_transactions_seq", sequenceName = "energy_transactions_id_seq", allocationSize = 1)
+    @Schema(description = "Уникальный идентификатор операции", example = "1")
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    @Schema(description = "ID пользователя", example = "1")
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "transaction_type", nullable = false, length = 30)
+    @Schema(description = "Тип операции", example = "MISSION_REWARD")
+    private EnergyTransactionType type;
+
+    @Column(name = "amount", nullable = false)
+    @Schema(description = "Изменение баланса (отрицательное для списаний)", example = "50")
+    private Integer amount;
+
+    @Column(name = "balance_after", nullable = false)
+    @Schema(description = "Баланс после операции", example = "250")
+    private Integer balanceAfter;
+
+    @Column(name = "reference_id")
+    @Schema(description = "ID связанной сущности (миссии, товара)", example = "3")
+    private Long referenceId;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @Schema(description = "Дата операции", example = "2025-09-20T12:34:27.818026")
+    private LocalDateTime createdAt;
+}
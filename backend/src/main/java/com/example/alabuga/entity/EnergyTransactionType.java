@@ -0,0 +1,24 @@
+package com.example.alabuga.entity;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Тип операции с Энергонами")
+public enum EnergyTransactionType {
+    @Schema(description = "Награда за миссию")
+    MISSION_REWARD,
+    
+    @Schema(description = "Покупка в магазине")
+    PURCHASE,
+    
+    @Schema(description = "Начисление из игры")
+    TAP_CREDIT,
+    
+    @Schema(description = "Начисление администратором")
+    ADMIN_GRANT,
+    
+    @Schema(description = "Списание администратором")
+    ADMIN_DEBIT,
+    
+    @Schema(description = "Корректировка баланса при редактировании профиля")
+    ADJUSTMENT
+}
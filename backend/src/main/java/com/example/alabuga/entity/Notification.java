@@ -15,6 +15,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -33,7 +34,10 @@ import lombok.NoArgsConstructor;
 public class Notification {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Шаг 1: id выдаются по одному при вставке. Порядок id — порядок вставки, а не коммита,
+    // поэтому SSE догоняет по deliverySeq, а история листается по (createdAt, id)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notifications_seq")
+    @SequenceGenerator(name = "notifications_seq", sequenceName = "notifications_id_seq", allocationSize = 1)
     @Schema(description = "Уникальный идентификатор уведомления", example = "1")
     private Long id;
 
@@ -46,10 +50,14 @@ public class Notification {
     @Schema(description = "Заголовок уведомления", example = "СИСТЕМНЫЙ ЖУРНАЛ: ИНИЦИАЦИЯ НОВОГО ЧЛЕНА ЭКИПАЖА")
     private String title;
 
-    @Column(name = "content", nullable = false, columnDefinition = "TEXT")
-    @Schema(description = "Содержимое уведомления", example = "ЗАГРУЗКА ПРОТОКОЛА «СТАРТ»...")
+    @Column(name = "content", columnDefinition = "TEXT")
+    @Schema(description = "Содержимое уведомления; пусто, если текст собирается по шаблону", example = "ЗАГРУЗКА ПРОТОКОЛА «СТАРТ»...")
     private String content;
 
+    @Column(name = "template_id", length = 50)
+    @Schema(description = "Идентификатор шаблона текста, параметры шаблона лежат в metadata", example = "RANK_ASSIGNMENT_V1")
+    private String templateId;
+
     @Column(name = "notification_type", nullable = false, length = 50)
     @Schema(description = "Тип уведомления", example = "RANK_ASSIGNMENT")
     private String notificationType;
@@ -64,6 +72,11 @@ public class Notification {
     @Schema(description = "Дата создания уведомления", example = "2025-09-20T12:34:27.818026")
     private LocalDateTime createdAt;
 
+    // Проставляется секвенсором после коммита в порядке видимости строк; до этого null
+    @Column(name = "delivery_seq", insertable = false, updatable = false)
+    @Schema(description = "Порядковый номер доставки в SSE (id события)", example = "1")
+    private Long deliverySeq;
+
     @Column(name = "metadata", length = 1000)
     @Schema(description = "Дополнительные данные в JSON формате", example = "{\"rankLevel\": 0, \"rankName\": \"Космо-Кадет\"}")
     private String metadata;
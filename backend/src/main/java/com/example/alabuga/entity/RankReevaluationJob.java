@@ -0,0 +1,97 @@
+package com.example.alabuga.entity;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "rank_reevaluation_jobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Задание массового пересчёта рангов")
+public class RankReevaluationJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rank_reevaluation_jobs_seq")
+    @SequenceGenerator(name = "rank_reevaluation_jobs_seq", sequenceName = "rank_reevaluation_jobs_id_seq", allocationSize = 50)
+    @Schema(description = "Уникальный идентификатор задания", example = "1")
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Schema(description = "Состояние задания")
+    private JobStatus status;
+
+    @Column(name = "trigger_reason", length = 200)
+    @Schema(description = "Причина запуска", example = "Изменены требования ранга уровня 2")
+    private String triggerReason;
+
+    @Column(name = "last_user_id", nullable = false)
+    @Builder.Default
+    @Schema(description = "ID последнего обработанного пользователя (контрольная точка)", example = "0")
+    private Long lastUserId = 0L;
+
+    @Column(name = "processed_users", nullable = false)
+    @Builder.Default
+    @Schema(description = "Проверено пользователей", example = "0")
+    private Long processedUsers = 0L;
+
+    @Column(name = "promoted_users", nullable = false)
+    @Builder.Default
+    @Schema(description = "Повышено пользователей", example = "0")
+    private Long promotedUsers = 0L;
+
+    @Column(name = "active_millis", nullable = false)
+    @Builder.Default
+    @Schema(description = "Время работы задания в миллисекундах без учёта простоя до продолжения", example = "0")
+    private Long activeMillis = 0L;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @Schema(description = "Время постановки в очередь", example = "2025-09-20T12:34:27.818026")
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    @Schema(description = "Время первого запуска", example = "2025-09-20T12:34:27.918026")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    @Schema(description = "Время завершения", example = "2025-09-20T12:34:29.018026")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "error", length = 1000)
+    @Schema(description = "Текст ошибки, если задание прервано")
+    private String error;
+
+    @Schema(description = "Состояния задания пересчёта рангов")
+    public enum JobStatus {
+        @Schema(description = "Ожидает запуска")
+        PENDING,
+
+        @Schema(description = "Выполняется или прервано сбоем и будет продолжено")
+        RUNNING,
+
+        @Schema(description = "Завершено")
+        COMPLETED,
+
+        @Schema(description = "Прервано ошибкой")
+        FAILED
+    }
+}
@@ -4,6 +4,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
@@ -19,6 +20,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -26,6 +28,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
+@DynamicUpdate
 @Table(name = "users")
 @Data
 @Builder
@@ -36,7 +39,8 @@ import lombok.NoArgsConstructor;
 public class User {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_id_seq", allocationSize = 50)
     @Schema(description = "Уникальный идентификатор пользователя", example = "1")
     private Long id;
     
@@ -72,7 +76,8 @@ public class User {
     @Schema(description = "Опыт пользователя", example = "5000")
     private Integer experience = 0;
     
-    @Column(name = "energy", nullable = false)
+    // Меняется только UPDATE-запросами EnergyLedgerService вместе с записью журнала
+    @Column(name = "energy", nullable = false, updatable = false)
     @Builder.Default
     @Schema(description = "Энергоны пользователя", example = "200")
     private Integer energy = 100;
@@ -15,6 +15,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -32,7 +33,8 @@ import lombok.NoArgsConstructor;
 public class UserCard {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_cards_seq")
+    @SequenceGenerator(name = "user_cards_seq", sequenceName = "user_cards_id_seq", allocationSize = 50)
     @Schema(description = "Уникальный идентификатор связи", example = "1")
     private Long id;
 
@@ -11,6 +11,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -28,7 +29,8 @@ import lombok.NoArgsConstructor;
 public class UserCompetency {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_competencies_seq")
+    @SequenceGenerator(name = "user_competencies_seq", sequenceName = "user_competencies_id_seq", allocationSize = 50)
     @Schema(description = "Уникальный идентификатор записи", example = "1")
     private Long id;
 
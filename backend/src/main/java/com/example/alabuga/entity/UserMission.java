@@ -12,6 +12,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -28,7 +29,8 @@ import lombok.NoArgsConstructor;
 public class UserMission {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_missions_seq")
+    @SequenceGenerator(name = "user_missions_seq", sequenceName = "user_missions_id_seq", allocationSize = 50)
     @Schema(description = "Уникальный идентификатор", example = "1")
     private Long id;
 
@@ -13,6 +13,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -30,7 +31,8 @@ import lombok.NoArgsConstructor;
 public class UserPurchase {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_purchases_seq")
+    @SequenceGenerator(name = "user_purchases_seq", sequenceName = "user_purchases_id_seq", allocationSize = 50)
     @Schema(description = "Уникальный идентификатор покупки", example = "1")
     private Long id;
 
@@ -10,10 +10,16 @@ import com.example.alabuga.dto.NotificationDTO;
 import com.example.alabuga.dto.NotificationUpdateDTO;
 import com.example.alabuga.entity.Notification;
 import com.example.alabuga.entity.Notification.NotificationType;
+import com.example.alabuga.service.NotificationTemplates;
+
+import lombok.RequiredArgsConstructor;
 
 @Component
+@RequiredArgsConstructor
 public class NotificationMapper {
     
+    private final NotificationTemplates notificationTemplates;
+    
     public NotificationDTO toDTO(Notification notification) {
         if (notification == null) {
             return null;
@@ -26,7 +32,9 @@ public class NotificationMapper {
                 .id(notification.getId())
                 .userId(notification.getUser() != null ? notification.getUser().getId() : null)
                 .title(notification.getTitle())
-                .content(notification.getContent())
+                .content(notification.getContent() != null
+                        ? notification.getContent()
+                        : notificationTemplates.render(notification.getTemplateId(), notification.getMetadata()))
                 .notificationType(notification.getNotificationType())
                 .notificationTypeDisplayName(typeDisplayName)
                 .isRead(notification.getIsRead())
@@ -53,6 +61,7 @@ public class NotificationMapper {
         return Notification.builder()
                 .title(dto.getTitle())
                 .content(dto.getContent())
+                .templateId(dto.getTemplateId())
                 .notificationType(dto.getNotificationType())
                 .metadata(dto.getMetadata())
                 .build();
@@ -9,6 +9,8 @@ import com.example.alabuga.dto.UserCreateDTO;
 import com.example.alabuga.dto.UserDTO;
 import com.example.alabuga.dto.UserUpdateDTO;
 import com.example.alabuga.entity.User;
+import com.example.alabuga.entity.UserArtifact;
+import com.example.alabuga.entity.UserCompetency;
 
 import lombok.RequiredArgsConstructor;
 
@@ -19,7 +21,18 @@ public class UserMapper {
     private final CompetencyMapper competencyMapper;
     private final ArtifactMapper artifactMapper;
     
+    /**
+     * Облегчённое представление: коллекции пользователя не трогаются,
+     * поэтому ленивые связи не подгружаются.
+     */
     public UserDTO toDTO(User user) {
+        return toDTO(user, null, null);
+    }
+    
+    /**
+     * Представление с заранее загруженными коллекциями (null — коллекция не запрашивалась).
+     */
+    public UserDTO toDTO(User user, List<UserCompetency> competencies, List<UserArtifact> artifacts) {
         if (user == null) {
             return null;
         }
@@ -37,14 +50,8 @@ public class UserMapper {
                 .createdAt(user.getCreatedAt())
                 .updatedAt(user.getUpdatedAt())
                 .isActive(user.getIsActive())
-                .competencies(user.getCompetencies() != null ? 
-                    user.getCompetencies().stream()
-                        .map(competencyMapper::toDTO)
-                        .collect(Collectors.toList()) : null)
-                .artifacts(user.getArtifacts() != null ? 
-                    user.getArtifacts().stream()
-                        .map(artifactMapper::toDTO)
-                        .collect(Collectors.toList()) : null)
+                .competencies(competencies != null ? competencyMapper.toUserCompetencyDTOList(competencies) : null)
+                .artifacts(artifacts != null ? artifactMapper.toUserArtifactDTOList(artifacts) : null)
                 .build();
     }
     
@@ -57,6 +64,7 @@ public class UserMapper {
                 .login(dto.getLogin())
                 .email(dto.getEmail())
                 .passwordHash(dto.getPassword()) // toDo: хеширование
+                .firstName(dto.getFirstName())
                 .lastName(dto.getLastName())
                 .role(dto.getRole())
                 .experience(dto.getExperience())
@@ -92,9 +100,6 @@ public class UserMapper {
         if (dto.getExperience() != null) {
             user.setExperience(dto.getExperience());
         }
-        if (dto.getEnergy() != null) {
-            user.setEnergy(dto.getEnergy());
-        }
         if (dto.getRank() != null) {
             user.setRank(dto.getRank());
         }
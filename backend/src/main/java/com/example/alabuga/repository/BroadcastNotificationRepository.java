@@ -0,0 +1,14 @@
+package com.example.alabuga.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.alabuga.entity.BroadcastNotification;
+
+@Repository
+public interface BroadcastNotificationRepository extends JpaRepository<BroadcastNotification, Long> {
+    
+    List<BroadcastNotification> findAllByOrderByIdDesc();
+}
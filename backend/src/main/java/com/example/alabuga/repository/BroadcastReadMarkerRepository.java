@@ -0,0 +1,63 @@
+package com.example.alabuga.repository;
+
+import java.util.List;
+
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Отметки прочтения объявлений: одна строка на пользователя с последним прочитанным id.
+ * Отметки только сдвигаются вперёд. Сдвиг — один upsert: раздельные UPDATE и INSERT ... WHERE NOT EXISTS
+ * в параллельных транзакциях оба вставляли строку и падали на первичном ключе.
+ * PostgreSQL использует INSERT ... ON CONFLICT, H2 — MERGE с тем же условием.
+ */
+@Repository
+public class BroadcastReadMarkerRepository {
+    
+    private static final String POSTGRES_UPSERT_SQL = "INSERT INTO broadcast_read_markers (user_id, last_read_id) " +
+            "SELECT u.id, ?2 FROM users u WHERE u.id IN (?1) " +
+            "ON CONFLICT (user_id) DO UPDATE " +
+            "SET last_read_id = GREATEST(broadcast_read_markers.last_read_id, EXCLUDED.last_read_id)";
+    
+    private static final String MERGE_UPSERT_SQL = "MERGE INTO broadcast_read_markers m " +
+            "USING (SELECT u.id AS user_id, CAST(?2 AS BIGINT) AS last_read_id FROM users u WHERE u.id IN (?1)) s " +
+            "ON m.user_id = s.user_id " +
+            "WHEN MATCHED AND m.last_read_id < s.last_read_id THEN UPDATE SET last_read_id = s.last_read_id " +
+            "WHEN NOT MATCHED THEN INSERT (user_id, last_read_id) VALUES (s.user_id, s.last_read_id)";
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    private String upsertSql;
+    
+    @PostConstruct
+    void chooseUpsert() {
+        boolean postgres = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+        upsertSql = postgres ? POSTGRES_UPSERT_SQL : MERGE_UPSERT_SQL;
+    }
+    
+    public long findLastReadId(Long userId) {
+        List<?> result = entityManager
+                .createNativeQuery("SELECT last_read_id FROM broadcast_read_markers WHERE user_id = ?1")
+                .setParameter(1, userId)
+                .getResultList();
+        return result.isEmpty() ? 0L : ((Number) result.get(0)).longValue();
+    }
+    
+    public void advance(Long userId, long lastReadId) {
+        advanceAll(List.of(userId), lastReadId);
+    }
+    
+    public void advanceAll(List<Long> userIds, long lastReadId) {
+        entityManager.createNativeQuery(upsertSql)
+                .setParameter(1, userIds)
+                .setParameter(2, lastReadId)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.alabuga.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.example.alabuga.entity.EnergyTransaction;
+
+@Repository
+public interface EnergyTransactionRepository extends JpaRepository<EnergyTransaction, Long> {
+    
+    Slice<EnergyTransaction> findByUserIdAndIdLessThanOrderByIdDesc(Long userId, Long beforeId, Pageable pageable);
+    
+    // Пользователи, у которых баланс не совпадает с последней записью журнала. Запись баланса блокирует строку
+    // пользователя до коммита, поэтому у одного пользователя порядок id совпадает с порядком коммитов
+    @Query("SELECT u.id FROM User u, EnergyTransaction t WHERE t.userId = u.id AND t.balanceAfter <> u.energy " +
+           "AND t.id = (SELECT MAX(t2.id) FROM EnergyTransaction t2 WHERE t2.userId = u.id)")
+    List<Long> findUserIdsWithBalanceDrift();
+}
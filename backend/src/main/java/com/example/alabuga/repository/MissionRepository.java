@@ -23,4 +23,7 @@ public interface MissionRepository extends JpaRepository<Mission, Long> {
     
     @Query("SELECT m FROM Mission m WHERE m.branchId = :branchId AND m.isActive = true")
     List<Mission> findActiveMissionsByBranch(@Param("branchId") Long branchId);
+    
+    @Query("SELECT m.id FROM Mission m WHERE m.name = :name")
+    List<Long> findIdsByName(@Param("name") String name);
 }
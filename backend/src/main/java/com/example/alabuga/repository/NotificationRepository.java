@@ -1,8 +1,12 @@
 package com.example.alabuga.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -10,19 +14,59 @@ import org.springframework.stereotype.Repository;
 import com.example.alabuga.entity.Notification;
 
 @Repository
-public interface NotificationRepository extends JpaRepository<Notification, Long> {
+public interface NotificationRepository extends JpaRepository<Notification, Long>, NotificationRepositoryCustom {
     
     List<Notification> findByUserIdOrderByCreatedAtDesc(Long userId);
     
     List<Notification> findByUserIdAndIsReadOrderByCreatedAtDesc(Long userId, Boolean isRead);
     
+    // Непрочитанные по убыванию (created_at, id), не больше страницы.
+    // Явный запрос: производный по userId соединяет notifications с users
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId AND n.isRead = :isRead ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findByUserIdAndIsReadOrderByCreatedAtDescIdDesc(@Param("userId") Long userId,
+                                                                       @Param("isRead") Boolean isRead, Pageable pageable);
+    
     
     List<Notification> findByUserIdAndNotificationTypeOrderByCreatedAtDesc(Long userId, String notificationType);
     
-    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId ORDER BY n.createdAt DESC")
-    List<Notification> findUserNotificationsOrderedByDate(@Param("userId") Long userId);
+    // Новые уведомления по убыванию (created_at, id): id задаёт только порядок при равной дате.
+    // Индекс (user_id, created_at DESC, id DESC) отдаёт строки в этом порядке без сортировки
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findUserNotificationsOrderedByDate(@Param("userId") Long userId, Pageable pageable);
+    
+    // Страница истории после курсора (createdAt, id) последней показанной записи
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId " +
+           "AND (n.createdAt, n.id) < (:beforeCreatedAt, :beforeId) ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findUserNotificationsBefore(@Param("userId") Long userId,
+                                                   @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                                   @Param("beforeId") Long beforeId, Pageable pageable);
     
     @Query("SELECT COUNT(n) FROM Notification n WHERE n.user.id = :userId AND n.isRead = false")
     Long countUnreadNotificationsByUserId(@Param("userId") Long userId);
     
+    // Догонка SSE: номера доставки растут в порядке коммита, поэтому после курсора не появится строка с меньшим номером
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId AND n.deliverySeq > :afterSeq ORDER BY n.deliverySeq")
+    List<Notification> findByUserIdAndDeliverySeqGreaterThanOrderByDeliverySeqAsc(@Param("userId") Long userId,
+                                                                                  @Param("afterSeq") Long afterSeq,
+                                                                                  Pageable pageable);
+    
+    @Query("SELECT MAX(n.deliverySeq) FROM Notification n WHERE n.user.id = :userId")
+    Optional<Long> findMaxDeliverySeqByUserId(@Param("userId") Long userId);
+    
+    @Query("SELECT n.user.id, COUNT(n) FROM Notification n WHERE n.user.id IN :userIds AND n.isRead = false GROUP BY n.user.id")
+    List<Object[]> countUnreadByUserIds(@Param("userIds") List<Long> userIds);
+    
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.user.id = :userId AND n.isRead = false")
+    int markAllAsReadByUserId(@Param("userId") Long userId);
+    
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.user.id IN :userIds AND n.isRead = false")
+    int markAllAsReadByUserIds(@Param("userIds") List<Long> userIds);
+    
+    // Условная отметка: 1 — уведомление было непрочитанным, 0 — уже прочитано
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.id = :id AND n.isRead = false")
+    int markAsReadIfUnread(@Param("id") Long id);
+    
 }
@@ -0,0 +1,32 @@
+package com.example.alabuga.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.example.alabuga.dto.NotificationCreateDTO;
+import com.example.alabuga.entity.Notification;
+
+public interface NotificationRepositoryCustom {
+    
+    // Вставляет уведомления одним JDBC-пакетом, минуя persistence context
+    void insertBatch(List<NotificationCreateDTO> notifications);
+    
+    // Кандидаты на архивацию: прочитанные старше readBefore и любые старше unreadBefore
+    List<Long> findArchivableIds(LocalDateTime readBefore, LocalDateTime unreadBefore, int limit);
+    
+    // Пользователи, у которых среди указанных уведомлений есть непрочитанные
+    List<Long> findUserIdsWithUnread(List<Long> ids);
+    
+    // Переносит уведомления в notifications_archive и удаляет их из горячей таблицы
+    int moveToArchive(List<Long> ids);
+    
+    // Удаляет из архива не более limit записей, созданных раньше before
+    int purgeArchive(LocalDateTime before, int limit);
+    
+    // Проставляет delivery_seq не более чем limit закоммиченным строкам без него; возвращает user_id этих строк.
+    // Вызывается в транзакции одного секвенсора: номера становятся видимыми в порядке возрастания
+    List<Long> assignDeliverySeq(int limit);
+    
+    // Страница архива пользователя по убыванию (created_at, id) после курсора; сущности не управляются persistence context
+    List<Notification> findArchivedByUserId(Long userId, LocalDateTime beforeCreatedAt, Long beforeId, int limit);
+}
@@ -0,0 +1,155 @@
+package com.example.alabuga.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import com.example.alabuga.dto.NotificationCreateDTO;
+import com.example.alabuga.entity.Notification;
+import com.example.alabuga.entity.User;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class NotificationRepositoryImpl implements NotificationRepositoryCustom {
+    
+    private static final String INSERT_SQL = "INSERT INTO notifications " +
+            "(user_id, title, content, template_id, notification_type, is_read, created_at, metadata) " +
+            "VALUES (?, ?, ?, ?, ?, false, ?, ?)";
+    
+    private static final String COLUMNS = "id, user_id, title, content, template_id, notification_type, is_read, created_at, metadata";
+    
+    private static final String ARCHIVABLE_SQL = "SELECT id FROM notifications " +
+            "WHERE (is_read = true AND created_at < ?) OR created_at < ? ORDER BY id LIMIT ?";
+    
+    private static final String UNREAD_USERS_SQL = "SELECT DISTINCT user_id FROM notifications " +
+            "WHERE id IN (:ids) AND is_read = false";
+    
+    private static final String ARCHIVE_SQL = "INSERT INTO notifications_archive (" + COLUMNS + ", archived_at) " +
+            "SELECT " + COLUMNS + ", :archivedAt FROM notifications WHERE id IN (:ids)";
+    
+    private static final String DELETE_SQL = "DELETE FROM notifications WHERE id IN (:ids)";
+    
+    private static final String PURGE_SQL = "DELETE FROM notifications_archive WHERE id IN " +
+            "(SELECT id FROM notifications_archive WHERE created_at < ? ORDER BY id LIMIT ?)";
+    
+    // Пакетная видимость — план запроса проверяет HotFinderQueryPlanTest
+    static final String ARCHIVE_PAGE_SQL = "SELECT " + COLUMNS + " FROM notifications_archive " +
+            "WHERE user_id = ? AND (created_at, id) < (?, ?) ORDER BY created_at DESC, id DESC LIMIT ?";
+    
+    // Строки, закоммиченные без номера доставки, по порядку id; план проверяет HotFinderQueryPlanTest
+    static final String UNDELIVERED_SQL = "SELECT id, user_id FROM notifications WHERE delivery_seq IS NULL ORDER BY id LIMIT ?";
+    
+    private static final String ASSIGN_DELIVERY_SEQ_SQL = "UPDATE notifications SET delivery_seq = %s " +
+            "WHERE id IN (:ids) AND delivery_seq IS NULL";
+    
+    // Секвенсоры нескольких экземпляров не должны пересекаться: иначе номера станут видимыми не по порядку
+    private static final String SEQUENCER_LOCK_SQL = "SELECT pg_advisory_xact_lock(?)";
+    private static final long SEQUENCER_LOCK_KEY = 0x4E4F5449L;
+    
+    private static final RowMapper<Notification> ARCHIVE_ROW_MAPPER = (rs, rowNum) -> Notification.builder()
+            .id(rs.getLong("id"))
+            .user(User.builder().id(rs.getLong("user_id")).build())
+            .title(rs.getString("title"))
+            .content(rs.getString("content"))
+            .templateId(rs.getString("template_id"))
+            .notificationType(rs.getString("notification_type"))
+            .isRead(rs.getBoolean("is_read"))
+            .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+            .metadata(rs.getString("metadata"))
+            .build();
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    
+    private String assignDeliverySeqSql;
+    private boolean postgres;
+    
+    @PostConstruct
+    void prepareDeliverySeq() {
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        // Номера доставки берутся из последовательности id: у старых строк delivery_seq = id
+        assignDeliverySeqSql = ASSIGN_DELIVERY_SEQ_SQL.formatted(
+                dialect.getSequenceSupport().getSelectSequenceNextValString("notifications_id_seq"));
+        postgres = dialect instanceof PostgreSQLDialect;
+    }
+    
+    @Override
+    public void insertBatch(List<NotificationCreateDTO> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(notifications.size());
+        for (NotificationCreateDTO n : notifications) {
+            batch.add(new Object[]{n.getUserId(), n.getTitle(), n.getContent(), n.getTemplateId(),
+                    n.getNotificationType(), now, n.getMetadata()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+    }
+    
+    @Override
+    public List<Long> findArchivableIds(LocalDateTime readBefore, LocalDateTime unreadBefore, int limit) {
+        return jdbcTemplate.queryForList(ARCHIVABLE_SQL, Long.class,
+                Timestamp.valueOf(readBefore), Timestamp.valueOf(unreadBefore), limit);
+    }
+    
+    @Override
+    public List<Long> findUserIdsWithUnread(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return namedJdbcTemplate.queryForList(UNREAD_USERS_SQL, new MapSqlParameterSource("ids", ids), Long.class);
+    }
+    
+    @Override
+    public int moveToArchive(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids)
+                .addValue("archivedAt", Timestamp.valueOf(LocalDateTime.now()));
+        namedJdbcTemplate.update(ARCHIVE_SQL, params);
+        return namedJdbcTemplate.update(DELETE_SQL, params);
+    }
+    
+    @Override
+    public int purgeArchive(LocalDateTime before, int limit) {
+        return jdbcTemplate.update(PURGE_SQL, Timestamp.valueOf(before), limit);
+    }
+    
+    @Override
+    public List<Long> assignDeliverySeq(int limit) {
+        if (postgres) {
+            jdbcTemplate.queryForList(SEQUENCER_LOCK_SQL, SEQUENCER_LOCK_KEY);
+        }
+        List<Long> ids = new ArrayList<>();
+        List<Long> userIds = new ArrayList<>();
+        jdbcTemplate.query(UNDELIVERED_SQL, rs -> {
+            ids.add(rs.getLong("id"));
+            userIds.add(rs.getLong("user_id"));
+        }, limit);
+        if (!ids.isEmpty()) {
+            namedJdbcTemplate.update(assignDeliverySeqSql, new MapSqlParameterSource("ids", ids));
+        }
+        return userIds;
+    }
+    
+    @Override
+    public List<Notification> findArchivedByUserId(Long userId, LocalDateTime beforeCreatedAt, Long beforeId, int limit) {
+        return jdbcTemplate.query(ARCHIVE_PAGE_SQL, ARCHIVE_ROW_MAPPER, userId, Timestamp.valueOf(beforeCreatedAt), beforeId, limit);
+    }
+}
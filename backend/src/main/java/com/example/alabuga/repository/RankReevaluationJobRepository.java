@@ -0,0 +1,18 @@
+package com.example.alabuga.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.alabuga.entity.RankReevaluationJob;
+
+@Repository
+public interface RankReevaluationJobRepository extends JpaRepository<RankReevaluationJob, Long> {
+    
+    List<RankReevaluationJob> findByStatusInOrderByIdAsc(Collection<RankReevaluationJob.JobStatus> statuses);
+    
+    Optional<RankReevaluationJob> findTopByOrderByIdDesc();
+}
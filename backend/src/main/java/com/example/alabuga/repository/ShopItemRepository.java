@@ -3,7 +3,9 @@ package com.example.alabuga.repository;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.alabuga.entity.ShopItem;
@@ -20,4 +22,17 @@ public interface ShopItemRepository extends JpaRepository<ShopItem, Long> {
     
     boolean existsByNameIgnoreCase(String name);
     
+    // Условное списание одной единицы со склада: 0 обновлённых строк — товар закончился или снят с продажи
+    @Modifying
+    @Query("UPDATE ShopItem si SET si.stockQuantity = si.stockQuantity - 1 " +
+           "WHERE si.id = :id AND si.isActive = true AND si.stockQuantity > 0")
+    int decrementStock(@Param("id") Long id);
+    
+    // Остатки товаров с ограниченным количеством: [shopItemId, stockQuantity]
+    @Query("SELECT si.id, si.stockQuantity FROM ShopItem si WHERE si.stockQuantity IS NOT NULL")
+    List<Object[]> findStockQuantities();
+    
+    @Query("SELECT si.stockQuantity FROM ShopItem si WHERE si.id = :id")
+    Integer findStockQuantityById(@Param("id") Long id);
+    
 }
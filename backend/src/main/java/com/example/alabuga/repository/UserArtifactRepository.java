@@ -1,5 +1,6 @@
 package com.example.alabuga.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -14,12 +15,19 @@ public interface UserArtifactRepository extends JpaRepository<UserArtifact, Long
     
     List<UserArtifact> findByUserId(Long userId);
     
-    List<UserArtifact> findByUserIdAndIsEquippedTrue(Long userId);
+    // Явные запросы по user.id и artifact.id: производные соединяют user_artifacts с users и artifacts
+    @Query("SELECT ua FROM UserArtifact ua WHERE ua.user.id = :userId AND ua.isEquipped = true")
+    List<UserArtifact> findByUserIdAndIsEquippedTrue(@Param("userId") Long userId);
     
-    UserArtifact findByUserIdAndArtifactId(Long userId, Long artifactId);
+    @Query("SELECT ua FROM UserArtifact ua WHERE ua.user.id = :userId AND ua.artifact.id = :artifactId")
+    UserArtifact findByUserIdAndArtifactId(@Param("userId") Long userId, @Param("artifactId") Long artifactId);
     
     @Query("SELECT COUNT(ua) FROM UserArtifact ua WHERE ua.user.id = :userId AND ua.isEquipped = true")
     long countEquippedArtifactsByUserId(@Param("userId") Long userId);
     
-    boolean existsByUserIdAndArtifactId(Long userId, Long artifactId);
-}
\ No newline at end of file
+    @Query("SELECT COUNT(ua) > 0 FROM UserArtifact ua WHERE ua.user.id = :userId AND ua.artifact.id = :artifactId")
+    boolean existsByUserIdAndArtifactId(@Param("userId") Long userId, @Param("artifactId") Long artifactId);
+    
+    @Query("SELECT ua FROM UserArtifact ua JOIN FETCH ua.artifact WHERE ua.user.id IN :userIds")
+    List<UserArtifact> findWithArtifactByUserIdIn(@Param("userIds") Collection<Long> userIds);
+}
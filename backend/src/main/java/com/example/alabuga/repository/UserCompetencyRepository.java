@@ -1,9 +1,11 @@
 package com.example.alabuga.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -15,8 +17,34 @@ public interface UserCompetencyRepository extends JpaRepository<UserCompetency,
     
     List<UserCompetency> findByUserId(Long userId);
     
-    Optional<UserCompetency> findByUserIdAndCompetencyId(Long userId, Long competencyId);
+    // Явный запрос: производный по userId и competencyId соединяет user_competencies с users и competencies
+    @Query("SELECT uc FROM UserCompetency uc WHERE uc.user.id = :userId AND uc.competency.id = :competencyId")
+    Optional<UserCompetency> findByUserIdAndCompetencyId(@Param("userId") Long userId, @Param("competencyId") Long competencyId);
     
     @Query("SELECT uc FROM UserCompetency uc WHERE uc.user.id = :userId AND uc.experiencePoints >= :minExperience")
     List<UserCompetency> findByUserIdAndExperiencePointsGreaterThanEqual(@Param("userId") Long userId, @Param("minExperience") Integer minExperience);
+    
+    // Очки пользователя по компетенциям без загрузки сущностей: [competencyId, experiencePoints]
+    @Query("SELECT uc.competency.id, uc.experiencePoints FROM UserCompetency uc WHERE uc.user.id = :userId")
+    List<Object[]> findCompetencyPointsByUserId(@Param("userId") Long userId);
+    
+    @Query("SELECT MAX(uc.experiencePoints) FROM UserCompetency uc WHERE uc.user.id = :userId")
+    Integer findMaxExperiencePointsByUserId(@Param("userId") Long userId);
+    
+    // Максимум очков в компетенциях по диапазону пользователей: [userId, maxExperiencePoints]
+    @Query("SELECT uc.user.id, MAX(uc.experiencePoints) FROM UserCompetency uc " +
+           "WHERE uc.user.id BETWEEN :fromUserId AND :toUserId GROUP BY uc.user.id")
+    List<Object[]> findMaxExperiencePointsByUserIdBetween(@Param("fromUserId") Long fromUserId, @Param("toUserId") Long toUserId);
+    
+    @Query("SELECT uc FROM UserCompetency uc JOIN FETCH uc.competency WHERE uc.user.id IN :userIds")
+    List<UserCompetency> findWithCompetencyByUserIdIn(@Param("userIds") Collection<Long> userIds);
+    
+    // Выдаёт пользователям все активные компетенции одним INSERT ... SELECT, уже имеющиеся пропускаются
+    @Modifying
+    @Query(value = "INSERT INTO user_competencies (user_id, competency_id, experience_points) " +
+            "SELECT u.id, c.id, 0 FROM users u CROSS JOIN competencies c " +
+            "WHERE u.id IN (:userIds) AND c.is_active = true " +
+            "AND NOT EXISTS (SELECT 1 FROM user_competencies uc WHERE uc.user_id = u.id AND uc.competency_id = c.id)",
+            nativeQuery = true)
+    int insertActiveCompetencies(@Param("userIds") Collection<Long> userIds);
 }
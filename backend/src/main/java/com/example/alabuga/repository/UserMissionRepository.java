@@ -1,8 +1,10 @@
 package com.example.alabuga.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -12,13 +14,15 @@ import com.example.alabuga.entity.MissionStatus;
 import com.example.alabuga.entity.UserMission;
 
 @Repository
-public interface UserMissionRepository extends JpaRepository<UserMission, Long> {
+public interface UserMissionRepository extends JpaRepository<UserMission, Long>, UserMissionRepositoryCustom {
     
     List<UserMission> findByUserId(Long userId);
     
     List<UserMission> findByMissionId(Long missionId);
     
-    Optional<UserMission> findByUserIdAndMissionId(Long userId, Long missionId);
+    // Явный запрос: производный по userId и missionId соединяет user_missions с users и missions
+    @Query("SELECT um FROM UserMission um WHERE um.user.id = :userId AND um.mission.id = :missionId")
+    Optional<UserMission> findByUserIdAndMissionId(@Param("userId") Long userId, @Param("missionId") Long missionId);
     
     @Query("SELECT um FROM UserMission um WHERE um.user.id = :userId AND um.status = :status")
     List<UserMission> findByUserIdAndStatus(@Param("userId") Long userId, @Param("status") String status);
@@ -27,4 +31,44 @@ public interface UserMissionRepository extends JpaRepository<UserMission, Long>
     List<UserMission> findByUserIdAndBranchId(@Param("userId") Long userId, @Param("branchId") Long branchId);
     
     List<UserMission> findByMissionIdAndStatusIn(Long missionId, List<MissionStatus> statuses);
+    
+    @Query("SELECT um.mission.id FROM UserMission um WHERE um.user.id = :userId")
+    List<Long> findMissionIdsByUserId(@Param("userId") Long userId);
+    
+    @Query("SELECT um.mission.id FROM UserMission um " +
+           "WHERE um.user.id = :userId AND um.status = com.example.alabuga.entity.MissionStatus.COMPLETED")
+    List<Long> findCompletedMissionIdsByUserId(@Param("userId") Long userId);
+    
+    // Завершённые миссии диапазона пользователей для пересчёта рангов порциями: [userId, missionId]
+    @Query("SELECT um.user.id, um.mission.id FROM UserMission um " +
+           "WHERE um.user.id BETWEEN :fromUserId AND :toUserId AND um.status = com.example.alabuga.entity.MissionStatus.COMPLETED")
+    List<Object[]> findCompletedMissionIdsByUserIdBetween(@Param("fromUserId") Long fromUserId, @Param("toUserId") Long toUserId);
+    
+    // Суммарный опыт за завершённые миссии по каждой паре (пользователь, ветка): [userId, branchId, experience]
+    @Query("SELECT um.user.id, um.mission.branchId, SUM(um.mission.experienceReward) FROM UserMission um " +
+           "WHERE um.status = com.example.alabuga.entity.MissionStatus.COMPLETED GROUP BY um.user.id, um.mission.branchId")
+    List<Object[]> sumCompletedExperienceByUserAndBranch();
+    
+    // Очередь модерации: миссии с модерацией, доведённые до 100% и ждущие решения, по возрастанию id после курсора.
+    // Прогресс ограничен 100, поэтому равенство: по (status, progress, id) индекс отдаёт строки сразу в порядке id
+    @Query("SELECT um FROM UserMission um JOIN FETCH um.mission m " +
+           "WHERE um.status = com.example.alabuga.entity.MissionStatus.IN_PROGRESS AND um.progress = 100 " +
+           "AND m.requiresModeration = true AND um.id > :afterId ORDER BY um.id")
+    List<UserMission> findModerationQueue(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // То же по одной ветке. Отдельный запрос, а не (:branchId IS NULL OR ...): с таким условием
+    // у подготовленного запроса один общий план на оба случая
+    @Query("SELECT um FROM UserMission um JOIN FETCH um.mission m " +
+           "WHERE um.status = com.example.alabuga.entity.MissionStatus.IN_PROGRESS AND um.progress = 100 " +
+           "AND m.requiresModeration = true AND um.id > :afterId AND m.branchId = :branchId ORDER BY um.id")
+    List<UserMission> findModerationQueueByBranch(@Param("afterId") Long afterId, @Param("branchId") Long branchId,
+                                                  Pageable pageable);
+    
+    // Прогрессы, которые можно промодерировать, с наградами миссии:
+    // [userMissionId, userId, missionId, missionName, branchId, experienceReward, energyReward]
+    @Query("SELECT um.id, um.user.id, m.id, m.name, m.branchId, m.experienceReward, m.energyReward " +
+           "FROM UserMission um JOIN um.mission m " +
+           "WHERE um.id IN :ids AND um.status = com.example.alabuga.entity.MissionStatus.IN_PROGRESS " +
+           "AND um.progress = 100 AND m.requiresModeration = true")
+    List<Object[]> findModerationCandidates(@Param("ids") Collection<Long> ids);
 }
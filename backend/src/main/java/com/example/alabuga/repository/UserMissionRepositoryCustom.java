@@ -0,0 +1,16 @@
+package com.example.alabuga.repository;
+
+import java.util.List;
+
+public interface UserMissionRepositoryCustom {
+    
+    // Записывает накопленный промежуточный прогресс одним JDBC-пакетом; завершённые и дошедшие до 100% миссии не трогает
+    int[] updateProgressBatch(List<ProgressUpdate> updates);
+    
+    // Завершает (approved) или отклоняет прогрессы одним JDBC-пакетом; строка меняется, только если всё ещё IN_PROGRESS
+    int[] moderateBatch(List<Long> userMissionIds, boolean approved);
+    
+    // notes == null оставляет заметки без изменений
+    record ProgressUpdate(Long userId, Long missionId, int progress, String notes) {
+    }
+}
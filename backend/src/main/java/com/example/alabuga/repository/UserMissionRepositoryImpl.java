@@ -0,0 +1,51 @@
+package com.example.alabuga.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class UserMissionRepositoryImpl implements UserMissionRepositoryCustom {
+    
+    private static final String UPDATE_PROGRESS_SQL = "UPDATE user_missions SET progress = ?, notes = COALESCE(?, notes) " +
+            "WHERE user_id = ? AND mission_id = ? AND status = 'IN_PROGRESS' AND progress < 100";
+    
+    // Решение применяется, только если прогресс всё ещё 100%, как при выборке кандидатов
+    private static final String APPROVE_SQL = "UPDATE user_missions SET status = 'COMPLETED', completed_at = ? " +
+            "WHERE id = ? AND status = 'IN_PROGRESS' AND progress = 100";
+    
+    private static final String REJECT_SQL = "UPDATE user_missions SET status = 'FAILED' " +
+            "WHERE id = ? AND status = 'IN_PROGRESS' AND progress = 100";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Override
+    public int[] updateProgressBatch(List<ProgressUpdate> updates) {
+        if (updates.isEmpty()) {
+            return new int[0];
+        }
+        List<Object[]> batch = new ArrayList<>(updates.size());
+        for (ProgressUpdate update : updates) {
+            batch.add(new Object[]{update.progress(), update.notes(), update.userId(), update.missionId()});
+        }
+        return jdbcTemplate.batchUpdate(UPDATE_PROGRESS_SQL, batch);
+    }
+    
+    @Override
+    public int[] moderateBatch(List<Long> userMissionIds, boolean approved) {
+        if (userMissionIds.isEmpty()) {
+            return new int[0];
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(userMissionIds.size());
+        for (Long id : userMissionIds) {
+            batch.add(approved ? new Object[]{now, id} : new Object[]{id});
+        }
+        return jdbcTemplate.batchUpdate(approved ? APPROVE_SQL : REJECT_SQL, batch);
+    }
+}
@@ -2,16 +2,20 @@ package com.example.alabuga.repository;
 
 import com.example.alabuga.entity.User;
 import com.example.alabuga.entity.UserRole;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
     
     Optional<User> findByLogin(String login);
     
@@ -21,6 +25,16 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     boolean existsByEmail(String email);
     
+    @Query("SELECT u.login FROM User u WHERE u.login IN :logins")
+    List<String> findExistingLogins(@Param("logins") Collection<String> logins);
+    
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+    
+    // Порция активных пользователей для пересчёта рангов по возрастанию id: [id, rank, experience]
+    @Query("SELECT u.id, u.rank, u.experience FROM User u WHERE u.id > :afterId AND u.isActive = true ORDER BY u.id")
+    List<Object[]> findRankSnapshotsAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
     @Query("SELECT u FROM User u WHERE u.login = :login AND u.isActive = true")
     Optional<User> findActiveUserByLogin(@Param("login") String login);
     
@@ -39,4 +53,26 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     @Query("SELECT u FROM User u WHERE u.firstName LIKE %:name% OR u.lastName LIKE %:name%")
     List<User> findByNameContaining(@Param("name") String name);
+    
+    // Атомарное изменение баланса одной строкой UPDATE, без чтения сущности
+    @Modifying
+    @Query("UPDATE User u SET u.energy = u.energy + :amount WHERE u.id = :userId")
+    int creditEnergy(@Param("userId") Long userId, @Param("amount") Integer amount);
+    
+    // Списывает, только если хватает Энергонов; 0 обновлённых строк — недостаточно средств или нет пользователя
+    @Modifying
+    @Query("UPDATE User u SET u.energy = u.energy - :amount WHERE u.id = :userId AND u.energy >= :amount")
+    int debitEnergy(@Param("userId") Long userId, @Param("amount") Integer amount);
+    
+    // Выставляет баланс, только если он не изменился с момента чтения
+    @Modifying
+    @Query("UPDATE User u SET u.energy = :balance WHERE u.id = :userId AND u.energy = :expected")
+    int replaceEnergy(@Param("userId") Long userId, @Param("expected") Integer expected, @Param("balance") Integer balance);
+    
+    @Query("SELECT u.energy FROM User u WHERE u.id = :userId")
+    Optional<Integer> findEnergyById(@Param("userId") Long userId);
+    
+    // Балансы нескольких пользователей после пакетного начисления: [userId, energy]
+    @Query("SELECT u.id, u.energy FROM User u WHERE u.id IN :userIds")
+    List<Object[]> findEnergyByIdIn(@Param("userIds") Collection<Long> userIds);
 }
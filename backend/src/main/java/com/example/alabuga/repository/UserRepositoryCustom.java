@@ -0,0 +1,38 @@
+package com.example.alabuga.repository;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Slice;
+
+import com.example.alabuga.entity.User;
+import com.example.alabuga.entity.UserRole;
+
+public interface UserRepositoryCustom {
+    
+    // Резервирует count идентификаторов пулами из последовательности users_id_seq одним запросом
+    List<Long> allocateIds(int count);
+    
+    // Вставляет пользователей с заранее выданными id одним JDBC-пакетом, минуя persistence context
+    void insertBatch(List<User> users);
+    
+    // Меняет ранги одним JDBC-пакетом; строка обновляется, только если ранг не изменился с момента чтения
+    int[] updateRanks(List<RankChange> changes);
+    
+    // Прибавляет опыт нескольким пользователям одним JDBC-пакетом: userId -> прибавка
+    void addExperienceBatch(Map<Long, Integer> experienceByUserId);
+    
+    // Начисляет Энергоны нескольким пользователям одним JDBC-пакетом: userId -> сумма; только через EnergyLedgerService
+    int[] creditEnergyBatch(Map<Long, Integer> energyByUserId);
+    
+    // Страница пользователей по убыванию (rank, experience, id) строго после курсора after (null — первая страница).
+    // Фильтры со значением null в запрос не попадают
+    Slice<User> findPageAfter(UserRole role, Boolean isActive, Integer minRank, Integer minExperience,
+                              UserKey after, int size);
+    
+    record UserKey(int rank, int experience, long id) {
+    }
+    
+    record RankChange(Long userId, int fromRank, int toRank) {
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.alabuga.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.alabuga.entity.User;
+import com.example.alabuga.entity.UserRole;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class UserRepositoryImpl implements UserRepositoryCustom {
+    
+    // Шаг последовательности users_id_seq: одно значение — верхняя граница пула из ID_BLOCK_SIZE id
+    private static final int ID_BLOCK_SIZE = 50;
+    
+    private static final String ALLOCATE_IDS_SQL = "SELECT nextval('users_id_seq') FROM generate_series(1, ?)";
+    
+    private static final String INSERT_SQL = "INSERT INTO users " +
+            "(id, login, email, password_hash, first_name, last_name, role, experience, energy, rank, " +
+            "is_active, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    private static final String UPDATE_RANK_SQL =
+            "UPDATE users SET rank = ?, updated_at = ? WHERE id = ? AND rank = ?";
+    
+    private static final String ADD_EXPERIENCE_SQL =
+            "UPDATE users SET experience = experience + ?, updated_at = ? WHERE id = ?";
+    
+    private static final String CREDIT_ENERGY_SQL = "UPDATE users SET energy = energy + ? WHERE id = ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<Long> allocateIds(int count) {
+        if (count <= 0) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(count);
+        while (ids.size() < count) {
+            int blocks = (count - ids.size() + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE;
+            for (Long hi : jdbcTemplate.queryForList(ALLOCATE_IDS_SQL, Long.class, blocks)) {
+                // Первое значение новой последовательности меньше шага — из такого пула берём только его
+                for (long id = Math.max(hi - ID_BLOCK_SIZE + 1, 1); id <= hi && ids.size() < count; id++) {
+                    ids.add(id);
+                }
+            }
+        }
+        return ids;
+    }
+    
+    @Override
+    public void insertBatch(List<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        List<Object[]> batch = new ArrayList<>(users.size());
+        for (User u : users) {
+            u.setCreatedAt(now);
+            u.setUpdatedAt(now);
+            batch.add(new Object[]{u.getId(), u.getLogin(), u.getEmail(), u.getPasswordHash(), u.getFirstName(),
+                    u.getLastName(), u.getRole().name(), u.getExperience(), u.getEnergy(), u.getRank(),
+                    u.getIsActive(), timestamp, timestamp});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+    }
+    
+    @Override
+    public int[] updateRanks(List<RankChange> changes) {
+        if (changes.isEmpty()) {
+            return new int[0];
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(changes.size());
+        for (RankChange change : changes) {
+            batch.add(new Object[]{change.toRank(), now, change.userId(), change.fromRank()});
+        }
+        return jdbcTemplate.batchUpdate(UPDATE_RANK_SQL, batch);
+    }
+    
+    @Override
+    public void addExperienceBatch(Map<Long, Integer> experienceByUserId) {
+        if (experienceByUserId.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(experienceByUserId.size());
+        experienceByUserId.forEach((userId, experience) -> batch.add(new Object[]{experience, now, userId}));
+        jdbcTemplate.batchUpdate(ADD_EXPERIENCE_SQL, batch);
+    }
+    
+    @Override
+    public int[] creditEnergyBatch(Map<Long, Integer> energyByUserId) {
+        if (energyByUserId.isEmpty()) {
+            return new int[0];
+        }
+        List<Object[]> batch = new ArrayList<>(energyByUserId.size());
+        energyByUserId.forEach((userId, amount) -> batch.add(new Object[]{amount, userId}));
+        return jdbcTemplate.batchUpdate(CREDIT_ENERGY_SQL, batch);
+    }
+    
+    @Override
+    public Slice<User> findPageAfter(UserRole role, Boolean isActive, Integer minRank, Integer minExperience,
+                                     UserKey after, int size) {
+        // В запрос попадают только заданные условия: план не зависит от «:param IS NULL OR ...»,
+        // а курсор сравнивается как кортеж и становится границей индекса (rank DESC, experience DESC, id DESC)
+        StringJoiner where = new StringJoiner(" AND ", " WHERE ", "").setEmptyValue("");
+        Map<String, Object> params = new LinkedHashMap<>();
+        if (after != null) {
+            where.add("(u.rank, u.experience, u.id) < (:afterRank, :afterExperience, :afterId)");
+            params.put("afterRank", after.rank());
+            params.put("afterExperience", after.experience());
+            params.put("afterId", after.id());
+        }
+        if (role != null) {
+            where.add("u.role = :role");
+            params.put("role", role);
+        }
+        if (isActive != null) {
+            where.add("u.isActive = :isActive");
+            params.put("isActive", isActive);
+        }
+        if (minRank != null) {
+            where.add("u.rank >= :minRank");
+            params.put("minRank", minRank);
+        }
+        if (minExperience != null) {
+            where.add("u.experience >= :minExperience");
+            params.put("minExperience", minExperience);
+        }
+        TypedQuery<User> query = entityManager.createQuery("SELECT u FROM User u" + where +
+                " ORDER BY u.rank DESC, u.experience DESC, u.id DESC", User.class);
+        params.forEach(query::setParameter);
+        // Лишняя строка показывает, есть ли следующая страница
+        List<User> rows = query.setMaxResults(size + 1).getResultList();
+        boolean hasNext = rows.size() > size;
+        return new SliceImpl<>(hasNext ? rows.subList(0, size) : rows, PageRequest.of(0, size), hasNext);
+    }
+}
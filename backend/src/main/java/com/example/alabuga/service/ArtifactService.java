@@ -29,15 +29,16 @@ public class ArtifactService {
     private final UserArtifactRepository userArtifactRepository;
     private final UserRepository userRepository;
     private final ArtifactMapper artifactMapper;
+    private final CatalogCache catalogCache;
     
     public List<ArtifactDTO> getAllArtifacts() {
-        List<Artifact> artifacts = artifactRepository.findAll();
-        return artifactMapper.toDTOList(artifacts);
+        return catalogCache.get(CatalogCache.Section.ARTIFACTS, "all",
+                () -> artifactMapper.toDTOList(artifactRepository.findAll()));
     }
     
     public List<ArtifactDTO> getActiveArtifacts() {
-        List<Artifact> artifacts = artifactRepository.findByIsActive(true);
-        return artifactMapper.toDTOList(artifacts);
+        return catalogCache.get(CatalogCache.Section.ARTIFACTS, "active",
+                () -> artifactMapper.toDTOList(artifactRepository.findByIsActive(true)));
     }
     
     public ArtifactDTO getArtifactById(Long id) {
@@ -65,6 +66,7 @@ public class ArtifactService {
     public ArtifactDTO createArtifact(ArtifactCreateDTO artifactCreateDTO) {
         Artifact artifact = artifactMapper.toEntity(artifactCreateDTO);
         Artifact savedArtifact = artifactRepository.save(artifact);
+        catalogCache.invalidate(CatalogCache.Section.ARTIFACTS);
         return artifactMapper.toDTO(savedArtifact);
     }
     
@@ -75,6 +77,7 @@ public class ArtifactService {
         
         artifactMapper.updateEntity(artifact, artifactUpdateDTO);
         Artifact savedArtifact = artifactRepository.save(artifact);
+        catalogCache.invalidate(CatalogCache.Section.ARTIFACTS);
         return artifactMapper.toDTO(savedArtifact);
     }
     
@@ -84,6 +87,7 @@ public class ArtifactService {
                 .orElseThrow(() -> new ResourceNotFoundException("Артефакт", id));
         artifact.setIsActive(false);
         artifactRepository.save(artifact);
+        catalogCache.invalidate(CatalogCache.Section.ARTIFACTS);
     }
     
     @Transactional
@@ -93,6 +97,7 @@ public class ArtifactService {
         
         artifact.setIsActive(!artifact.getIsActive());
         Artifact savedArtifact = artifactRepository.save(artifact);
+        catalogCache.invalidate(CatalogCache.Section.ARTIFACTS);
         return artifactMapper.toDTO(savedArtifact);
     }
     
@@ -0,0 +1,191 @@
+package com.example.alabuga.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.alabuga.dto.BroadcastCreateDTO;
+import com.example.alabuga.dto.NotificationDTO;
+import com.example.alabuga.entity.BroadcastNotification;
+import com.example.alabuga.entity.Notification;
+import com.example.alabuga.exception.ResourceNotFoundException;
+import com.example.alabuga.repository.BroadcastNotificationRepository;
+import com.example.alabuga.repository.BroadcastReadMarkerRepository;
+import com.example.alabuga.util.TransactionUtils;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Общие объявления: одна строка на объявление вместо копии для каждого пользователя.
+ * Прочтение хранится как отметка (watermark): объявления с id не больше неё прочитаны.
+ * Список объявлений невелик и держится в памяти, отметки пользователей кэшируются,
+ * поэтому подмешивание объявлений к уведомлениям пользователя не обращается к БД.
+ * У объявления в выдаче нет id уведомления, только broadcastId: id объявлений и уведомлений пересекаются.
+ */
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class BroadcastNotificationService {
+    
+    private final BroadcastNotificationRepository broadcastRepository;
+    private final BroadcastReadMarkerRepository readMarkerRepository;
+    private final NotificationPushService pushService;
+    
+    // Объявления по убыванию id; заменяется целиком при создании и удалении
+    private volatile List<BroadcastNotification> broadcasts;
+    private final ConcurrentHashMap<Long, Long> watermarks = new ConcurrentHashMap<>();
+    
+    @Transactional
+    public NotificationDTO createBroadcast(BroadcastCreateDTO dto) {
+        BroadcastNotification broadcast = broadcastRepository.save(BroadcastNotification.builder()
+                .title(dto.getTitle())
+                .content(dto.getContent())
+                .notificationType(dto.getNotificationType() != null
+                        ? dto.getNotificationType()
+                        : Notification.NotificationType.SYSTEM_MESSAGE.getCode())
+                .metadata(dto.getMetadata())
+                .build());
+        NotificationDTO result = toDTO(broadcast, null, false);
+        TransactionUtils.afterCommit(() -> {
+            reload();
+            pushService.broadcast(result);
+        });
+        return result;
+    }
+    
+    @Transactional
+    public void deleteBroadcast(Long id) {
+        if (!broadcastRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Объявление", id);
+        }
+        broadcastRepository.deleteById(id);
+        TransactionUtils.afterCommit(this::reload);
+    }
+    
+    public List<NotificationDTO> getBroadcasts(Long userId) {
+        long watermark = getWatermark(userId);
+        return getAll().stream()
+                .map(broadcast -> toDTO(broadcast, userId, broadcast.getId() <= watermark))
+                .toList();
+    }
+    
+    public List<NotificationDTO> getUnreadBroadcasts(Long userId) {
+        long watermark = getWatermark(userId);
+        return getAll().stream()
+                .takeWhile(broadcast -> broadcast.getId() > watermark)
+                .map(broadcast -> toDTO(broadcast, userId, false))
+                .toList();
+    }
+    
+    public long countUnread(Long userId) {
+        long watermark = getWatermark(userId);
+        List<BroadcastNotification> all = getAll();
+        // Список отсортирован по убыванию id: ищем первое прочитанное объявление
+        int low = 0;
+        int high = all.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (all.get(mid).getId() > watermark) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * Отмечает объявление прочитанным; вместе с ним прочитанными считаются все более ранние.
+     */
+    @Transactional
+    public void markAsRead(Long userId, Long broadcastId) {
+        if (!broadcastRepository.existsById(broadcastId)) {
+            throw new ResourceNotFoundException("Объявление", broadcastId);
+        }
+        advance(userId, broadcastId);
+    }
+    
+    @Transactional
+    public void markAllAsRead(Long userId) {
+        long latest = latestId();
+        if (latest > 0) {
+            advance(userId, latest);
+        }
+    }
+    
+    @Transactional
+    public void markAllAsRead(List<Long> userIds) {
+        long latest = latestId();
+        if (latest > 0 && !userIds.isEmpty()) {
+            readMarkerRepository.advanceAll(userIds, latest);
+            evict(userIds);
+        }
+    }
+    
+    /**
+     * Новые пользователи начинают с текущей отметки: прошлые объявления видны им уже прочитанными.
+     */
+    @Transactional
+    public void initReadMarker(Long userId) {
+        markAllAsRead(userId);
+    }
+    
+    private void advance(Long userId, long lastReadId) {
+        readMarkerRepository.advance(userId, lastReadId);
+        TransactionUtils.afterCommit(() -> watermarks.merge(userId, lastReadId, Math::max));
+    }
+    
+    private void evict(Collection<Long> userIds) {
+        TransactionUtils.afterCommit(() -> userIds.forEach(watermarks::remove));
+    }
+    
+    private long getWatermark(Long userId) {
+        return watermarks.computeIfAbsent(userId, readMarkerRepository::findLastReadId);
+    }
+    
+    private long latestId() {
+        List<BroadcastNotification> all = getAll();
+        return all.isEmpty() ? 0L : all.get(0).getId();
+    }
+    
+    private List<BroadcastNotification> getAll() {
+        List<BroadcastNotification> current = broadcasts;
+        if (current == null) {
+            current = reload();
+        }
+        return current;
+    }
+    
+    private synchronized List<BroadcastNotification> reload() {
+        List<BroadcastNotification> loaded = List.copyOf(broadcastRepository.findAllByOrderByIdDesc());
+        broadcasts = loaded;
+        return loaded;
+    }
+    
+    private NotificationDTO toDTO(BroadcastNotification broadcast, Long userId, boolean read) {
+        return NotificationDTO.builder()
+                .broadcastId(broadcast.getId())
+                .userId(userId)
+                .title(broadcast.getTitle())
+                .content(broadcast.getContent())
+                .notificationType(broadcast.getNotificationType())
+                .notificationTypeDisplayName(displayName(broadcast.getNotificationType()))
+                .isRead(read)
+                .createdAt(broadcast.getCreatedAt())
+                .metadata(broadcast.getMetadata())
+                .broadcast(true)
+                .build();
+    }
+    
+    private static String displayName(String code) {
+        for (Notification.NotificationType type : Notification.NotificationType.values()) {
+            if (type.getCode().equals(code)) {
+                return type.getDisplayName();
+            }
+        }
+        return "Неизвестный тип";
+    }
+}
@@ -23,6 +23,7 @@ public class CardService {
     private final UserCardRepository userCardRepository;
     private final UserRepository userRepository;
     private final NotificationService notificationService;
+    private final CatalogCache catalogCache;
 
     /**
      * Получить все доступные карты для пользователя
@@ -101,10 +102,11 @@ public class CardService {
      * Получить все серии карт
      */
     public List<String> getAllSeries() {
-        return cardRepository.findByIsActiveTrue().stream()
-                .map(Card::getSeriesName)
-                .distinct()
-                .toList();
+        return catalogCache.get(CatalogCache.Section.CARDS, "series",
+                () -> cardRepository.findByIsActiveTrue().stream()
+                        .map(Card::getSeriesName)
+                        .distinct()
+                        .toList());
     }
 
     /**
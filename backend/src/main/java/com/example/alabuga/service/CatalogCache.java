@@ -0,0 +1,110 @@
+package com.example.alabuga.service;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import com.example.alabuga.util.TransactionUtils;
+
+/**
+ * Кэш готовых DTO справочника игры (миссии, артефакты, компетенции, товары, карты, требования рангов).
+ * Значения читаются сквозь кэш, число записей ограничено, вытесняются давно не читавшиеся.
+ * Изменение раздела сбрасывает его записи и увеличивает версию раздела после коммита;
+ * версия входит в ETag, поэтому клиент с актуальной копией получает 304 без обращения к БД.
+ */
+@Component
+public class CatalogCache {
+
+    public enum Section {
+        MISSIONS, ARTIFACTS, COMPETENCIES, SHOP, CARDS, RANKS
+    }
+
+    private record Key(Section section, String name) {
+    }
+
+    // Отличает ETag разных запусков: после рестарта версии начинаются заново
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Map<Section, AtomicLong> versions = new EnumMap<>(Section.class);
+    private final LinkedHashMap<Key, Object> entries;
+
+    public CatalogCache(@Value("${alabuga.catalog.cache-max-entries:500}") int maxEntries) {
+        for (Section section : Section.values()) {
+            versions.put(section, new AtomicLong());
+        }
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Значение из кэша или из loader. Если раздел изменился, пока loader читал БД,
+     * результат отдаётся вызывающему, но в кэш не попадает.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> get(Section section, String name, Supplier<List<T>> loader) {
+        Key key = new Key(section, name);
+        synchronized (entries) {
+            Object cached = entries.get(key);
+            if (cached != null) {
+                return (List<T>) cached;
+            }
+        }
+        long version = versions.get(section).get();
+        List<T> value = List.copyOf(loader.get());
+        synchronized (entries) {
+            if (versions.get(section).get() == version) {
+                entries.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    public long version(Section section) {
+        return versions.get(section).get();
+    }
+
+    public String etag(Section section) {
+        return "\"" + section.name().toLowerCase() + "-" + epoch + "-" + versions.get(section).get() + "\"";
+    }
+
+    /**
+     * Ответ GET-эндпоинта справочника: 304 без тела, если If-None-Match совпал с версией раздела,
+     * иначе список с ETag. ETag берётся до чтения, поэтому при гонке с изменением клиент
+     * в худшем случае перезапросит данные ещё раз, но не закэширует устаревшие.
+     */
+    public <T> ResponseEntity<List<T>> conditional(Section section, WebRequest request, Supplier<List<T>> body) {
+        String etag = etag(section);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                .body(body.get());
+    }
+
+    /**
+     * Сбрасывает раздел после коммита текущей транзакции (или сразу, если её нет).
+     */
+    public void invalidate(Section section) {
+        TransactionUtils.afterCommit(() -> {
+            synchronized (entries) {
+                versions.get(section).incrementAndGet();
+                entries.keySet().removeIf(key -> key.section() == section);
+            }
+        });
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.alabuga.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.alabuga.dto.EnergyTransactionDTO;
+import com.example.alabuga.entity.EnergyTransaction;
+import com.example.alabuga.entity.EnergyTransactionType;
+import com.example.alabuga.entity.User;
+import com.example.alabuga.exception.BusinessLogicException;
+import com.example.alabuga.exception.ResourceNotFoundException;
+import com.example.alabuga.repository.EnergyTransactionRepository;
+import com.example.alabuga.repository.UserRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Журнал Энергонов. Баланс в users.energy меняется только условным UPDATE,
+ * поэтому параллельные начисления и списания не теряются и не требуют чтения строки заранее.
+ * Каждое изменение дописывается в energy_transactions с балансом после операции.
+ * Сущность User баланс не записывает (energy не обновляется через persistence context).
+ */
+@Service
+@Slf4j
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class EnergyLedgerService {
+    
+    public static final int DEFAULT_HISTORY_SIZE = 50;
+    public static final int MAX_HISTORY_SIZE = 500;
+    
+    private final UserRepository userRepository;
+    private final EnergyTransactionRepository energyTransactionRepository;
+    
+    /**
+     * Начисляет Энергоны и возвращает новый баланс.
+     */
+    @Transactional
+    public int credit(Long userId, int amount, EnergyTransactionType type, Long referenceId) {
+        if (amount <= 0) {
+            throw new BusinessLogicException("Количество Энергонов должно быть положительным");
+        }
+        if (userRepository.creditEnergy(userId, amount) == 0) {
+            throw new ResourceNotFoundException("Пользователь", userId);
+        }
+        return record(userId, amount, type, referenceId);
+    }
+    
+    /**
+     * Начисляет Энергоны нескольким пользователям: один пакет UPDATE, одно чтение балансов
+     * и пакетная вставка журнала, по записи на пользователя. Возвращает новые балансы.
+     * Строки пользователей блокируются в порядке обхода amounts, поэтому передавайте отсортированную по id карту.
+     */
+    @Transactional
+    public Map<Long, Integer> creditAll(Map<Long, Integer> amounts, EnergyTransactionType type) {
+        if (amounts.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> userIds = new ArrayList<>(amounts.keySet());
+        for (Long userId : userIds) {
+            if (amounts.get(userId) == null || amounts.get(userId) <= 0) {
+                throw new BusinessLogicException("Количество Энергонов должно быть положительным");
+            }
+        }
+        int[] updated = userRepository.creditEnergyBatch(amounts);
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                throw new ResourceNotFoundException("Пользователь", userIds.get(i));
+            }
+        }
+        // Строки заблокированы нашими UPDATE до коммита, поэтому прочитанные балансы точны
+        Map<Long, Integer> balances = new HashMap<>();
+        for (Object[] row : userRepository.findEnergyByIdIn(userIds)) {
+            balances.put((Long) row[0], (Integer) row[1]);
+        }
+        List<EnergyTransaction> transactions = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            transactions.add(EnergyTransaction.builder()
+                    .userId(userId)
+                    .type(type)
+                    .amount(amounts.get(userId))
+                    .balanceAfter(balances.get(userId))
+                    .build());
+        }
+        energyTransactionRepository.saveAll(transactions);
+        return balances;
+    }
+    
+    /**
+     * Списывает Энергоны, если их хватает, и возвращает новый баланс.
+     */
+    @Transactional
+    public int debit(Long userId, int amount, EnergyTransactionType type, Long referenceId) {
+        if (amount <= 0) {
+            throw new BusinessLogicException("Количество Энергонов должно быть положительным");
+        }
+        if (userRepository.debitEnergy(userId, amount) == 0) {
+            Integer balance = userRepository.findEnergyById(userId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Пользователь", userId));
+            throw new BusinessLogicException("Недостаточно Энергонов. Текущие Энергоны: %d, требуется: %d", balance, amount);
+        }
+        return record(userId, -amount, type, referenceId);
+    }
+    
+    /**
+     * То же, что {@link #credit}, но дополнительно выставляет новый баланс загруженной сущности,
+     * чтобы дальнейший код транзакции видел актуальное значение.
+     */
+    @Transactional
+    public int credit(User user, int amount, EnergyTransactionType type, Long referenceId) {
+        int balance = credit(user.getId(), amount, type, referenceId);
+        user.setEnergy(balance);
+        return balance;
+    }
+    
+    @Transactional
+    public int debit(User user, int amount, EnergyTransactionType type, Long referenceId) {
+        int balance = debit(user.getId(), amount, type, referenceId);
+        user.setEnergy(balance);
+        return balance;
+    }
+    
+    /**
+     * Выставляет баланс, заданный вручную (редактирование профиля), и записывает разницу операцией ADJUSTMENT.
+     * Баланс меняется, только если не изменился с момента чтения; иначе запрос нужно повторить.
+     */
+    @Transactional
+    public int adjust(User user, int balance) {
+        if (balance < 0) {
+            throw new BusinessLogicException("Энергон не может быть отрицательным");
+        }
+        Integer current = userRepository.findEnergyById(user.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Пользователь", user.getId()));
+        if (current == balance) {
+            user.setEnergy(balance);
+            return balance;
+        }
+        if (userRepository.replaceEnergy(user.getId(), current, balance) == 0) {
+            throw new BusinessLogicException("Баланс Энергонов изменился во время редактирования, повторите запрос");
+        }
+        record(user.getId(), balance - current, EnergyTransactionType.ADJUSTMENT, null);
+        user.setEnergy(balance);
+        return balance;
+    }
+    
+    /**
+     * История операций пользователя от новых к старым, страницами по beforeId.
+     */
+    public List<EnergyTransactionDTO> getHistory(Long userId, Long beforeId, Integer size) {
+        int pageSize = size == null ? DEFAULT_HISTORY_SIZE : size;
+        if (pageSize < 1 || pageSize > MAX_HISTORY_SIZE) {
+            throw new BusinessLogicException("Размер страницы должен быть от 1 до %d", MAX_HISTORY_SIZE);
+        }
+        return energyTransactionRepository
+                .findByUserIdAndIdLessThanOrderByIdDesc(userId, beforeId != null ? beforeId : Long.MAX_VALUE,
+                        PageRequest.of(0, pageSize))
+                .map(this::toDTO)
+                .getContent();
+    }
+    
+    /**
+     * Сверка users.energy с последней записью журнала по всем пользователям. Полный проход по индексу
+     * (user_id, id), поэтому запускается раз в сутки; баланс вне журнала может изменить только запись в обход сервиса.
+     */
+    @Scheduled(cron = "${alabuga.energy.reconcile-cron:0 0 4 * * *}")
+    public void reconcileBalances() {
+        List<Long> drift = energyTransactionRepository.findUserIdsWithBalanceDrift();
+        if (!drift.isEmpty()) {
+            log.warn("Баланс Энергонов расходится с журналом у {} пользователей: {}", drift.size(), drift);
+        }
+    }
+    
+    private int record(Long userId, int amount, EnergyTransactionType type, Long referenceId) {
+        // Строка пользователя заблокирована нашим UPDATE до коммита, поэтому прочитанный баланс точен
+        int balance = userRepository.findEnergyById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Пользователь", userId));
+        energyTransactionRepository.save(EnergyTransaction.builder()
+                .userId(userId)
+                .type(type)
+                .amount(amount)
+                .balanceAfter(balance)
+                .referenceId(referenceId)
+                .build());
+        return balance;
+    }
+    
+    private EnergyTransactionDTO toDTO(EnergyTransaction transaction) {
+        return EnergyTransactionDTO.builder()
+                .id(transaction.getId())
+                .type(transaction.getType())
+                .amount(transaction.getAmount())
+                .balanceAfter(transaction.getBalanceAfter())
+                .referenceId(transaction.getReferenceId())
+                .createdAt(transaction.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.alabuga.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Таблица лидеров в памяти: декартово дерево (treap) с размерами поддеревьев.
+ * Порядок — по убыванию очков, при равенстве по возрастанию ID пользователя.
+ * Обновление, позиция пользователя и выборка по позиции работают за O(log n),
+ * первые N — за O(log n + N). Чтения идут параллельно под read-lock.
+ */
+class Leaderboard {
+
+    private final Map<Long, Long> scores = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final SplittableRandom random = new SplittableRandom();
+    private Node root;
+
+    record Entry(int position, Long userId, long score) {
+    }
+
+    void put(Long userId, long score) {
+        lock.writeLock().lock();
+        try {
+            Long old = scores.put(userId, score);
+            if (old != null) {
+                root = delete(root, old, userId);
+            }
+            root = insert(root, new Node(score, userId, random.nextInt()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void increment(Long userId, long delta) {
+        lock.writeLock().lock();
+        try {
+            Long old = scores.get(userId);
+            put(userId, (old != null ? old : 0) + delta);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Long userId) {
+        lock.writeLock().lock();
+        try {
+            Long old = scores.remove(userId);
+            if (old != null) {
+                root = delete(root, old, userId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            scores.clear();
+            root = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return size(root);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<Entry> top(int limit) {
+        return range(0, limit);
+    }
+
+    /**
+     * Позиция пользователя (с 1) вместе с k соседями сверху и снизу.
+     */
+    Optional<List<Entry>> around(Long userId, int k) {
+        lock.readLock().lock();
+        try {
+            Long score = scores.get(userId);
+            if (score == null) {
+                return Optional.empty();
+            }
+            int index = indexOf(score, userId);
+            int from = Math.max(0, index - k);
+            return Optional.of(collect(from, index + k + 1));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    Optional<Entry> entry(Long userId) {
+        lock.readLock().lock();
+        try {
+            Long score = scores.get(userId);
+            return score == null
+                    ? Optional.empty()
+                    : Optional.of(new Entry(indexOf(score, userId) + 1, userId, score));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Entry> range(int from, int to) {
+        lock.readLock().lock();
+        try {
+            return collect(from, to);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========== TREAP ==========
+
+    private static final class Node {
+        final long score;
+        final Long userId;
+        final int priority;
+        Node left;
+        Node right;
+        int size = 1;
+
+        Node(long score, Long userId, int priority) {
+            this.score = score;
+            this.userId = userId;
+            this.priority = priority;
+        }
+    }
+
+    private static int compare(long scoreA, Long idA, long scoreB, Long idB) {
+        if (scoreA != scoreB) {
+            return Long.compare(scoreB, scoreA);
+        }
+        return Long.compare(idA, idB);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static void update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private static Node insert(Node node, Node item) {
+        if (node == null) {
+            return item;
+        }
+        if (item.priority > node.priority) {
+            Node[] parts = split(node, item.score, item.userId);
+            item.left = parts[0];
+            item.right = parts[1];
+            update(item);
+            return item;
+        }
+        if (compare(item.score, item.userId, node.score, node.userId) < 0) {
+            node.left = insert(node.left, item);
+        } else {
+            node.right = insert(node.right, item);
+        }
+        update(node);
+        return node;
+    }
+
+    // Делит дерево на узлы строго перед ключом и все остальные
+    private static Node[] split(Node node, long score, Long userId) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+        if (compare(node.score, node.userId, score, userId) < 0) {
+            Node[] parts = split(node.right, score, userId);
+            node.right = parts[0];
+            update(node);
+            return new Node[]{node, parts[1]};
+        }
+        Node[] parts = split(node.left, score, userId);
+        node.left = parts[1];
+        update(node);
+        return new Node[]{parts[0], node};
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private static Node delete(Node node, long score, Long userId) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(score, userId, node.score, node.userId);
+        if (cmp == 0) {
+            return merge(node.left, node.right);
+        }
+        if (cmp < 0) {
+            node.left = delete(node.left, score, userId);
+        } else {
+            node.right = delete(node.right, score, userId);
+        }
+        update(node);
+        return node;
+    }
+
+    // Число записей перед ключом (позиция с 0)
+    private int indexOf(long score, Long userId) {
+        int index = 0;
+        Node node = root;
+        while (node != null) {
+            int cmp = compare(score, userId, node.score, node.userId);
+            if (cmp == 0) {
+                return index + size(node.left);
+            }
+            if (cmp < 0) {
+                node = node.left;
+            } else {
+                index += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return index;
+    }
+
+    private List<Entry> collect(int from, int to) {
+        List<Entry> result = new ArrayList<>(Math.max(0, Math.min(to, size(root)) - from));
+        collect(root, 0, from, to, result);
+        return result;
+    }
+
+    // Обход по порядку с пропуском поддеревьев вне диапазона [from, to)
+    private static void collect(Node node, int offset, int from, int to, List<Entry> result) {
+        if (node == null || offset >= to || offset + node.size <= from) {
+            return;
+        }
+        collect(node.left, offset, from, to, result);
+        int index = offset + size(node.left);
+        if (index >= from && index < to) {
+            result.add(new Entry(index + 1, node.userId, node.score));
+        }
+        collect(node.right, index + 1, from, to, result);
+    }
+}
@@ -0,0 +1,266 @@
+package com.example.alabuga.service;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.alabuga.dto.LeaderboardEntryDTO;
+import com.example.alabuga.dto.LeaderboardPositionDTO;
+import com.example.alabuga.entity.MissionBranch;
+import com.example.alabuga.entity.Rank;
+import com.example.alabuga.entity.User;
+import com.example.alabuga.exception.ResourceNotFoundException;
+import com.example.alabuga.repository.UserMissionRepository;
+import com.example.alabuga.repository.UserRepository;
+import com.example.alabuga.util.TransactionUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Таблицы лидеров по опыту: общая, по ветке ранга и по ветке миссий.
+ * Строятся один раз при старте, затем обновляются после коммита транзакций, изменивших пользователей:
+ * изменённые за транзакцию пользователи перечитываются из БД одним запросом.
+ * Каждое чтение получает номер; строка пользователя применяется под его блокировкой и только если
+ * более позднее чтение ещё не применено, поэтому запоздавший коммит не затирает новые данные.
+ * Запросы к таблицам не обращаются к БД.
+ */
+@Service
+@Slf4j
+public class LeaderboardService {
+
+    public static final int MAX_LIMIT = 100;
+    public static final int MAX_NEIGHBOURS = 50;
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final UserRepository userRepository;
+    private final UserMissionRepository userMissionRepository;
+    private final TransactionTemplate readTemplate;
+
+    private final Leaderboard global = new Leaderboard();
+    private final Map<Rank.RankBranch, Leaderboard> byRankBranch = new EnumMap<>(Rank.RankBranch.class);
+    private final Map<MissionBranch, Leaderboard> byMissionBranch = new EnumMap<>(MissionBranch.class);
+
+    // Текущая ветка ранга и имя пользователя, чтобы переносить его между таблицами и отдавать строки без БД
+    private final Map<Long, Rank.RankBranch> userRankBranches = new ConcurrentHashMap<>();
+    private final Map<Long, String> userNames = new ConcurrentHashMap<>();
+
+    // Номер последнего применённого чтения пользователя; строки из более ранних чтений отбрасываются
+    private final AtomicLong readVersion = new AtomicLong();
+    private final Map<Long, Long> appliedVersions = new ConcurrentHashMap<>();
+    // Блокировки по пользователю (полосами): изменения одного пользователя во всех таблицах применяются целиком
+    private final Object[] userLocks = new Object[LOCK_STRIPES];
+
+    {
+        for (Rank.RankBranch branch : Rank.RankBranch.values()) {
+            byRankBranch.put(branch, new Leaderboard());
+        }
+        for (MissionBranch branch : MissionBranch.values()) {
+            byMissionBranch.put(branch, new Leaderboard());
+        }
+        for (int i = 0; i < userLocks.length; i++) {
+            userLocks[i] = new Object();
+        }
+    }
+
+    public LeaderboardService(UserRepository userRepository, UserMissionRepository userMissionRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.userMissionRepository = userMissionRepository;
+        // После коммита ресурсы завершённой транзакции ещё привязаны к потоку: читаем в отдельной,
+        // иначе findAllById вернёт сущности из её persistence context, а не из БД
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTemplate.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        global.clear();
+        byRankBranch.values().forEach(Leaderboard::clear);
+        byMissionBranch.values().forEach(Leaderboard::clear);
+        userRankBranches.clear();
+        userNames.clear();
+        appliedVersions.clear();
+
+        long version = readVersion.incrementAndGet();
+        List<User> users = userRepository.findByIsActive(true);
+        users.forEach(user -> apply(user.getId(), user, version));
+
+        for (Object[] row : userMissionRepository.sumCompletedExperienceByUserAndBranch()) {
+            Long userId = (Long) row[0];
+            Long branchId = (Long) row[1];
+            long experience = ((Number) row[2]).longValue();
+            Leaderboard board = missionBranchBoard(branchId);
+            if (board != null && userNames.containsKey(userId)) {
+                board.put(userId, experience);
+            }
+        }
+        log.info("Таблицы лидеров построены: {} пользователей", global.size());
+    }
+
+    // ========== UPDATES ==========
+
+    /**
+     * Отражает текущие опыт, ранг и активность пользователя. Вызывается внутри транзакции:
+     * после коммита пользователь перечитывается из БД, при откате таблицы не меняются.
+     */
+    public void onUserChanged(User user) {
+        onUserChanged(user.getId());
+    }
+
+    /**
+     * То же по id — для массовых изменений опыта и рангов без загрузки сущностей.
+     * Все пользователи одной транзакции перечитываются одним запросом.
+     */
+    public void onUserChanged(Long userId) {
+        TransactionUtils.afterCommitBatched(this, userId, this::refresh);
+    }
+
+    public void onUserDeleted(Long userId) {
+        onUserChanged(userId);
+    }
+
+    public void onMissionExperience(Long userId, Long branchId, Integer experience) {
+        TransactionUtils.afterCommit(() -> {
+            Leaderboard board = missionBranchBoard(branchId);
+            if (board == null || experience == null) {
+                return;
+            }
+            // Прибавки коммутативны, блокировка лишь не даёт разойтись с удалением пользователя
+            synchronized (lockFor(userId)) {
+                if (userNames.containsKey(userId)) {
+                    board.increment(userId, experience);
+                }
+            }
+        });
+    }
+
+    // ========== QUERIES ==========
+
+    public List<LeaderboardEntryDTO> getGlobalTop(int limit) {
+        return toDTOList(global.top(clampLimit(limit)));
+    }
+
+    public List<LeaderboardEntryDTO> getRankBranchTop(Rank.RankBranch branch, int limit) {
+        return toDTOList(byRankBranch.get(branch).top(clampLimit(limit)));
+    }
+
+    public List<LeaderboardEntryDTO> getMissionBranchTop(Long branchId, int limit) {
+        return toDTOList(byMissionBranch.get(MissionBranch.fromId(branchId)).top(clampLimit(limit)));
+    }
+
+    public LeaderboardPositionDTO getGlobalPosition(Long userId, int k) {
+        return position(global, userId, k);
+    }
+
+    public LeaderboardPositionDTO getRankBranchPosition(Rank.RankBranch branch, Long userId, int k) {
+        return position(byRankBranch.get(branch), userId, k);
+    }
+
+    public LeaderboardPositionDTO getMissionBranchPosition(Long branchId, Long userId, int k) {
+        return position(byMissionBranch.get(MissionBranch.fromId(branchId)), userId, k);
+    }
+
+    // ========== PRIVATE METHODS ==========
+
+    // Перечитывает пользователей после коммита; номер чтения берётся до запроса
+    private void refresh(Collection<Long> userIds) {
+        long version = readVersion.incrementAndGet();
+        Map<Long, User> users = readTemplate.execute(status -> userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity())));
+        for (Long userId : userIds) {
+            apply(userId, users.get(userId), version);
+        }
+    }
+
+    // user == null — пользователь удалён
+    private void apply(Long userId, User user, long version) {
+        synchronized (lockFor(userId)) {
+            Long applied = appliedVersions.get(userId);
+            if (applied != null && applied > version) {
+                return;
+            }
+            appliedVersions.put(userId, version);
+            if (user == null || !Boolean.TRUE.equals(user.getIsActive())) {
+                removeUser(userId);
+                return;
+            }
+            userNames.put(userId, user.getFirstName() + " " + user.getLastName());
+            long experience = user.getExperience() != null ? user.getExperience() : 0;
+            global.put(userId, experience);
+
+            Rank.RankBranch branch = Rank.fromLevel(user.getRank()).getBranch();
+            Rank.RankBranch previous = userRankBranches.put(userId, branch);
+            if (previous != null && previous != branch) {
+                byRankBranch.get(previous).remove(userId);
+            }
+            byRankBranch.get(branch).put(userId, experience);
+        }
+    }
+
+    private Object lockFor(Long userId) {
+        return userLocks[Math.floorMod(userId.hashCode(), userLocks.length)];
+    }
+
+    private void removeUser(Long userId) {
+        global.remove(userId);
+        Rank.RankBranch branch = userRankBranches.remove(userId);
+        if (branch != null) {
+            byRankBranch.get(branch).remove(userId);
+        }
+        byMissionBranch.values().forEach(board -> board.remove(userId));
+        userNames.remove(userId);
+    }
+
+    private Leaderboard missionBranchBoard(Long branchId) {
+        for (MissionBranch branch : MissionBranch.values()) {
+            if (branch.getId().equals(branchId)) {
+                return byMissionBranch.get(branch);
+            }
+        }
+        return null;
+    }
+
+    private LeaderboardPositionDTO position(Leaderboard board, Long userId, int k) {
+        int neighbours = Math.max(0, Math.min(k, MAX_NEIGHBOURS));
+        Leaderboard.Entry entry = board.entry(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Пользователь в таблице лидеров", userId));
+        List<Leaderboard.Entry> around = board.around(userId, neighbours).orElse(List.of(entry));
+        return LeaderboardPositionDTO.builder()
+                .position(entry.position())
+                .experience(entry.score())
+                .total(board.size())
+                .neighbours(toDTOList(around))
+                .build();
+    }
+
+    private List<LeaderboardEntryDTO> toDTOList(List<Leaderboard.Entry> entries) {
+        return entries.stream()
+                .map(entry -> LeaderboardEntryDTO.builder()
+                        .position(entry.position())
+                        .userId(entry.userId())
+                        .userName(userNames.get(entry.userId()))
+                        .experience(entry.score())
+                        .build())
+                .toList();
+    }
+
+    private int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.alabuga.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.alabuga.dto.MissionDTO;
+import com.example.alabuga.entity.Competency;
+import com.example.alabuga.entity.Mission;
+import com.example.alabuga.entity.User;
+import com.example.alabuga.exception.ResourceNotFoundException;
+import com.example.alabuga.mapper.MissionMapper;
+import com.example.alabuga.repository.CompetencyRepository;
+import com.example.alabuga.repository.MissionRepository;
+import com.example.alabuga.repository.UserCompetencyRepository;
+import com.example.alabuga.repository.UserMissionRepository;
+import com.example.alabuga.repository.UserRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Доступность миссий по требованиям ранга, опыта и компетенций.
+ * Требования активных миссий разбираются один раз на версию справочника (миссии и компетенции)
+ * в плотные массивы: битовая маска требуемых компетенций и пороги очков по ним.
+ * Проверка пользователя — один проход по этим массивам без чтения миссий из БД.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class MissionEligibilityService {
+
+    private final MissionRepository missionRepository;
+    private final CompetencyRepository competencyRepository;
+    private final UserRepository userRepository;
+    private final UserCompetencyRepository userCompetencyRepository;
+    private final UserMissionRepository userMissionRepository;
+    private final MissionMapper missionMapper;
+    private final CatalogCache catalogCache;
+
+    private volatile CompiledMissions compiled;
+
+    /**
+     * Активные миссии, требования которых пользователь выполняет и которые он ещё не брал.
+     */
+    @Transactional(readOnly = true)
+    public List<MissionDTO> getAvailableMissions(Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Пользователь", userId));
+        CompiledMissions missions = compiled();
+        UserSnapshot snapshot = snapshot(user, missions);
+        Set<Long> taken = new HashSet<>(userMissionRepository.findMissionIdsByUserId(userId));
+
+        List<MissionDTO> available = new ArrayList<>();
+        for (int i = 0; i < missions.ids.length; i++) {
+            if (!taken.contains(missions.ids[i]) && missions.isSatisfiedBy(i, snapshot)) {
+                available.add(missions.dtos[i]);
+            }
+        }
+        return available;
+    }
+
+    // ========== PRIVATE METHODS ==========
+
+    private record UserSnapshot(int rank, int experience, long[] heldMask, int[] points) {
+    }
+
+    private UserSnapshot snapshot(User user, CompiledMissions missions) {
+        long[] heldMask = new long[missions.maskWords];
+        int[] points = new int[missions.competencyIndex.size()];
+        for (Object[] row : userCompetencyRepository.findCompetencyPointsByUserId(user.getId())) {
+            Integer index = missions.competencyIndex.get((Long) row[0]);
+            if (index == null) {
+                continue;
+            }
+            heldMask[index >>> 6] |= 1L << index;
+            points[index] = row[1] != null ? ((Number) row[1]).intValue() : 0;
+        }
+        return new UserSnapshot(valueOrZero(user.getRank()), valueOrZero(user.getExperience()), heldMask, points);
+    }
+
+    private CompiledMissions compiled() {
+        long missionsVersion = catalogCache.version(CatalogCache.Section.MISSIONS);
+        long competenciesVersion = catalogCache.version(CatalogCache.Section.COMPETENCIES);
+        CompiledMissions current = compiled;
+        if (current != null && current.matches(missionsVersion, competenciesVersion)) {
+            return current;
+        }
+        synchronized (this) {
+            current = compiled;
+            if (current == null || !current.matches(missionsVersion, competenciesVersion)) {
+                // Версии взяты до чтения: изменение во время сборки просто вызовет ещё одну пересборку
+                current = compile(missionsVersion, competenciesVersion);
+                compiled = current;
+            }
+            return current;
+        }
+    }
+
+    private CompiledMissions compile(long missionsVersion, long competenciesVersion) {
+        Map<Long, Integer> competencyIndex = new HashMap<>();
+        Map<String, Integer> indexByName = new HashMap<>();
+        for (Competency competency : competencyRepository.findAll()) {
+            int index = competencyIndex.size();
+            competencyIndex.put(competency.getId(), index);
+            indexByName.put(normalize(competency.getName()), index);
+        }
+        int maskWords = Math.max(1, (competencyIndex.size() + 63) >>> 6);
+
+        List<Mission> missions = missionRepository.findByIsActive(true);
+        int count = missions.size();
+        CompiledMissions result = new CompiledMissions(missionsVersion, competenciesVersion,
+                competencyIndex, maskWords, count);
+
+        for (int i = 0; i < count; i++) {
+            Mission mission = missions.get(i);
+            result.ids[i] = mission.getId();
+            result.dtos[i] = missionMapper.toDTO(mission);
+            result.minRank[i] = valueOrZero(mission.getRequiredRank());
+            result.minExperience[i] = valueOrZero(mission.getRequiredExperience());
+
+            Map<String, Integer> requirements = parseRequirements(mission.getRequiredCompetencies());
+            long[] mask = new long[maskWords];
+            int[] indexes = new int[requirements.size()];
+            int[] thresholds = new int[requirements.size()];
+            int n = 0;
+            for (Map.Entry<String, Integer> requirement : requirements.entrySet()) {
+                Integer index = resolveCompetency(requirement.getKey(), indexByName, competencyIndex);
+                if (index == null) {
+                    // Неизвестную компетенцию выполнить нельзя: миссия не предлагается никому
+                    log.warn("Миссия {}: неизвестная компетенция '{}' в требованиях", mission.getId(), requirement.getKey());
+                    result.minRank[i] = Integer.MAX_VALUE;
+                    continue;
+                }
+                mask[index >>> 6] |= 1L << index;
+                indexes[n] = index;
+                thresholds[n] = requirement.getValue();
+                n++;
+            }
+            result.requiredMask[i] = mask;
+            result.requiredIndexes[i] = n == indexes.length ? indexes : Arrays.copyOf(indexes, n);
+            result.minPoints[i] = n == thresholds.length ? thresholds : Arrays.copyOf(thresholds, n);
+        }
+        log.info("Требования {} активных миссий скомпилированы ({} компетенций)", count, competencyIndex.size());
+        return result;
+    }
+
+    /**
+     * Разбирает requiredCompetencies. Поддерживаются записи вида "Название:очки" через запятую
+     * или точку с запятой, JSON-массив названий (["a", "b"]) и JSON-объект ({"a": 10}).
+     * Компетенция без порога означает, что она должна просто быть у пользователя.
+     */
+    static Map<String, Integer> parseRequirements(String raw) {
+        Map<String, Integer> requirements = new LinkedHashMap<>();
+        if (raw == null || raw.isBlank()) {
+            return requirements;
+        }
+        String cleaned = raw.replaceAll("[\\[\\]{}\"]", "");
+        for (String token : cleaned.split("[,;\\n]")) {
+            String entry = token.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            String name = entry;
+            int threshold = 0;
+            int colon = entry.lastIndexOf(':');
+            if (colon > 0) {
+                try {
+                    threshold = Integer.parseInt(entry.substring(colon + 1).trim());
+                    name = entry.substring(0, colon).trim();
+                } catch (NumberFormatException e) {
+                    // Двоеточие — часть названия
+                }
+            }
+            requirements.merge(name, threshold, Math::max);
+        }
+        return requirements;
+    }
+
+    private static Integer resolveCompetency(String name, Map<String, Integer> indexByName,
+                                             Map<Long, Integer> competencyIndex) {
+        Integer index = indexByName.get(normalize(name));
+        if (index == null && name.chars().allMatch(Character::isDigit)) {
+            index = competencyIndex.get(Long.valueOf(name));
+        }
+        return index;
+    }
+
+    private static String normalize(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static int valueOrZero(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    /**
+     * Требования активных миссий в виде параллельных массивов (индекс — позиция миссии).
+     */
+    private static final class CompiledMissions {
+        final long missionsVersion;
+        final long competenciesVersion;
+        final Map<Long, Integer> competencyIndex;
+        final int maskWords;
+
+        final Long[] ids;
+        final MissionDTO[] dtos;
+        final int[] minRank;
+        final int[] minExperience;
+        final long[][] requiredMask;
+        final int[][] requiredIndexes;
+        final int[][] minPoints;
+
+        CompiledMissions(long missionsVersion, long competenciesVersion,
+                         Map<Long, Integer> competencyIndex, int maskWords, int count) {
+            this.missionsVersion = missionsVersion;
+            this.competenciesVersion = competenciesVersion;
+            this.competencyIndex = competencyIndex;
+            this.maskWords = maskWords;
+            this.ids = new Long[count];
+            this.dtos = new MissionDTO[count];
+            this.minRank = new int[count];
+            this.minExperience = new int[count];
+            this.requiredMask = new long[count][];
+            this.requiredIndexes = new int[count][];
+            this.minPoints = new int[count][];
+        }
+
+        boolean matches(long missionsVersion, long competenciesVersion) {
+            return this.missionsVersion == missionsVersion && this.competenciesVersion == competenciesVersion;
+        }
+
+        boolean isSatisfiedBy(int i, UserSnapshot user) {
+            if (user.rank() < minRank[i] || user.experience() < minExperience[i]) {
+                return false;
+            }
+            long[] mask = requiredMask[i];
+            long[] held = user.heldMask();
+            for (int w = 0; w < mask.length; w++) {
+                if ((mask[w] & ~held[w]) != 0) {
+                    return false;
+                }
+            }
+            int[] indexes = requiredIndexes[i];
+            int[] thresholds = minPoints[i];
+            int[] points = user.points();
+            for (int j = 0; j < indexes.length; j++) {
+                if (points[indexes[j]] < thresholds[j]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
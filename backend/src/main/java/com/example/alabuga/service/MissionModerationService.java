@@ -0,0 +1,154 @@
+package com.example.alabuga.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.alabuga.dto.BulkModerationRequestDTO;
+import com.example.alabuga.dto.BulkModerationResultDTO;
+import com.example.alabuga.dto.ModerationQueuePageDTO;
+import com.example.alabuga.dto.UserMissionDTO;
+import com.example.alabuga.entity.EnergyTransactionType;
+import com.example.alabuga.entity.User;
+import com.example.alabuga.entity.UserMission;
+import com.example.alabuga.exception.BusinessLogicException;
+import com.example.alabuga.mapper.MissionMapper;
+import com.example.alabuga.repository.UserMissionRepository;
+import com.example.alabuga.repository.UserRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Очередь модерации миссий и массовое решение по ней.
+ * Одобрение N миссий выполняется фиксированным числом запросов: чтение кандидатов,
+ * пакет смены статусов, пакет начисления опыта и пакет начисления Энергонов
+ * с одной записью журнала на пользователя. Уведомления о завершении по-прежнему по одному на миссию.
+ */
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class MissionModerationService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int MAX_BULK_SIZE = 1000;
+
+    private final UserMissionRepository userMissionRepository;
+    private final UserRepository userRepository;
+    private final MissionMapper missionMapper;
+    private final EnergyLedgerService energyLedgerService;
+    private final NotificationService notificationService;
+    private final LeaderboardService leaderboardService;
+    private final RankProgressCache rankProgressCache;
+    private final MissionProgressBuffer missionProgressBuffer;
+
+    /**
+     * Миссии, ждущие модерации, от старых к новым; afterId — курсор из предыдущей страницы.
+     */
+    public ModerationQueuePageDTO getQueue(Long branchId, Long afterId, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new BusinessLogicException("Размер страницы должен быть от 1 до %d", MAX_PAGE_SIZE);
+        }
+        // Лишняя строка показывает, есть ли следующая страница
+        long cursor = afterId != null ? afterId : 0L;
+        PageRequest pageRequest = PageRequest.of(0, pageSize + 1);
+        List<UserMission> rows = branchId != null
+                ? userMissionRepository.findModerationQueueByBranch(cursor, branchId, pageRequest)
+                : userMissionRepository.findModerationQueue(cursor, pageRequest);
+        boolean hasNext = rows.size() > pageSize;
+        List<UserMission> page = hasNext ? rows.subList(0, pageSize) : rows;
+        List<UserMissionDTO> items = missionMapper.toUserMissionDTOList(page);
+        return ModerationQueuePageDTO.builder()
+                .items(items)
+                .nextAfterId(hasNext ? page.get(page.size() - 1).getId() : null)
+                .hasNext(hasNext)
+                .size(pageSize)
+                .build();
+    }
+
+    /**
+     * Одобряет или отклоняет прогрессы миссий из очереди. Пропускаются прогрессы, которые не найдены,
+     * не требуют модерации, не доведены до 100%, уже не IN_PROGRESS или были обработаны параллельно.
+     */
+    @Transactional
+    public BulkModerationResultDTO moderate(BulkModerationRequestDTO request) {
+        Set<Long> requestedIds = new LinkedHashSet<>(request.getUserMissionIds());
+        if (requestedIds.size() > MAX_BULK_SIZE) {
+            throw new BusinessLogicException("За один запрос можно промодерировать не более %d миссий", MAX_BULK_SIZE);
+        }
+        boolean approved = Boolean.TRUE.equals(request.getApproved());
+
+        List<Object[]> candidates = userMissionRepository.findModerationCandidates(requestedIds);
+        List<Long> candidateIds = new ArrayList<>(candidates.size());
+        for (Object[] row : candidates) {
+            candidateIds.add((Long) row[0]);
+        }
+        int[] updated = userMissionRepository.moderateBatch(candidateIds, approved);
+
+        // Награды суммируются по пользователю; TreeMap задаёт порядок блокировки строк users
+        Map<Long, Integer> experienceByUser = new TreeMap<>();
+        Map<Long, Integer> energyByUser = new TreeMap<>();
+        Set<Long> moderatedIds = new LinkedHashSet<>();
+        Set<Long> completedByUsers = new LinkedHashSet<>();
+        long experienceAwarded = 0;
+        long energyAwarded = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            // 0 — прогресс промодерировали параллельно
+            if (updated[i] == 0) {
+                continue;
+            }
+            Object[] row = candidates.get(i);
+            Long userMissionId = (Long) row[0];
+            Long userId = (Long) row[1];
+            Long missionId = (Long) row[2];
+            moderatedIds.add(userMissionId);
+            missionProgressBuffer.discard(userId, missionId);
+            if (!approved) {
+                continue;
+            }
+            completedByUsers.add(userId);
+            String missionName = (String) row[3];
+            Long branchId = (Long) row[4];
+            int experience = row[5] != null ? (Integer) row[5] : 0;
+            int energy = row[6] != null ? (Integer) row[6] : 0;
+            if (experience > 0) {
+                experienceByUser.merge(userId, experience, Integer::sum);
+                experienceAwarded += experience;
+                leaderboardService.onMissionExperience(userId, branchId, experience);
+            }
+            if (energy > 0) {
+                energyByUser.merge(userId, energy, Integer::sum);
+                energyAwarded += energy;
+            }
+            notificationService.createMissionCompletedNotification(User.builder().id(userId).build(),
+                    missionName, experience, energy);
+        }
+
+        userRepository.addExperienceBatch(experienceByUser);
+        energyLedgerService.creditAll(energyByUser, EnergyTransactionType.MISSION_REWARD);
+
+        Set<Long> rewardedUsers = new LinkedHashSet<>(experienceByUser.keySet());
+        rewardedUsers.addAll(energyByUser.keySet());
+        experienceByUser.keySet().forEach(leaderboardService::onUserChanged);
+        completedByUsers.forEach(rankProgressCache::evict);
+
+        List<Long> skippedIds = requestedIds.stream()
+                .filter(id -> !moderatedIds.contains(id))
+                .toList();
+        return BulkModerationResultDTO.builder()
+                .moderated(moderatedIds.size())
+                .skippedIds(skippedIds)
+                .rewardedUsers(rewardedUsers.size())
+                .experienceAwarded(experienceAwarded)
+                .energyAwarded(energyAwarded)
+                .build();
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.alabuga.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.alabuga.repository.UserMissionRepository;
+import com.example.alabuga.repository.UserMissionRepositoryCustom.ProgressUpdate;
+import com.example.alabuga.util.TransactionUtils;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Отложенная запись промежуточного прогресса миссий. Для каждой пары (пользователь, миссия)
+ * хранится только последнее значение, раз в окно сброса все накопленные значения пишутся
+ * одним JDBC-пакетом. Достижение 100% и начисление наград идут мимо буфера синхронно;
+ * SQL пакета не трогает завершённые миссии, поэтому запоздавший сброс их не откатит.
+ * Значение остаётся в буфере, пока его запись не подтверждена, поэтому peek не отстаёт от клиента.
+ * Если пакет не прошёл, строки пишутся по одной; строка, не записанная за max-flush-attempts сбросов,
+ * отбрасывается с ошибкой в логе, а не повторяется бесконечно.
+ * record и discard меняют буфер только после коммита транзакции вызывающего: откат не оставляет в буфере
+ * значение, которого нет в БД, и не теряет отброшенное. Сброс всегда идёт в собственной транзакции,
+ * а при переполнении — в отдельном потоке, не задерживая запрос, который переполнил буфер.
+ */
+@Component
+@Slf4j
+public class MissionProgressBuffer {
+
+    private final UserMissionRepository userMissionRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrentHashMap<Key, Pending> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushing = new AtomicBoolean();
+    private final AtomicBoolean overflowFlushQueued = new AtomicBoolean();
+    private final AtomicLong recordedSinceFlush = new AtomicLong();
+
+    private final ExecutorService overflowExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "mission-progress-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${alabuga.missions.progress-buffer-max-entries:50000}")
+    private int maxEntries;
+
+    @Value("${alabuga.missions.progress-max-flush-attempts:5}")
+    private int maxFlushAttempts;
+
+    /**
+     * attempts — сколько сбросов подряд это значение не удалось записать.
+     */
+    public record Pending(int progress, String notes, int attempts) {
+
+        private Pending failed() {
+            return new Pending(progress, notes, attempts + 1);
+        }
+    }
+
+    private record Key(Long userId, Long missionId) {
+    }
+
+    public MissionProgressBuffer(UserMissionRepository userMissionRepository, PlatformTransactionManager transactionManager) {
+        this.userMissionRepository = userMissionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Запоминает прогресс вместо записи в БД после коммита текущей транзакции. Заметки, не переданные
+     * в этом вызове, берутся из предыдущего ещё не сброшенного значения. Возвращает значение,
+     * которое окажется в буфере после коммита.
+     */
+    public Pending record(Long userId, Long missionId, int progress, String notes) {
+        Key key = new Key(userId, missionId);
+        Pending next = new Pending(progress, notes, 0);
+        TransactionUtils.afterCommit(() -> {
+            pending.merge(key, next, MissionProgressBuffer::merge);
+            recordedSinceFlush.incrementAndGet();
+            if (pending.size() >= maxEntries) {
+                scheduleOverflowFlush();
+            }
+        });
+        Pending previous = pending.get(key);
+        return previous != null ? merge(previous, next) : next;
+    }
+
+    /**
+     * Ещё не записанный прогресс или null.
+     */
+    public Pending peek(Long userId, Long missionId) {
+        return pending.get(new Key(userId, missionId));
+    }
+
+    /**
+     * Отбрасывает накопленный прогресс после коммита синхронной записи миссии.
+     * Пока она не закоммичена, значение остаётся в буфере: при откате оно ещё нужно.
+     */
+    public void discard(Long userId, Long missionId) {
+        Key key = new Key(userId, missionId);
+        TransactionUtils.afterCommit(() -> pending.remove(key));
+    }
+
+    @Scheduled(fixedDelayString = "${alabuga.missions.progress-flush-interval-ms:2000}")
+    public void flush() {
+        if (!flushing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            // Снимок без удаления: ключ уходит из буфера только после успешной записи своего значения
+            List<Map.Entry<Key, Pending>> snapshot = new ArrayList<>(pending.size());
+            pending.forEach((key, value) -> snapshot.add(Map.entry(key, value)));
+            if (snapshot.isEmpty()) {
+                return;
+            }
+            long recorded = recordedSinceFlush.getAndSet(0);
+            try {
+                write(snapshot);
+                snapshot.forEach(entry -> pending.remove(entry.getKey(), entry.getValue()));
+                log.debug("Сброшен прогресс миссий: {} записей вместо {} обновлений", snapshot.size(), recorded);
+            } catch (RuntimeException e) {
+                log.warn("Не удалось сбросить прогресс {} миссий пакетом, запись по одной", snapshot.size(), e);
+                flushOneByOne(snapshot);
+            }
+        } finally {
+            flushing.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        overflowExecutor.shutdownNow();
+        flush();
+    }
+
+    // ========== PRIVATE METHODS ==========
+
+    // Переполнение сбрасывается не дожидаясь окна; повторные вызовы до начала сброса ставят одну задачу
+    private void scheduleOverflowFlush() {
+        if (!overflowFlushQueued.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            overflowExecutor.execute(() -> {
+                overflowFlushQueued.set(false);
+                flush();
+            });
+        } catch (RejectedExecutionException e) {
+            // Остановка: буфер сбросит shutdown
+            overflowFlushQueued.set(false);
+        }
+    }
+
+    // Собственная транзакция: запись фиксируется до удаления значений из буфера, чей бы поток ни вызвал сброс
+    private void write(List<Map.Entry<Key, Pending>> entries) {
+        transactionTemplate.executeWithoutResult(status -> userMissionRepository.updateProgressBatch(toUpdates(entries)));
+    }
+
+    // Отделяет строки, которые не пишутся, от остальных, чтобы одна ошибка не держала весь буфер
+    private void flushOneByOne(List<Map.Entry<Key, Pending>> snapshot) {
+        for (Map.Entry<Key, Pending> entry : snapshot) {
+            try {
+                write(List.of(entry));
+                pending.remove(entry.getKey(), entry.getValue());
+            } catch (RuntimeException e) {
+                markFailed(entry.getKey(), entry.getValue(), e);
+            }
+        }
+    }
+
+    // Новое значение, записанное за время сброса, начинает счёт попыток заново
+    private void markFailed(Key key, Pending value, RuntimeException cause) {
+        pending.computeIfPresent(key, (k, current) -> {
+            if (!current.equals(value)) {
+                return current;
+            }
+            Pending failed = value.failed();
+            if (failed.attempts() < maxFlushAttempts) {
+                return failed;
+            }
+            log.error("Прогресс {}% миссии {} пользователя {} отброшен после {} неудачных сбросов: {}",
+                    value.progress(), key.missionId(), key.userId(), failed.attempts(), cause.getMessage());
+            return null;
+        });
+    }
+
+    private static Pending merge(Pending previous, Pending next) {
+        return new Pending(next.progress(), next.notes() != null ? next.notes() : previous.notes(), 0);
+    }
+
+    private static List<ProgressUpdate> toUpdates(List<Map.Entry<Key, Pending>> entries) {
+        List<ProgressUpdate> updates = new ArrayList<>(entries.size());
+        for (Map.Entry<Key, Pending> entry : entries) {
+            Key key = entry.getKey();
+            Pending value = entry.getValue();
+            updates.add(new ProgressUpdate(key.userId(), key.missionId(), value.progress(), value.notes()));
+        }
+        return updates;
+    }
+}
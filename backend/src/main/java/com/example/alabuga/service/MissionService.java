@@ -11,6 +11,7 @@ import com.example.alabuga.dto.MissionCreateDTO;
 import com.example.alabuga.dto.MissionDTO;
 import com.example.alabuga.dto.MissionUpdateDTO;
 import com.example.alabuga.dto.UserMissionDTO;
+import com.example.alabuga.entity.EnergyTransactionType;
 import com.example.alabuga.entity.Mission;
 import com.example.alabuga.entity.MissionStatus;
 import com.example.alabuga.entity.User;
@@ -34,15 +35,20 @@ public class MissionService {
     private final UserRepository userRepository;
     private final MissionMapper missionMapper;
     private final NotificationService notificationService;
+    private final LeaderboardService leaderboardService;
+    private final EnergyLedgerService energyLedgerService;
+    private final CatalogCache catalogCache;
+    private final RankProgressCache rankProgressCache;
+    private final MissionProgressBuffer missionProgressBuffer;
     
     public List<MissionDTO> getAllMissions() {
-        List<Mission> missions = missionRepository.findByIsActive(true);
-        return missionMapper.toDTOList(missions);
+        return catalogCache.get(CatalogCache.Section.MISSIONS, "active",
+                () -> missionMapper.toDTOList(missionRepository.findByIsActive(true)));
     }
     
     public List<MissionDTO> getMissionsByBranch(Long branchId) {
-        List<Mission> missions = missionRepository.findActiveMissionsByBranch(branchId);
-        return missionMapper.toDTOList(missions);
+        return catalogCache.get(CatalogCache.Section.MISSIONS, "branch:" + branchId,
+                () -> missionMapper.toDTOList(missionRepository.findActiveMissionsByBranch(branchId)));
     }
     
     public MissionDTO getMissionById(Long id) {
@@ -53,12 +59,12 @@ public class MissionService {
     
     public List<UserMissionDTO> getUserMissions(Long userId) {
         List<UserMission> userMissions = userMissionRepository.findByUserId(userId);
-        return missionMapper.toUserMissionDTOList(userMissions);
+        return withBufferedProgress(missionMapper.toUserMissionDTOList(userMissions));
     }
     
     public List<UserMissionDTO> getUserMissionsByBranch(Long userId, Long branchId) {
         List<UserMission> userMissions = userMissionRepository.findByUserIdAndBranchId(userId, branchId);
-        return missionMapper.toUserMissionDTOList(userMissions);
+        return withBufferedProgress(missionMapper.toUserMissionDTOList(userMissions));
     }
     
     @Transactional
@@ -101,7 +107,25 @@ public class MissionService {
             throw new BusinessLogicException("Миссия не в процессе выполнения");
         }
         
-        userMission.setProgress(Math.min(100, Math.max(0, progress)));
+        int newProgress = Math.min(100, Math.max(0, progress));
+        int currentProgress = userMission.getProgress() != null ? userMission.getProgress() : 0;
+        // Промежуточный прогресс копится в буфере и пишется пакетами; 100% и откат со 100% пишутся сразу
+        if (newProgress < 100 && currentProgress < 100) {
+            MissionProgressBuffer.Pending buffered = missionProgressBuffer.record(userId, missionId, newProgress, notes);
+            UserMissionDTO userMissionDTO = missionMapper.toUserMissionDTO(userMission);
+            userMissionDTO.setProgress(buffered.progress());
+            if (buffered.notes() != null) {
+                userMissionDTO.setNotes(buffered.notes());
+            }
+            return userMissionDTO;
+        }
+        
+        MissionProgressBuffer.Pending buffered = missionProgressBuffer.peek(userId, missionId);
+        missionProgressBuffer.discard(userId, missionId);
+        if (notes == null && buffered != null) {
+            notes = buffered.notes();
+        }
+        userMission.setProgress(newProgress);
         if (notes != null) {
             userMission.setNotes(notes);
         }
@@ -120,8 +144,11 @@ public class MissionService {
                 // Начисляем награды пользователю
                 User user = userMission.getUser();
                 user.setExperience(user.getExperience() + mission.getExperienceReward());
-                        user.setEnergy(user.getEnergy() + mission.getEnergyReward());
+                creditMissionEnergy(user, mission);
                 userRepository.save(user);
+                leaderboardService.onUserChanged(user);
+                leaderboardService.onMissionExperience(user.getId(), mission.getBranchId(), mission.getExperienceReward());
+                rankProgressCache.evict(user.getId());
             }
         }
         
@@ -143,6 +170,7 @@ public class MissionService {
             throw new BusinessLogicException("Миссия требует модерации и не может быть завершена пользователем");
         }
         
+        missionProgressBuffer.discard(userId, missionId);
         userMission.setStatus(MissionStatus.COMPLETED);
         userMission.setProgress(100);
         userMission.setCompletedAt(LocalDateTime.now());
@@ -150,8 +178,11 @@ public class MissionService {
         // Начисляем награды пользователю
         User user = userMission.getUser();
         user.setExperience(user.getExperience() + mission.getExperienceReward());
-                        user.setEnergy(user.getEnergy() + mission.getEnergyReward());
+        creditMissionEnergy(user, mission);
         userRepository.save(user);
+        leaderboardService.onUserChanged(user);
+        leaderboardService.onMissionExperience(user.getId(), mission.getBranchId(), mission.getExperienceReward());
+        rankProgressCache.evict(user.getId());
         
         UserMission savedUserMission = userMissionRepository.save(userMission);
         
@@ -165,6 +196,7 @@ public class MissionService {
     public MissionDTO createMission(MissionCreateDTO missionCreateDTO) {
         Mission mission = missionMapper.toEntity(missionCreateDTO);
         Mission savedMission = missionRepository.save(mission);
+        catalogCache.invalidate(CatalogCache.Section.MISSIONS);
         return missionMapper.toDTO(savedMission);
     }
 
@@ -175,6 +207,7 @@ public class MissionService {
         
         missionMapper.updateEntity(mission, missionUpdateDTO);
         Mission savedMission = missionRepository.save(mission);
+        catalogCache.invalidate(CatalogCache.Section.MISSIONS);
         return missionMapper.toDTO(savedMission);
     }
 
@@ -192,6 +225,7 @@ public class MissionService {
         }
         
         missionRepository.delete(mission);
+        catalogCache.invalidate(CatalogCache.Section.MISSIONS);
     }
 
     @Transactional
@@ -208,6 +242,7 @@ public class MissionService {
             throw new BusinessLogicException("Миссия не в процессе выполнения");
         }
         
+        missionProgressBuffer.discard(userId, missionId);
         if (approved) {
             userMission.setStatus(MissionStatus.COMPLETED);
             userMission.setProgress(100);
@@ -216,8 +251,11 @@ public class MissionService {
             // Начисляем награды пользователю
             User user = userMission.getUser();
             user.setExperience(user.getExperience() + mission.getExperienceReward());
-                        user.setEnergy(user.getEnergy() + mission.getEnergyReward());
+            creditMissionEnergy(user, mission);
             userRepository.save(user);
+            leaderboardService.onUserChanged(user);
+            leaderboardService.onMissionExperience(user.getId(), mission.getBranchId(), mission.getExperienceReward());
+            rankProgressCache.evict(user.getId());
         } else {
             userMission.setStatus(MissionStatus.FAILED);
         }
@@ -225,4 +263,24 @@ public class MissionService {
         UserMission savedUserMission = userMissionRepository.save(userMission);
         return missionMapper.toUserMissionDTO(savedUserMission);
     }
+
+    // Подставляет ещё не сброшенный прогресс, чтобы пользователь видел свои последние обновления
+    private List<UserMissionDTO> withBufferedProgress(List<UserMissionDTO> userMissions) {
+        for (UserMissionDTO userMission : userMissions) {
+            MissionProgressBuffer.Pending buffered = missionProgressBuffer.peek(userMission.getUserId(), userMission.getMissionId());
+            if (buffered != null && MissionStatus.IN_PROGRESS.name().equals(userMission.getStatus())) {
+                userMission.setProgress(buffered.progress());
+                if (buffered.notes() != null) {
+                    userMission.setNotes(buffered.notes());
+                }
+            }
+        }
+        return userMissions;
+    }
+
+    private void creditMissionEnergy(User user, Mission mission) {
+        if (mission.getEnergyReward() != null && mission.getEnergyReward() > 0) {
+            energyLedgerService.credit(user, mission.getEnergyReward(), EnergyTransactionType.MISSION_REWARD, mission.getId());
+        }
+    }
 }
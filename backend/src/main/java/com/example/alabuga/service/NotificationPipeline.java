@@ -0,0 +1,230 @@
+package com.example.alabuga.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.alabuga.dto.NotificationCreateDTO;
+import com.example.alabuga.dto.NotificationPipelineStatsDTO;
+import com.example.alabuga.repository.NotificationRepository;
+import com.example.alabuga.util.TransactionUtils;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Асинхронная запись системных уведомлений.
+ * События попадают в ограниченную очередь только после коммита бизнес-транзакции,
+ * воркеры формируют тексты и вставляют уведомления пакетами.
+ * Если очередь заполнена, уведомление записывает сам вызывающий поток — так нагрузка
+ * притормаживает источник, а не теряет уведомления.
+ */
+@Service
+@Slf4j
+public class NotificationPipeline {
+    
+    private final NotificationRepository notificationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final UnreadNotificationCounter unreadCounter;
+    private final NotificationPushService pushService;
+    
+    @Value("${alabuga.notifications.queue-capacity:10000}")
+    private int queueCapacity;
+    
+    @Value("${alabuga.notifications.workers:2}")
+    private int workers;
+    
+    @Value("${alabuga.notifications.batch-size:100}")
+    private int batchSize;
+    
+    private BlockingQueue<PendingNotification> queue;
+    private ExecutorService workerPool;
+    private volatile boolean running;
+    
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder inserted = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder callerRuns = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder lagTotalMs = new LongAdder();
+    private final AtomicLong lagMaxMs = new AtomicLong();
+    
+    public NotificationPipeline(NotificationRepository notificationRepository, PlatformTransactionManager transactionManager,
+                                UnreadNotificationCounter unreadCounter, NotificationPushService pushService) {
+        this.notificationRepository = notificationRepository;
+        this.unreadCounter = unreadCounter;
+        this.pushService = pushService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        AtomicLong counter = new AtomicLong();
+        workerPool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "notification-writer-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) {
+            workerPool.submit(this::workerLoop);
+        }
+    }
+    
+    @PreDestroy
+    public void stop() {
+        running = false;
+        workerPool.shutdownNow();
+        try {
+            workerPool.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Дописываем то, что осталось в очереди, чтобы не потерять уведомления при остановке
+        List<PendingNotification> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            log.info("Остановка конвейера уведомлений: дописываем {} уведомлений", rest.size());
+            write(rest);
+        }
+    }
+    
+    /**
+     * Ставит уведомление в очередь после коммита текущей транзакции (или сразу, если её нет).
+     * Текст и метаданные формирует renderer уже в потоке воркера. Задержка доставки считается
+     * от постановки в очередь, а не от начала транзакции.
+     */
+    public void publish(Long userId, Supplier<NotificationCreateDTO> renderer) {
+        TransactionUtils.afterCommit(() -> enqueue(new PendingNotification(userId, renderer)));
+    }
+    
+    /**
+     * Записывает уже сформированные уведомления в текущей транзакции, минуя очередь:
+     * они фиксируются или откатываются вместе с ней. Счётчики непрочитанных и SSE
+     * обновляются после коммита.
+     */
+    public void insertInCurrentTransaction(List<NotificationCreateDTO> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        notificationRepository.insertBatch(notifications);
+        TransactionUtils.afterCommit(() -> {
+            inserted.add(notifications.size());
+            batches.increment();
+            for (NotificationCreateDTO notification : notifications) {
+                unreadCounter.add(notification.getUserId(), 1);
+            }
+            notifications.stream().map(NotificationCreateDTO::getUserId).distinct().forEach(pushService::notifyUser);
+        });
+    }
+    
+    public NotificationPipelineStatsDTO getStats() {
+        long count = inserted.sum();
+        long batchCount = batches.sum();
+        return NotificationPipelineStatsDTO.builder()
+                .queueSize(queue.size())
+                .queueCapacity(queueCapacity)
+                .enqueued(enqueued.sum())
+                .inserted(count)
+                .batches(batchCount)
+                .averageBatchSize(batchCount == 0 ? 0 : (double) count / batchCount)
+                .callerRuns(callerRuns.sum())
+                .failed(failed.sum())
+                .averageLagMs(count == 0 ? 0 : (double) lagTotalMs.sum() / count)
+                .maxLagMs(lagMaxMs.get())
+                .build();
+    }
+    
+    private void enqueue(PendingNotification pending) {
+        enqueued.increment();
+        if (running && queue.offer(pending)) {
+            return;
+        }
+        callerRuns.increment();
+        write(List.of(pending));
+    }
+    
+    private void workerLoop() {
+        List<PendingNotification> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Ошибка воркера уведомлений", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    private void write(List<PendingNotification> pending) {
+        List<NotificationCreateDTO> rendered = new ArrayList<>(pending.size());
+        for (PendingNotification notification : pending) {
+            try {
+                rendered.add(notification.renderer().get());
+            } catch (RuntimeException e) {
+                failed.increment();
+                log.warn("Не удалось сформировать уведомление для пользователя {}", notification.userId(), e);
+            }
+        }
+        List<NotificationCreateDTO> written = rendered;
+        try {
+            transactionTemplate.executeWithoutResult(status -> notificationRepository.insertBatch(rendered));
+            batches.increment();
+        } catch (RuntimeException e) {
+            // Одна плохая строка (например, пользователь уже удалён) не должна ронять весь пакет
+            log.warn("Пакет из {} уведомлений не записан, пишем по одному: {}", rendered.size(), e.getMessage());
+            written = writeOneByOne(rendered);
+        }
+        inserted.add(written.size());
+        for (NotificationCreateDTO notification : written) {
+            unreadCounter.add(notification.getUserId(), 1);
+        }
+        written.stream().map(NotificationCreateDTO::getUserId).distinct().forEach(pushService::notifyUser);
+        for (PendingNotification notification : pending) {
+            long lagMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - notification.enqueuedAtNanos());
+            lagTotalMs.add(lagMs);
+            lagMaxMs.accumulateAndGet(lagMs, Math::max);
+        }
+    }
+    
+    private List<NotificationCreateDTO> writeOneByOne(List<NotificationCreateDTO> rendered) {
+        List<NotificationCreateDTO> written = new ArrayList<>(rendered.size());
+        for (NotificationCreateDTO notification : rendered) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> notificationRepository.insertBatch(List.of(notification)));
+                batches.increment();
+                written.add(notification);
+            } catch (RuntimeException e) {
+                failed.increment();
+                log.warn("Уведомление для пользователя {} не записано: {}", notification.getUserId(), e.getMessage());
+            }
+        }
+        return written;
+    }
+    
+    private record PendingNotification(Long userId, Supplier<NotificationCreateDTO> renderer, long enqueuedAtNanos) {
+        PendingNotification(Long userId, Supplier<NotificationCreateDTO> renderer) {
+            this(userId, renderer, System.nanoTime());
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package com.example.alabuga.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.alabuga.dto.NotificationDTO;
+import com.example.alabuga.entity.Notification;
+import com.example.alabuga.mapper.NotificationMapper;
+import com.example.alabuga.repository.NotificationRepository;
+import com.example.alabuga.util.TransactionUtils;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Доставка новых уведомлений подписчикам через Server-Sent Events.
+ * id уведомления выдаётся при вставке, а видимой строка становится при коммите, поэтому строка
+ * с меньшим id может появиться после уже отправленной. После коммита один поток-секвенсор
+ * проставляет уведомлениям delivery_seq, и номера становятся видимыми строго по возрастанию.
+ * Идентификатор события — delivery_seq, поэтому клиент после переподключения
+ * присылает Last-Event-ID и получает всё, что пропустил.
+ * Выборка только ставит события в ограниченный буфер соединения, а отправляет их writer этого соединения.
+ * Если клиент не успевает читать и буфер переполнен, соединение закрывается,
+ * и клиент догоняет пропущенное при переподключении.
+ */
+@Service
+@Slf4j
+public class NotificationPushService {
+    
+    private final NotificationRepository notificationRepository;
+    private final NotificationMapper notificationMapper;
+    private final UnreadNotificationCounter unreadCounter;
+    
+    @Value("${alabuga.notifications.sse-timeout-ms:1800000}")
+    private long timeoutMs;
+    
+    @Value("${alabuga.notifications.sse-buffer-size:100}")
+    private int bufferSize;
+    
+    @Value("${alabuga.notifications.push-workers:2}")
+    private int workers;
+    
+    @Value("${alabuga.notifications.sse-sequence-batch-size:1000}")
+    private int sequenceBatchSize;
+    
+    private final ConcurrentHashMap<Long, List<Connection>> connections = new ConcurrentHashMap<>();
+    // Пользователи, для которых уже запланирована выборка новых уведомлений
+    private final ConcurrentHashMap<Long, AtomicBoolean> pendingFetches = new ConcurrentHashMap<>();
+    private final TransactionTemplate transactionTemplate;
+    private ExecutorService pushPool;
+    // Единственный поток, проставляющий delivery_seq: его транзакции не пересекаются
+    private ExecutorService sequencer;
+    private final AtomicBoolean sequencePending = new AtomicBoolean();
+    // Потоки записи в соединения: медленный клиент занимает только свой поток, а не выборку и чужие соединения
+    private ExecutorService writerPool;
+    // Порция выборки меньше буфера: в нём остаётся место для счётчика, объявлений и heartbeat
+    private int fetchLimit;
+    
+    public NotificationPushService(NotificationRepository notificationRepository, NotificationMapper notificationMapper,
+                                   UnreadNotificationCounter unreadCounter, PlatformTransactionManager transactionManager) {
+        this.notificationRepository = notificationRepository;
+        this.notificationMapper = notificationMapper;
+        this.unreadCounter = unreadCounter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    @PostConstruct
+    public void start() {
+        AtomicLong counter = new AtomicLong();
+        pushPool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "notification-push-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        sequencer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-sequencer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicLong writerCounter = new AtomicLong();
+        writerPool = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "notification-sse-writer-" + writerCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        fetchLimit = Math.max(1, bufferSize / 2);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        sequencer.shutdownNow();
+        pushPool.shutdownNow();
+        connections.values().forEach(list -> list.forEach(connection -> connection.emitter.complete()));
+        connections.clear();
+        writerPool.shutdownNow();
+    }
+    
+    /**
+     * Открывает поток событий пользователя. Если передан lastEventId, сначала досылаются
+     * уведомления с большим номером доставки, иначе поток начинается с текущего момента.
+     */
+    public SseEmitter subscribe(Long userId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        long startAfter = lastEventId != null
+                ? lastEventId
+                : notificationRepository.findMaxDeliverySeqByUserId(userId).orElse(0L);
+        Connection connection = new Connection(userId, emitter, startAfter, bufferSize);
+        connections.computeIfAbsent(userId, id -> new CopyOnWriteArrayList<>()).add(connection);
+        emitter.onCompletion(connection::close);
+        emitter.onTimeout(connection::close);
+        emitter.onError(e -> connection.close());
+        
+        connection.sendUnreadCount(unreadCounter.get(userId));
+        if (lastEventId != null) {
+            scheduleFetch(userId);
+        }
+        return emitter;
+    }
+    
+    /**
+     * Сообщает о новых уведомлениях пользователя после коммита текущей транзакции: секвенсор
+     * проставляет им номера доставки и запускает выборку для подписчиков.
+     * Номер нужен и без открытого соединения, чтобы уведомление догрузилось при переподключении.
+     * Частые вызовы схлопываются в один проход секвенсора.
+     */
+    public void notifyUser(Long userId) {
+        TransactionUtils.afterCommit(this::scheduleSequencing);
+    }
+    
+    /**
+     * Рассылает объявление всем открытым соединениям. У события нет id: объявления
+     * не участвуют в Last-Event-ID и догружаются клиентом из списка уведомлений.
+     */
+    public void broadcast(NotificationDTO broadcast) {
+        connections.values().forEach(list -> list.forEach(connection -> connection.sendBroadcast(broadcast)));
+    }
+    
+    public int getConnectionCount() {
+        return connections.values().stream().mapToInt(List::size).sum();
+    }
+    
+    @Scheduled(fixedDelayString = "${alabuga.notifications.sse-heartbeat-ms:15000}")
+    public void heartbeat() {
+        connections.values().forEach(list -> list.forEach(Connection::sendHeartbeat));
+    }
+    
+    /**
+     * Подбирает уведомления, записанные без notifyUser или пропущенные из-за остановки.
+     */
+    @Scheduled(fixedDelayString = "${alabuga.notifications.sse-sequence-interval-ms:5000}")
+    public void sequencePending() {
+        scheduleSequencing();
+    }
+    
+    private void scheduleSequencing() {
+        if (sequencePending.compareAndSet(false, true)) {
+            sequencer.submit(() -> {
+                sequencePending.set(false);
+                assignDeliverySeq();
+            });
+        }
+    }
+    
+    private void assignDeliverySeq() {
+        try {
+            List<Long> userIds;
+            do {
+                userIds = transactionTemplate.execute(status -> notificationRepository.assignDeliverySeq(sequenceBatchSize));
+                // Номера уже закоммичены: подписчики их увидят
+                new LinkedHashSet<>(userIds).stream().filter(connections::containsKey).forEach(this::scheduleFetch);
+            } while (userIds.size() == sequenceBatchSize);
+        } catch (RuntimeException e) {
+            log.warn("Не удалось проставить номера доставки уведомлений: {}", e.getMessage());
+        }
+    }
+    
+    private void scheduleFetch(Long userId) {
+        AtomicBoolean pending = pendingFetches.computeIfAbsent(userId, id -> new AtomicBoolean());
+        if (pending.compareAndSet(false, true)) {
+            pushPool.submit(() -> {
+                pending.set(false);
+                fetchAndPush(userId);
+            });
+        }
+    }
+    
+    private void fetchAndPush(Long userId) {
+        List<Connection> userConnections = connections.get(userId);
+        if (userConnections == null || userConnections.isEmpty()) {
+            return;
+        }
+        long afterSeq = userConnections.stream().mapToLong(c -> c.lastQueuedSeq).min().orElse(0L);
+        try {
+            List<Notification> fresh = notificationRepository.findByUserIdAndDeliverySeqGreaterThanOrderByDeliverySeqAsc(
+                    userId, afterSeq, PageRequest.of(0, fetchLimit));
+            List<Delivery> events = new ArrayList<>(fresh.size());
+            for (Notification notification : fresh) {
+                events.add(new Delivery(notification.getDeliverySeq(), notificationMapper.toDTO(notification)));
+            }
+            long unread = unreadCounter.get(userId);
+            boolean fetchMore = fresh.size() == fetchLimit;
+            for (Connection connection : userConnections) {
+                connection.push(events, unread, fetchMore);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Не удалось отправить уведомления пользователю {}: {}", userId, e.getMessage());
+        }
+    }
+    
+    private void unregister(Connection connection) {
+        connections.computeIfPresent(connection.userId, (id, list) -> {
+            list.remove(connection);
+            return list.isEmpty() ? null : list;
+        });
+        if (!connections.containsKey(connection.userId)) {
+            pendingFetches.remove(connection.userId);
+        }
+    }
+    
+    private final class Connection {
+        private final Long userId;
+        private final SseEmitter emitter;
+        // Исходящие события; в emitter пишет только writer этого соединения
+        private final BlockingQueue<Outgoing> outbox;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile long lastQueuedSeq;
+        
+        private Connection(Long userId, SseEmitter emitter, long lastQueuedSeq, int bufferSize) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.lastQueuedSeq = lastQueuedSeq;
+            this.outbox = new ArrayBlockingQueue<>(bufferSize);
+        }
+        
+        // Только ставит события в очередь и не ждёт клиента. fetchMore — выборка упёрлась в предел:
+        // следующая порция запрашивается, когда writer отправит эту
+        private synchronized void push(List<Delivery> events, long unread, boolean fetchMore) {
+            for (Delivery event : events) {
+                if (event.seq() <= lastQueuedSeq) {
+                    continue;
+                }
+                if (!enqueue(SseEmitter.event().id(String.valueOf(event.seq())).name("notification").data(event.notification()), false)) {
+                    return;
+                }
+                lastQueuedSeq = event.seq();
+            }
+            enqueue(SseEmitter.event().name("unread-count").data(unread), fetchMore);
+        }
+        
+        private void sendUnreadCount(long unread) {
+            enqueue(SseEmitter.event().name("unread-count").data(unread), false);
+        }
+        
+        private void sendBroadcast(NotificationDTO broadcast) {
+            enqueue(SseEmitter.event().name("broadcast").data(broadcast), false);
+        }
+        
+        private void sendHeartbeat() {
+            enqueue(SseEmitter.event().comment("heartbeat"), false);
+        }
+        
+        private boolean enqueue(SseEmitter.SseEventBuilder event, boolean fetchMore) {
+            if (closed.get()) {
+                return false;
+            }
+            if (!outbox.offer(new Outgoing(event, fetchMore))) {
+                // Клиент не успевает: закрываем, он переподключится с Last-Event-ID
+                log.debug("Буфер SSE пользователя {} переполнен, соединение закрыто", userId);
+                close();
+                return false;
+            }
+            startWriter();
+            return true;
+        }
+        
+        // Закрытие тоже проходит через writer: emitter.complete() ждал бы зависшую отправку
+        private void close() {
+            if (closed.compareAndSet(false, true)) {
+                outbox.clear();
+                unregister(this);
+                startWriter();
+            }
+        }
+        
+        private void startWriter() {
+            if (draining.compareAndSet(false, true)) {
+                writerPool.execute(this::drain);
+            }
+        }
+        
+        private void drain() {
+            while (true) {
+                Outgoing next;
+                while (!closed.get() && (next = outbox.poll()) != null) {
+                    if (!write(next)) {
+                        return;
+                    }
+                }
+                if (closed.get()) {
+                    emitter.complete();
+                    return;
+                }
+                draining.set(false);
+                // Событие или закрытие могли прийти между последним poll и сбросом флага
+                if ((outbox.isEmpty() && !closed.get()) || !draining.compareAndSet(false, true)) {
+                    return;
+                }
+            }
+        }
+        
+        private boolean write(Outgoing next) {
+            try {
+                emitter.send(next.event());
+            } catch (IOException | IllegalStateException e) {
+                closed.set(true);
+                outbox.clear();
+                emitter.completeWithError(e);
+                unregister(this);
+                return false;
+            }
+            if (next.fetchMore()) {
+                scheduleFetch(userId);
+            }
+            return true;
+        }
+    }
+    
+    private record Delivery(long seq, NotificationDTO notification) {
+    }
+    
+    private record Outgoing(SseEmitter.SseEventBuilder event, boolean fetchMore) {
+    }
+}
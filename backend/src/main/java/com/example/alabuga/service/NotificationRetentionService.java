@@ -0,0 +1,89 @@
+package com.example.alabuga.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.alabuga.repository.NotificationRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Политика хранения уведомлений. Прочитанные уведомления старше readDays и любые старше unreadDays
+ * переносятся из notifications в notifications_archive, архив старше archiveDays удаляется.
+ * Работа идёт порциями по batchSize строк, каждая порция — своя короткая транзакция;
+ * за один запуск обрабатывается не больше maxBatches порций, остаток подхватит следующий запуск.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class NotificationRetentionService {
+    
+    private final NotificationRepository notificationRepository;
+    private final UnreadNotificationCounter unreadCounter;
+    private final PlatformTransactionManager transactionManager;
+    
+    @Value("${alabuga.notifications.retention.read-days:30}")
+    private int readDays;
+    
+    @Value("${alabuga.notifications.retention.unread-days:180}")
+    private int unreadDays;
+    
+    @Value("${alabuga.notifications.retention.archive-days:365}")
+    private int archiveDays;
+    
+    @Value("${alabuga.notifications.retention.batch-size:1000}")
+    private int batchSize;
+    
+    @Value("${alabuga.notifications.retention.max-batches:50}")
+    private int maxBatches;
+    
+    @Scheduled(cron = "${alabuga.notifications.retention.cron:0 30 3 * * *}")
+    public void applyRetention() {
+        LocalDateTime now = LocalDateTime.now();
+        int archived = archive(now.minusDays(readDays), now.minusDays(unreadDays));
+        int purged = purge(now.minusDays(archiveDays));
+        if (archived > 0 || purged > 0) {
+            log.info("Хранение уведомлений: в архив перенесено {}, из архива удалено {}", archived, purged);
+        }
+    }
+    
+    private int archive(LocalDateTime readBefore, LocalDateTime unreadBefore) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            Integer moved = transactionTemplate.execute(status -> {
+                List<Long> ids = notificationRepository.findArchivableIds(readBefore, unreadBefore, batchSize);
+                // Непрочитанные уходят из горячей таблицы — загруженные счётчики этих пользователей устаревают
+                unreadCounter.evict(notificationRepository.findUserIdsWithUnread(ids));
+                return notificationRepository.moveToArchive(ids);
+            });
+            int count = moved != null ? moved : 0;
+            total += count;
+            if (count < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+    
+    private int purge(LocalDateTime before) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            Integer deleted = transactionTemplate.execute(status -> notificationRepository.purgeArchive(before, batchSize));
+            int count = deleted != null ? deleted : 0;
+            total += count;
+            if (count < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+}
@@ -1,42 +1,105 @@
 package com.example.alabuga.service;
 
+import com.example.alabuga.dto.MarkReadResultDTO;
 import com.example.alabuga.dto.NotificationCreateDTO;
 import com.example.alabuga.dto.NotificationDTO;
+import com.example.alabuga.dto.NotificationPipelineStatsDTO;
 import com.example.alabuga.dto.NotificationUpdateDTO;
 import com.example.alabuga.entity.Notification;
 import com.example.alabuga.entity.Rank;
 import com.example.alabuga.entity.User;
+import com.example.alabuga.exception.BusinessLogicException;
 import com.example.alabuga.exception.ResourceNotFoundException;
 import com.example.alabuga.mapper.NotificationMapper;
 import com.example.alabuga.repository.NotificationRepository;
 import com.example.alabuga.repository.UserRepository;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.example.alabuga.repository.UserRepositoryCustom.RankChange;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 public class NotificationService {
 
+    public static final int MAX_MARK_READ_USERS = 100_000;
+    public static final int DEFAULT_HISTORY_SIZE = 50;
+    public static final int MAX_HISTORY_SIZE = 500;
+
+    // Курсор первой страницы истории: позже любой записи
+    private static final LocalDateTime HISTORY_START_CURSOR = LocalDateTime.of(9999, 12, 31, 23, 59);
+
+    private static final Comparator<Notification> HISTORY_ORDER = Comparator
+            .comparing(Notification::getCreatedAt, Comparator.reverseOrder())
+            .thenComparing(Notification::getId, Comparator.reverseOrder());
+
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
     private final NotificationMapper notificationMapper;
     private final ObjectMapper objectMapper;
+    private final NotificationPipeline notificationPipeline;
+    private final UnreadNotificationCounter unreadCounter;
+    private final NotificationPushService pushService;
+    private final PlatformTransactionManager transactionManager;
+    private final BroadcastNotificationService broadcastService;
+
+    @Value("${alabuga.notifications.mark-read-chunk-size:500}")
+    private int markReadChunkSize;
 
     // ========== CRUD OPERATIONS ==========
 
-    public List<NotificationDTO> getUserNotifications(Long userId) {
-        List<Notification> notifications = notificationRepository.findUserNotificationsOrderedByDate(userId);
-        return notificationMapper.toDTOList(notifications);
+    /**
+     * Последние size уведомлений пользователя вместе с объявлениями; более старые — через историю.
+     */
+    public List<NotificationDTO> getUserNotifications(Long userId, Integer size) {
+        int pageSize = pageSize(size);
+        List<Notification> notifications = notificationRepository.findUserNotificationsOrderedByDate(userId,
+                PageRequest.of(0, pageSize));
+        return mergeByDate(notificationMapper.toDTOList(notifications), broadcastService.getBroadcasts(userId), pageSize);
+    }
+
+    /**
+     * История личных уведомлений по страницам от новых к старым.
+     * Курсор — (createdAt, id) последней записи предыдущей страницы: id после перехода на пулы
+     * последовательностей не обязан расти вместе с датой. По умолчанию читается только горячая
+     * таблица; с includeArchived страница дополняется архивом.
+     */
+    public List<NotificationDTO> getNotificationHistory(Long userId, LocalDateTime beforeCreatedAt, Long beforeId,
+                                                        Integer size, boolean includeArchived) {
+        int pageSize = pageSize(size);
+        if ((beforeCreatedAt == null) != (beforeId == null)) {
+            throw new BusinessLogicException("Курсор истории задаётся парой beforeCreatedAt и beforeId");
+        }
+        LocalDateTime createdBefore = beforeCreatedAt != null ? beforeCreatedAt : HISTORY_START_CURSOR;
+        long before = beforeId != null ? beforeId : Long.MAX_VALUE;
+        List<Notification> hot = notificationRepository.findUserNotificationsBefore(userId, createdBefore, before,
+                PageRequest.of(0, pageSize));
+        if (!includeArchived) {
+            return notificationMapper.toDTOList(hot);
+        }
+        List<Notification> archived = notificationRepository.findArchivedByUserId(userId, createdBefore, before, pageSize);
+        return notificationMapper.toDTOList(mergeByCreatedAt(hot, archived, pageSize));
     }
 
-    public List<NotificationDTO> getUnreadNotifications(Long userId) {
-        List<Notification> notifications = notificationRepository.findByUserIdAndIsReadOrderByCreatedAtDesc(userId, false);
-        return notificationMapper.toDTOList(notifications);
+    /**
+     * Последние size непрочитанных уведомлений вместе с непрочитанными объявлениями.
+     */
+    public List<NotificationDTO> getUnreadNotifications(Long userId, Integer size) {
+        int pageSize = pageSize(size);
+        List<Notification> notifications = notificationRepository.findByUserIdAndIsReadOrderByCreatedAtDescIdDesc(
+                userId, false, PageRequest.of(0, pageSize));
+        return mergeByDate(notificationMapper.toDTOList(notifications), broadcastService.getUnreadBroadcasts(userId), pageSize);
     }
 
     public NotificationDTO getNotificationById(Long id) {
@@ -54,6 +117,8 @@ public class NotificationService {
         notification.setUser(user);
 
         Notification savedNotification = notificationRepository.save(notification);
+        unreadCounter.add(user.getId(), 1);
+        pushService.notifyUser(user.getId());
         return notificationMapper.toDTO(savedNotification);
     }
 
@@ -62,385 +127,215 @@ public class NotificationService {
         Notification notification = notificationRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Уведомление", id));
 
+        boolean wasRead = notification.getIsRead();
         notificationMapper.updateEntity(notification, dto);
         Notification savedNotification = notificationRepository.save(notification);
+        if (wasRead != savedNotification.getIsRead()) {
+            unreadCounter.add(savedNotification.getUser().getId(), wasRead ? 1 : -1);
+        }
         return notificationMapper.toDTO(savedNotification);
     }
 
     @Transactional
     public void deleteNotification(Long id) {
-        if (!notificationRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Уведомление", id);
+        Notification notification = notificationRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Уведомление", id));
+        notificationRepository.delete(notification);
+        if (!notification.getIsRead()) {
+            unreadCounter.add(notification.getUser().getId(), -1);
         }
-        notificationRepository.deleteById(id);
     }
 
     public Long getUnreadCount(Long userId) {
-        return notificationRepository.countUnreadNotificationsByUserId(userId);
+        return unreadCounter.get(userId) + broadcastService.countUnread(userId);
     }
 
     @Transactional
     public NotificationDTO markAsRead(Long id) {
         Notification notification = notificationRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Уведомление", id));
-        notification.setIsRead(true);
-        Notification savedNotification = notificationRepository.save(notification);
-        return notificationMapper.toDTO(savedNotification);
+        // Условный UPDATE: при параллельных запросах счётчик уменьшится только один раз
+        if (notificationRepository.markAsReadIfUnread(id) == 1) {
+            unreadCounter.add(notification.getUser().getId(), -1);
+        }
+        // Флаг ставится только в ответе: изменённая сущность ушла бы при коммите вторым UPDATE всей строки
+        NotificationDTO notificationDTO = notificationMapper.toDTO(notification);
+        notificationDTO.setIsRead(true);
+        return notificationDTO;
     }
 
+    /**
+     * Отмечает все уведомления пользователя одним UPDATE, без загрузки сущностей.
+     */
     @Transactional
-    public void markAllAsRead(Long userId) {
-        List<Notification> notifications = notificationRepository.findByUserIdAndIsReadOrderByCreatedAtDesc(userId, false);
-        notifications.forEach(n -> n.setIsRead(true));
-        notificationRepository.saveAll(notifications);
+    public MarkReadResultDTO markAllAsRead(Long userId) {
+        long startedAt = System.nanoTime();
+        int rows = notificationRepository.markAllAsReadByUserId(userId);
+        unreadCounter.add(userId, -rows);
+        broadcastService.markAllAsRead(userId);
+        return markReadResult(1, rows, startedAt);
+    }
+
+    /**
+     * Отмечает уведомления многих пользователей (например, после рассылки).
+     * Пользователи обрабатываются порциями, каждая порция — один UPDATE в своей транзакции,
+     * чтобы не держать блокировки на всех строках сразу.
+     */
+    public MarkReadResultDTO markAllAsRead(List<Long> userIds) {
+        List<Long> distinct = userIds.stream().distinct().toList();
+        if (distinct.size() > MAX_MARK_READ_USERS) {
+            throw new BusinessLogicException("За один запрос можно обработать не более %d пользователей", MAX_MARK_READ_USERS);
+        }
+        long startedAt = System.nanoTime();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long rows = 0;
+        for (int from = 0; from < distinct.size(); from += markReadChunkSize) {
+            List<Long> chunk = distinct.subList(from, Math.min(from + markReadChunkSize, distinct.size()));
+            Integer updated = transactionTemplate.execute(status -> {
+                int count = notificationRepository.markAllAsReadByUserIds(chunk);
+                unreadCounter.evict(chunk);
+                broadcastService.markAllAsRead(chunk);
+                return count;
+            });
+            rows += updated != null ? updated : 0;
+        }
+        return markReadResult(distinct.size(), rows, startedAt);
     }
 
-    // ========== SYSTEM NOTIFICATIONS ==========
+    private static int pageSize(Integer size) {
+        int pageSize = size == null ? DEFAULT_HISTORY_SIZE : size;
+        if (pageSize < 1 || pageSize > MAX_HISTORY_SIZE) {
+            throw new BusinessLogicException("Размер страницы должен быть от 1 до %d", MAX_HISTORY_SIZE);
+        }
+        return pageSize;
+    }
 
-    @Transactional
-    public void createRankAssignmentNotification(User user, Rank rank) {
-        String title = "СИСТЕМНЫЙ ЖУРНАЛ: ИНИЦИАЦИЯ НОВОГО ЧЛЕНА ЭКИПАЖА";
-        String content = generateRankAssignmentContent(rank);
-        String metadata = createRankMetadata(rank);
+    // Обе части уже отсортированы по убыванию даты (личные — по (createdAt, id)), поэтому достаточно слияния
+    private static List<NotificationDTO> mergeByDate(List<NotificationDTO> personal, List<NotificationDTO> broadcasts, int limit) {
+        if (broadcasts.isEmpty()) {
+            return personal;
+        }
+        List<NotificationDTO> merged = new ArrayList<>(Math.min(personal.size() + broadcasts.size(), limit));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < personal.size() || j < broadcasts.size())) {
+            boolean takePersonal = j >= broadcasts.size()
+                    || (i < personal.size() && !personal.get(i).getCreatedAt().isBefore(broadcasts.get(j).getCreatedAt()));
+            merged.add(takePersonal ? personal.get(i++) : broadcasts.get(j++));
+        }
+        return merged;
+    }
+
+    // Обе части отсортированы по убыванию (createdAt, id); id в архиве и горячей таблице не пересекаются
+    private static List<Notification> mergeByCreatedAt(List<Notification> hot, List<Notification> archived, int limit) {
+        List<Notification> merged = new ArrayList<>(limit);
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < hot.size() || j < archived.size())) {
+            boolean takeHot = j >= archived.size()
+                    || (i < hot.size() && HISTORY_ORDER.compare(hot.get(i), archived.get(j)) <= 0);
+            merged.add(takeHot ? hot.get(i++) : archived.get(j++));
+        }
+        return merged;
+    }
 
-        NotificationCreateDTO dto = NotificationCreateDTO.builder()
-                .userId(user.getId())
-                .title(title)
-                .content(content)
-                .notificationType(Notification.NotificationType.RANK_ASSIGNMENT.getCode())
-                .metadata(metadata)
+    private MarkReadResultDTO markReadResult(int users, long rows, long startedAt) {
+        long durationNanos = Math.max(System.nanoTime() - startedAt, 1);
+        return MarkReadResultDTO.builder()
+                .users(users)
+                .rows(rows)
+                .durationMs(durationNanos / 1_000_000.0)
+                .rowsPerSecond(rows * 1_000_000_000.0 / durationNanos)
                 .build();
-
-        createNotification(dto);
     }
 
-    @Transactional
-    public void createRankPromotionNotification(User user, Rank oldRank, Rank newRank) {
-        String title = "СИСТЕМНЫЙ ЖУРНАЛ: ПОВЫШЕНИЕ РАНГА";
-        String content = generateRankPromotionContent(oldRank, newRank);
-        String metadata = createRankPromotionMetadata(oldRank, newRank);
+    // ========== SYSTEM NOTIFICATIONS ==========
+    // Системные уведомления публикуются в NotificationPipeline после коммита вызывающей транзакции.
+    // Текст не хранится: в строке остаются идентификатор шаблона из NotificationTemplates и параметры в metadata.
 
-        NotificationCreateDTO dto = NotificationCreateDTO.builder()
-                .userId(user.getId())
-                .title(title)
-                .content(content)
-                .notificationType(Notification.NotificationType.RANK_PROMOTION.getCode())
-                .metadata(metadata)
-                .build();
+    public void createRankAssignmentNotification(User user, Rank rank) {
+        publish(user.getId(), Notification.NotificationType.RANK_ASSIGNMENT,
+                "СИСТЕМНЫЙ ЖУРНАЛ: ИНИЦИАЦИЯ НОВОГО ЧЛЕНА ЭКИПАЖА", NotificationTemplates.RANK_ASSIGNMENT,
+                new RankMetadata(rank.getLevel(), rank.getName(), rank.getBranch().name()));
+    }
 
-        createNotification(dto);
+    public void createRankPromotionNotification(User user, Rank oldRank, Rank newRank) {
+        publish(user.getId(), Notification.NotificationType.RANK_PROMOTION,
+                "СИСТЕМНЫЙ ЖУРНАЛ: ПОВЫШЕНИЕ РАНГА", NotificationTemplates.RANK_PROMOTION,
+                new RankPromotionMetadata(oldRank.getLevel(), oldRank.getName(), newRank.getLevel(), newRank.getName()));
+    }
+
+    /**
+     * Уведомления о повышениях ранга из массового пересчёта: пишутся одним пакетом в текущей
+     * транзакции, поэтому фиксируются вместе с порцией пересчёта и её контрольной точкой.
+     */
+    public void createRankPromotionNotifications(List<RankChange> changes) {
+        List<NotificationCreateDTO> notifications = new ArrayList<>(changes.size());
+        for (RankChange change : changes) {
+            Rank oldRank = Rank.fromLevel(change.fromRank());
+            Rank newRank = Rank.fromLevel(change.toRank());
+            notifications.add(render(change.userId(), Notification.NotificationType.RANK_PROMOTION,
+                    "СИСТЕМНЫЙ ЖУРНАЛ: ПОВЫШЕНИЕ РАНГА", NotificationTemplates.RANK_PROMOTION,
+                    new RankPromotionMetadata(oldRank.getLevel(), oldRank.getName(), newRank.getLevel(), newRank.getName())));
+        }
+        notificationPipeline.insertInCurrentTransaction(notifications);
     }
 
-    @Transactional
     public void createMissionCompletedNotification(User user, String missionName, Integer experienceReward, Integer energyReward) {
-        String title = "СИСТЕМНЫЙ ЖУРНАЛ: МИССИЯ ЗАВЕРШЕНА";
-        String content = generateMissionCompletedContent(missionName, experienceReward, energyReward);
-        String metadata = createMissionMetadata(missionName, experienceReward, energyReward);
-
-        NotificationCreateDTO dto = NotificationCreateDTO.builder()
-                .userId(user.getId())
-                .title(title)
-                .content(content)
-                .notificationType(Notification.NotificationType.MISSION_COMPLETED.getCode())
-                .metadata(metadata)
-                .build();
-
-        createNotification(dto);
+        publish(user.getId(), Notification.NotificationType.MISSION_COMPLETED,
+                "СИСТЕМНЫЙ ЖУРНАЛ: МИССИЯ ЗАВЕРШЕНА", NotificationTemplates.MISSION_COMPLETED,
+                new MissionMetadata(missionName, experienceReward, energyReward));
     }
 
-    @Transactional
     public void createArtifactAcquiredNotification(User user, String artifactName, String artifactRarity) {
-        String title = "СИСТЕМНЫЙ ЖУРНАЛ: АРТЕФАКТ ПОЛУЧЕН";
-        String content = generateArtifactAcquiredContent(artifactName, artifactRarity);
-        String metadata = createArtifactMetadata(artifactName, artifactRarity);
-
-        NotificationCreateDTO dto = NotificationCreateDTO.builder()
-                .userId(user.getId())
-                .title(title)
-                .content(content)
-                .notificationType(Notification.NotificationType.ARTIFACT_ACQUIRED.getCode())
-                .metadata(metadata)
-                .build();
-
-        createNotification(dto);
+        publish(user.getId(), Notification.NotificationType.ARTIFACT_ACQUIRED,
+                "СИСТЕМНЫЙ ЖУРНАЛ: АРТЕФАКТ ПОЛУЧЕН", NotificationTemplates.ARTIFACT_ACQUIRED,
+                new ArtifactMetadata(artifactName, artifactRarity));
     }
 
-    @Transactional
     public void createShopPurchaseNotification(User user, String itemName, Integer price) {
-        String title = "СИСТЕМНЫЙ ЖУРНАЛ: ПОКУПКА В НЕКСУСЕ";
-        String content = generateShopPurchaseContent(itemName, price);
-        String metadata = createShopPurchaseMetadata(itemName, price);
-
-        NotificationCreateDTO dto = NotificationCreateDTO.builder()
-                .userId(user.getId())
-                .title(title)
-                .content(content)
-                .notificationType(Notification.NotificationType.SHOP_PURCHASE.getCode())
-                .metadata(metadata)
-                .build();
-
-        createNotification(dto);
+        publish(user.getId(), Notification.NotificationType.SHOP_PURCHASE,
+                "СИСТЕМНЫЙ ЖУРНАЛ: ПОКУПКА В НЕКСУСЕ", NotificationTemplates.SHOP_PURCHASE,
+                new ShopPurchaseMetadata(itemName, price));
     }
 
-    @Transactional
     public void createCardAcquiredNotification(User user, String cardName, String seriesName) {
-        String title = "СИСТЕМНЫЙ ЖУРНАЛ: КАРТА ПОЛУЧЕНА";
-        String content = generateCardAcquiredContent(cardName, seriesName);
-        String metadata = createCardMetadata(cardName, seriesName);
-
-        NotificationCreateDTO dto = NotificationCreateDTO.builder()
-                .userId(user.getId())
-                .title(title)
-                .content(content)
-                .notificationType(Notification.NotificationType.CARD_ACQUIRED.getCode())
-                .metadata(metadata)
-                .build();
-
-        createNotification(dto);
-    }
-
-    // ========== CONTENT GENERATORS ==========
-
-    private String generateRankAssignmentContent(Rank rank) {
-        if (rank.getLevel() == 0) {
-            return """
-                    📨 Сообщение 0: Статус «Космо-Кадет»
-                    
-                    // АВТОМАТИЧЕСКОЕ УВЕДОМЛЕНИЕ БОРТОВОГО ИИ //
-                    ЗАГРУЗКА ПРОТОКОЛА «СТАРТ»...
-                    Активен новый член экипажа. Распознан чистый потенциал. Вам присвоен базовый ранг «Космо-Кадет».
-                    Ваша задача — общая ориентация в пространстве Флота. Изучайте основы, выполняйте вводные миссии, сканируйте свои врожденные склонности.
-                    Система определит ваш уникальный когнитивный паттерн и предложит путь специализации.
-                    Удачи, Кадет. Пусть звезды светят вам ярче.
-                    """;
-        }
-
-        return generateRankSpecificContent(rank);
-    }
-
-    private String generateRankPromotionContent(Rank oldRank, Rank newRank) {
-        return String.format("""
-                        // ПОВЫШЕНИЕ СТАТУСА //
-                        Поздравляем с повышением!
-                        
-                        Предыдущий ранг: %s (уровень %d)
-                        Новый ранг: %s (уровень %d)
-                        
-                        %s
-                        """,
-                oldRank.getName(), oldRank.getLevel(),
-                newRank.getName(), newRank.getLevel(),
-                generateRankSpecificContent(newRank)
-        );
-    }
-
-    private String generateMissionCompletedContent(String missionName, Integer experienceReward, Integer energyReward) {
-        return String.format("""
-                        // ОПОВЕЩЕНИЕ СЛУЖБЫ МИССИЙ //
-                        Миссия «%s» успешно завершена.
-                        
-                        Награды:
-                        • Опыт: %d
-                        • Энергия: %d
-                        
-                        Командование довольно результатом операции.
-                        """,
-                missionName, experienceReward, energyReward
-        );
-    }
-
-    private String generateArtifactAcquiredContent(String artifactName, String artifactRarity) {
-        return String.format("""
-                        // СКАНИРОВАНИЕ АРТЕФАКТА //
-                        Обнаружен новый артефакт!
-                        
-                        Название: %s
-                        Редкость: %s
-                        
-                        Артефакт добавлен в вашу коллекцию. Используйте его силу с умом.
-                        """,
-                artifactName, artifactRarity
-        );
-    }
-
-    private String generateShopPurchaseContent(String itemName, Integer price) {
-        return String.format("""
-                        // ТРАНЗАКЦИЯ НЕКСУСА //
-                        Покупка совершена успешно!
-                        
-                        Товар: %s
-                        Стоимость: %d кредитов
-                        
-                        Благодарим за использование торговой системы Нексус.
-                        """,
-                itemName, price
-        );
-    }
-
-    private String generateCardAcquiredContent(String cardName, String seriesName) {
-        return String.format("""
-                        // АКТИВАЦИЯ КАРТЫ //
-                        Получена новая карта!
-                        
-                        Название: %s
-                        Серия: %s
-                        
-                        Карта активирована в вашей коллекции.
-                        """,
-                cardName, seriesName
-        );
-    }
-
-    private String generateRankSpecificContent(Rank rank) {
-        return switch (rank.getLevel()) {
-            case 1 -> """
-                    📨 Сообщение 1.1: Ранг «Навигатор Траекторий»
-                    
-                    // ПОДТВЕРЖДЕНИЕ СПЕЦИАЛИЗАЦИИ: РАСЧЕТ //
-                    Приветствую, Навигатор.
-                    Вы доказали, что видите вселенную как систему гравитационных полей и переменных. Ваш разум — это живой компьютер, способный рассчитать курс сквозь астероидное поле хаоса.
-                    Ваша новая роль: «Навигатор Траекторий». Вы будете прокладывать оптимальные маршруты для проектов и данных. Ваша цель — эффективность и точность.
-                    Не сбивайтесь с курса.
-                    """;
-            case 2 -> """
-                    📨 Сообщение 1.2: Ранг «Аналитик Орбит»
-                    
-                    // ПОВЫШЕНИЕ СТАТУСА: ГЛУБИННЫЙ АНАЛИЗ //
-                    Приветствую, Аналитик.
-                    Вы вышли за рамки простых расчетов. Теперь вы не просто прокладываете курс — вы понимаете фундаментальные законы движения, спрос и потоки информации внутри Флота.
-                    Ваша новая роль: «Аналитик Орбит». Вы изучаете и предсказываете тенденции, находите скрытые закономерности. Вы — тот, кто предвидит проблемы до их появления.
-                    Смотрите в суть.
-                    """;
-            case 3 -> """
-                    📨 Сообщение 1.3: Ранг «Архитектор Станции»
-                    
-                    // ПРИКАЗ О ПОВЫШЕНИИ: КОНСТРУИРОВАНИЕ //
-                    Приветствую, Архитектор.
-                    Вы достигли вершины технического вектора. Теперь вы не анализируете — вы создаете. Вы проектируете сложные архитектурные решения, системы и процессы, которые становятся опорой для всего Флота.
-                    Ваша новая роль: «Архитектор Станции». Вы превращаете хаос в порядок, а идеи — в работающие структуры. От ваших чертежей зависит будущее наших операций.
-                    Стройте на века.
-                    """;
-            case 4 -> """
-                    📨 Сообщение 2.1: Ранг «Хронист Галактики»
-                    
-                    // ПОДТВЕРЖДЕНИЕ СПЕЦИАЛИЗАЦИИ: НАСЛЕДИЕ //
-                    Приветствую, Хронист.
-                    Вы показали, что величайшая ценность Флота — не в технологиях, а в знаниях и историях, которые мы собираем. Ваша задача — фиксировать, систематизировать и сохранять наш опыт.
-                    Ваша новая роль: «Хронист Галактики». Вы превращаете разрозненные данные в нарративы, создаете инструкции, пишете историю наших побед и уроков.
-                    Сохраняйте память.
-                    """;
-            case 5 -> """
-                    📨 Сообщение 2.2: Ранг «Исследователь Культур»
-                    
-                    // ПОВЫШЕНИЕ СТАТУСА: ПОНИМАНИЕ //
-                    Приветствую, Исследователь.
-                    Вы вышли за рамки простого документирования. Вы ищете смыслы. Вы анализируете рынки, тренды, "культуры" отделов и команд, чтобы находить точки роста и инноваций.
-                    Ваша новая роль: «Исследователь Культур». Вы проводите "археологические раскопки" в данных, чтобы найти драгоценные идеи, которые двигают Флот вперед.
-                    Ищите истину.
-                    """;
-            case 6 -> """
-                    📨 Сообщение 2.3: Ранг «Мастер Лектория»
-                    
-                    // ПРИКАЗ О ПОВЫШЕНИИ: ПЕРЕДАЧА ЗНАНИЙ //
-                    Приветствую, Мастер.
-                    Вы достигли вершины исследовательского вектора. Теперь вы не просто копилка знаний — вы их источник. Ваша способность объяснять сложное и вдохновлять на обучение бесценна.
-                    Ваша новая роль: «Мастер Лектория». Вы обучаете новые поколения экипажа, проводите брифинги, делитесь экспертизой. Вы — живая библиотека и наставник Флота.
-                    Вдохновляйте на познание.
-                    """;
-            case 7 -> """
-                    📨 Сообщение 3.1: Ранг «Связист Звёздного Флота»
-                    
-                    // ПОДТВЕРЖДЕНИЕ СПЕЦИАЛИЗАЦИИ: СВЯЗЬ //
-                    Приветствую, Связист.
-                    Вы доказали, что являетесь ключевым узлом в коммуникационной сети Флота. Вы обеспечиваете четкую и своевременную передачу информации между всеми членами экипажа.
-                    Ваша новая роль: «Связист Звёздного Флота». Вы налаживаете мосты между людьми и отделами, предотвращаете помехи в общении. Вы — глас командования и уши команды.
-                    Держите связь открытой.
-                    """;
-            case 8 -> """
-                    📨 Сообщение 3.2: Ранг «Штурман Экипажа»
-                    
-                    // ПОВЫШЕНИЕ СТАТУСА: НАВИГАЦИЯ //
-                    Приветствую, Штурман.
-                    Вы вышли за рамки простого ретранслятора. Теперь вы не просто передаете информацию — вы ведете по ней людей. Вы помогаете команде понять общую цель и их роль в миссии.
-                    Ваша новая роль: «Штурман Экипажа». Вы координируете действия, мотивируете, следите за "курсом" проекта и духом команды. Вы — тактический лидер.
-                    Ведите команду к цели.
-                    """;
-            case 9 -> """
-                    📨 Сообщение 3.3: Ранг «Командир Отряда»
-                    
-                    // ПРИКАЗ О ПОВЫШЕНИИ: КОМАНДОВАНИЕ //
-                    Приветствую, Командир.
-                    Вы достигли вершины лидерского вектора. Вы берете на себя полную ответственность за миссию и людей. Вы принимаете сложные решения и вдохновляете других на свершения.
-                    Ваша новая роль: «Командир Отряда». Вы управляете операциями, распределяете ресурсы, берете на себя роль капитана. От ваших решений зависит успех и безопасность Флота.
-                    Несите ответственность.
-                    """;
-            case 10 -> """
-                    📨 Сообщение Финальное: Ранг «Хранитель Станции «Алабуга.TECH»»
-                    
-                    // ЭКСТРЕННЫЙ ШИФРО-КАНОН С ВЕРХНЕГО КОМАНДОВАНИЯ //
-                    ...ЗАГРУЗКА УРОВНЯ ДОСТУПА "ОМЕГА"...
-                    Внимание, оперативник.
-                    Система зафиксировала уникальное событие. Вы не просто освоили одну ветвь — вы синтезировали в себе силу всех трех векторов Флота: логику Архитектора, мудрость Мастера и волю Командира.
-                    Такой баланс встречается раз в поколение. Вы понимаете, что технологии бессмысленны без знаний, а знания мертвы без команды, способной их применить.
-                    Вам присваивается высший ранг: «Хранитель Станции «Алабуга.TECH»».
-                    Вы — живое воплощение нашей философии. Ваша миссия отныне — поддерживать хрупкий баланс всей нашей экосистемы, быть гарантом ее стабильности и развития.
-                    Поздравляем, Хранитель. Займите свое место в ядре системы.
-                    """;
-            default -> "Неизвестный ранг: " + rank.getName();
-        };
-    }
-
-    // ========== METADATA CREATORS ==========
-
-    private String createRankMetadata(Rank rank) {
-        try {
-            return objectMapper.writeValueAsString(new RankMetadata(rank.getLevel(), rank.getName(), rank.getBranch().name()));
-        } catch (JsonProcessingException e) {
-            return "{\"rankLevel\": " + rank.getLevel() + ", \"rankName\": \"" + rank.getName() + "\"}";
-        }
+        publish(user.getId(), Notification.NotificationType.CARD_ACQUIRED,
+                "СИСТЕМНЫЙ ЖУРНАЛ: КАРТА ПОЛУЧЕНА", NotificationTemplates.CARD_ACQUIRED,
+                new CardMetadata(cardName, seriesName));
     }
 
-    private String createRankPromotionMetadata(Rank oldRank, Rank newRank) {
-        try {
-            return objectMapper.writeValueAsString(new RankPromotionMetadata(
-                    oldRank.getLevel(), oldRank.getName(),
-                    newRank.getLevel(), newRank.getName()
-            ));
-        } catch (JsonProcessingException e) {
-            return "{\"oldRank\": \"" + oldRank.getName() + "\", \"newRank\": \"" + newRank.getName() + "\"}";
-        }
+    /**
+     * Асинхронная запись произвольного уведомления (например, ачивок из tapgame).
+     */
+    public void publishNotification(NotificationCreateDTO dto) {
+        notificationPipeline.publish(dto.getUserId(), () -> dto);
     }
 
-    private String createMissionMetadata(String missionName, Integer experienceReward, Integer energyReward) {
-        try {
-            return objectMapper.writeValueAsString(new MissionMetadata(missionName, experienceReward, energyReward));
-        } catch (JsonProcessingException e) {
-            return "{\"missionName\": \"" + missionName + "\", \"experienceReward\": " + experienceReward + "}";
+    public SseEmitter subscribe(Long userId, Long lastEventId) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("Пользователь", userId);
         }
+        return pushService.subscribe(userId, lastEventId);
     }
 
-    private String createArtifactMetadata(String artifactName, String artifactRarity) {
-        try {
-            return objectMapper.writeValueAsString(new ArtifactMetadata(artifactName, artifactRarity));
-        } catch (JsonProcessingException e) {
-            return "{\"artifactName\": \"" + artifactName + "\", \"artifactRarity\": \"" + artifactRarity + "\"}";
-        }
+    public NotificationPipelineStatsDTO getPipelineStats() {
+        return notificationPipeline.getStats();
     }
 
-    private String createShopPurchaseMetadata(String itemName, Integer price) {
-        try {
-            return objectMapper.writeValueAsString(new ShopPurchaseMetadata(itemName, price));
-        } catch (JsonProcessingException e) {
-            return "{\"itemName\": \"" + itemName + "\", \"price\": " + price + "}";
-        }
+    private void publish(Long userId, Notification.NotificationType type, String title, String templateId, Object parameters) {
+        notificationPipeline.publish(userId, () -> render(userId, type, title, templateId, parameters));
     }
 
-    private String createCardMetadata(String cardName, String seriesName) {
-        try {
-            return objectMapper.writeValueAsString(new CardMetadata(cardName, seriesName));
-        } catch (JsonProcessingException e) {
-            return "{\"cardName\": \"" + cardName + "\", \"seriesName\": \"" + seriesName + "\"}";
-        }
+    private NotificationCreateDTO render(Long userId, Notification.NotificationType type, String title, String templateId,
+                                         Object parameters) {
+        return NotificationCreateDTO.builder()
+                .userId(userId)
+                .title(title)
+                .notificationType(type.getCode())
+                .templateId(templateId)
+                .metadata(objectMapper.valueToTree(parameters).toString())
+                .build();
     }
 
     // ========== PRIVATE RECORDS ==========
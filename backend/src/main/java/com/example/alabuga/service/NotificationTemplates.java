@@ -0,0 +1,273 @@
+package com.example.alabuga.service;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import com.example.alabuga.entity.Rank;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Реестр шаблонов системных уведомлений.
+ * В БД хранится только идентификатор шаблона и параметры (metadata), текст собирается при чтении.
+ * Тексты рангов не зависят от пользователя, поэтому строятся один раз при старте и переиспользуются.
+ */
+@Component
+@Slf4j
+public class NotificationTemplates {
+
+    public static final String RANK_ASSIGNMENT = "RANK_ASSIGNMENT_V1";
+    public static final String RANK_PROMOTION = "RANK_PROMOTION_V1";
+    public static final String MISSION_COMPLETED = "MISSION_COMPLETED_V1";
+    public static final String ARTIFACT_ACQUIRED = "ARTIFACT_ACQUIRED_V1";
+    public static final String SHOP_PURCHASE = "SHOP_PURCHASE_V1";
+    public static final String CARD_ACQUIRED = "CARD_ACQUIRED_V1";
+
+    private final ObjectMapper objectMapper;
+    private final Map<Rank, String> rankSpecificTexts = new EnumMap<>(Rank.class);
+    private final Map<Rank, String> rankAssignmentTexts = new EnumMap<>(Rank.class);
+
+    public NotificationTemplates(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        for (Rank rank : Rank.values()) {
+            rankSpecificTexts.put(rank, generateRankSpecificContent(rank));
+        }
+        for (Rank rank : Rank.values()) {
+            rankAssignmentTexts.put(rank, generateRankAssignmentContent(rank));
+        }
+    }
+
+    /**
+     * Собирает текст уведомления по шаблону и параметрам из metadata.
+     * Возвращает null для неизвестного шаблона или повреждённых параметров.
+     */
+    public String render(String templateId, String metadata) {
+        if (templateId == null || metadata == null) {
+            return null;
+        }
+        JsonNode params;
+        try {
+            params = objectMapper.readTree(metadata);
+        } catch (JsonProcessingException e) {
+            log.warn("Не удалось разобрать параметры шаблона {}: {}", templateId, e.getMessage());
+            return null;
+        }
+        return switch (templateId) {
+            case RANK_ASSIGNMENT -> rankAssignmentTexts.get(Rank.fromLevel(integer(params, "rankLevel")));
+            case RANK_PROMOTION -> generateRankPromotionContent(
+                    Rank.fromLevel(integer(params, "oldRankLevel")), Rank.fromLevel(integer(params, "newRankLevel")));
+            case MISSION_COMPLETED -> generateMissionCompletedContent(
+                    text(params, "missionName"), integer(params, "experienceReward"), integer(params, "energyReward"));
+            case ARTIFACT_ACQUIRED -> generateArtifactAcquiredContent(text(params, "artifactName"), text(params, "rarity"));
+            case SHOP_PURCHASE -> generateShopPurchaseContent(text(params, "itemName"), integer(params, "price"));
+            case CARD_ACQUIRED -> generateCardAcquiredContent(text(params, "cardName"), text(params, "seriesName"));
+            default -> null;
+        };
+    }
+
+    private static String text(JsonNode params, String field) {
+        JsonNode node = params.get(field);
+        return node == null || node.isNull() ? null : node.asText();
+    }
+
+    private static Integer integer(JsonNode params, String field) {
+        JsonNode node = params.get(field);
+        return node == null || node.isNull() ? null : node.asInt();
+    }
+
+    // ========== CONTENT GENERATORS ==========
+
+    private String generateRankAssignmentContent(Rank rank) {
+        if (rank.getLevel() == 0) {
+            return """
+                    📨 Сообщение 0: Статус «Космо-Кадет»
+                    
+                    // АВТОМАТИЧЕСКОЕ УВЕДОМЛЕНИЕ БОРТОВОГО ИИ //
+                    ЗАГРУЗКА ПРОТОКОЛА «СТАРТ»...
+                    Активен новый член экипажа. Распознан чистый потенциал. Вам присвоен базовый ранг «Космо-Кадет».
+                    Ваша задача — общая ориентация в пространстве Флота. Изучайте основы, выполняйте вводные миссии, сканируйте свои врожденные склонности.
+                    Система определит ваш уникальный когнитивный паттерн и предложит путь специализации.
+                    Удачи, Кадет. Пусть звезды светят вам ярче.
+                    """;
+        }
+
+        return generateRankSpecificContent(rank);
+    }
+
+    private String generateRankPromotionContent(Rank oldRank, Rank newRank) {
+        return String.format("""
+                        // ПОВЫШЕНИЕ СТАТУСА //
+                        Поздравляем с повышением!
+                        
+                        Предыдущий ранг: %s (уровень %d)
+                        Новый ранг: %s (уровень %d)
+                        
+                        %s
+                        """,
+                oldRank.getName(), oldRank.getLevel(),
+                newRank.getName(), newRank.getLevel(),
+                rankSpecificTexts.get(newRank)
+        );
+    }
+
+    private String generateMissionCompletedContent(String missionName, Integer experienceReward, Integer energyReward) {
+        return String.format("""
+                        // ОПОВЕЩЕНИЕ СЛУЖБЫ МИССИЙ //
+                        Миссия «%s» успешно завершена.
+                        
+                        Награды:
+                        • Опыт: %d
+                        • Энергия: %d
+                        
+                        Командование довольно результатом операции.
+                        """,
+                missionName, experienceReward, energyReward
+        );
+    }
+
+    private String generateArtifactAcquiredContent(String artifactName, String artifactRarity) {
+        return String.format("""
+                        // СКАНИРОВАНИЕ АРТЕФАКТА //
+                        Обнаружен новый артефакт!
+                        
+                        Название: %s
+                        Редкость: %s
+                        
+                        Артефакт добавлен в вашу коллекцию. Используйте его силу с умом.
+                        """,
+                artifactName, artifactRarity
+        );
+    }
+
+    private String generateShopPurchaseContent(String itemName, Integer price) {
+        return String.format("""
+                        // ТРАНЗАКЦИЯ НЕКСУСА //
+                        Покупка совершена успешно!
+                        
+                        Товар: %s
+                        Стоимость: %d кредитов
+                        
+                        Благодарим за использование торговой системы Нексус.
+                        """,
+                itemName, price
+        );
+    }
+
+    private String generateCardAcquiredContent(String cardName, String seriesName) {
+        return String.format("""
+                        // АКТИВАЦИЯ КАРТЫ //
+                        Получена новая карта!
+                        
+                        Название: %s
+                        Серия: %s
+                        
+                        Карта активирована в вашей коллекции.
+                        """,
+                cardName, seriesName
+        );
+    }
+
+    private String generateRankSpecificContent(Rank rank) {
+        return switch (rank.getLevel()) {
+            case 1 -> """
+                    📨 Сообщение 1.1: Ранг «Навигатор Траекторий»
+                    
+                    // ПОДТВЕРЖДЕНИЕ СПЕЦИАЛИЗАЦИИ: РАСЧЕТ //
+                    Приветствую, Навигатор.
+                    Вы доказали, что видите вселенную как систему гравитационных полей и переменных. Ваш разум — это живой компьютер, способный рассчитать курс сквозь астероидное поле хаоса.
+                    Ваша новая роль: «Навигатор Траекторий». Вы будете прокладывать оптимальные маршруты для проектов и данных. Ваша цель — эффективность и точность.
+                    Не сбивайтесь с курса.
+                    """;
+            case 2 -> """
+                    📨 Сообщение 1.2: Ранг «Аналитик Орбит»
+                    
+                    // ПОВЫШЕНИЕ СТАТУСА: ГЛУБИННЫЙ АНАЛИЗ //
+                    Приветствую, Аналитик.
+                    Вы вышли за рамки простых расчетов. Теперь вы не просто прокладываете курс — вы понимаете фундаментальные законы движения, спрос и потоки информации внутри Флота.
+                    Ваша новая роль: «Аналитик Орбит». Вы изучаете и предсказываете тенденции, находите скрытые закономерности. Вы — тот, кто предвидит проблемы до их появления.
+                    Смотрите в суть.
+                    """;
+            case 3 -> """
+                    📨 Сообщение 1.3: Ранг «Архитектор Станции»
+                    
+                    // ПРИКАЗ О ПОВЫШЕНИИ: КОНСТРУИРОВАНИЕ //
+                    Приветствую, Архитектор.
+                    Вы достигли вершины технического вектора. Теперь вы не анализируете — вы создаете. Вы проектируете сложные архитектурные решения, системы и процессы, которые становятся опорой для всего Флота.
+                    Ваша новая роль: «Архитектор Станции». Вы превращаете хаос в порядок, а идеи — в работающие структуры. От ваших чертежей зависит будущее наших операций.
+                    Стройте на века.
+                    """;
+            case 4 -> """
+                    📨 Сообщение 2.1: Ранг «Хронист Галактики»
+                    
+                    // ПОДТВЕРЖДЕНИЕ СПЕЦИАЛИЗАЦИИ: НАСЛЕДИЕ //
+                    Приветствую, Хронист.
+                    Вы показали, что величайшая ценность Флота — не в технологиях, а в знаниях и историях, которые мы собираем. Ваша задача — фиксировать, систематизировать и сохранять наш опыт.
+                    Ваша новая роль: «Хронист Галактики». Вы превращаете разрозненные данные в нарративы, создаете инструкции, пишете историю наших побед и уроков.
+                    Сохраняйте память.
+                    """;
+            case 5 -> """
+                    📨 Сообщение 2.2: Ранг «Исследователь Культур»
+                    
+                    // ПОВЫШЕНИЕ СТАТУСА: ПОНИМАНИЕ //
+                    Приветствую, Исследователь.
+                    Вы вышли за рамки простого документирования. Вы ищете смыслы. Вы анализируете рынки, тренды, "культуры" отделов и команд, чтобы находить точки роста и инноваций.
+                    Ваша новая роль: «Исследователь Культур». Вы проводите "археологические раскопки" в данных, чтобы найти драгоценные идеи, которые двигают Флот вперед.
+                    Ищите истину.
+                    """;
+            case 6 -> """
+                    📨 Сообщение 2.3: Ранг «Мастер Лектория»
+                    
+                    // ПРИКАЗ О ПОВЫШЕНИИ: ПЕРЕДАЧА ЗНАНИЙ //
+                    Приветствую, Мастер.
+                    Вы достигли вершины исследовательского вектора. Теперь вы не просто копилка знаний — вы их источник. Ваша способность объяснять сложное и вдохновлять на обучение бесценна.
+                    Ваша новая роль: «Мастер Лектория». Вы обучаете новые поколения экипажа, проводите брифинги, делитесь экспертизой. Вы — живая библиотека и наставник Флота.
+                    Вдохновляйте на познание.
+                    """;
+            case 7 -> """
+                    📨 Сообщение 3.1: Ранг «Связист Звёздного Флота»
+                    
+                    // ПОДТВЕРЖДЕНИЕ СПЕЦИАЛИЗАЦИИ: СВЯЗЬ //
+                    Приветствую, Связист.
+                    Вы доказали, что являетесь ключевым узлом в коммуникационной сети Флота. Вы обеспечиваете четкую и своевременную передачу информации между всеми членами экипажа.
+                    Ваша новая роль: «Связист Звёздного Флота». Вы налаживаете мосты между людьми и отделами, предотвращаете помехи в общении. Вы — глас командования и уши команды.
+                    Держите связь открытой.
+                    """;
+            case 8 -> """
+                    📨 Сообщение 3.2: Ранг «Штурман Экипажа»
+                    
+                    // ПОВЫШЕНИЕ СТАТУСА: НАВИГАЦИЯ //
+                    Приветствую, Штурман.
+                    Вы вышли за рамки простого ретранслятора. Теперь вы не просто передаете информацию — вы ведете по ней людей. Вы помогаете команде понять общую цель и их роль в миссии.
+                    Ваша новая роль: «Штурман Экипажа». Вы координируете действия, мотивируете, следите за "курсом" проекта и духом команды. Вы — тактический лидер.
+                    Ведите команду к цели.
+                    """;
+            case 9 -> """
+                    📨 Сообщение 3.3: Ранг «Командир Отряда»
+                    
+                    // ПРИКАЗ О ПОВЫШЕНИИ: КОМАНДОВАНИЕ //
+                    Приветствую, Командир.
+                    Вы достигли вершины лидерского вектора. Вы берете на себя полную ответственность за миссию и людей. Вы принимаете сложные решения и вдохновляете других на свершения.
+                    Ваша новая роль: «Командир Отряда». Вы управляете операциями, распределяете ресурсы, берете на себя роль капитана. От ваших решений зависит успех и безопасность Флота.
+                    Несите ответственность.
+                    """;
+            case 10 -> """
+                    📨 Сообщение Финальное: Ранг «Хранитель Станции «Алабуга.TECH»»
+                    
+                    // ЭКСТРЕННЫЙ ШИФРО-КАНОН С ВЕРХНЕГО КОМАНДОВАНИЯ //
+                    ...ЗАГРУЗКА УРОВНЯ ДОСТУПА "ОМЕГА"...
+                    Внимание, оперативник.
+                    Система зафиксировала уникальное событие. Вы не просто освоили одну ветвь — вы синтезировали в себе силу всех трех векторов Флота: логику Архитектора, мудрость Мастера и волю Командира.
+                    Такой баланс встречается раз в поколение. Вы понимаете, что технологии бессмысленны без знаний, а знания мертвы без команды, способной их применить.
+                    Вам присваивается высший ранг: «Хранитель Станции «Алабуга.TECH»».
+                    Вы — живое воплощение нашей философии. Ваша миссия отныне — поддерживать хрупкий баланс всей нашей экосистемы, быть гарантом ее стабильности и развития.
+                    Поздравляем, Хранитель. Займите свое место в ядре системы.
+                    """;
+            default -> "Неизвестный ранг: " + rank.getName();
+        };
+    }
+}
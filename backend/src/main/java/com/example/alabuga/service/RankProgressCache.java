@@ -0,0 +1,100 @@
+package com.example.alabuga.service;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.alabuga.entity.User;
+import com.example.alabuga.exception.ResourceNotFoundException;
+import com.example.alabuga.repository.UserCompetencyRepository;
+import com.example.alabuga.repository.UserMissionRepository;
+import com.example.alabuga.repository.UserRepository;
+import com.example.alabuga.util.TransactionUtils;
+
+/**
+ * Снимок прогресса пользователя для проверки повышения ранга: ранг, опыт,
+ * завершённые миссии и максимум очков в компетенциях. Строится при первом обращении
+ * тремя короткими запросами и сбрасывается после коммита транзакций, изменивших эти данные.
+ */
+@Component
+public class RankProgressCache {
+
+    /**
+     * completedMissionIds отсортирован, чтобы проверка миссии была бинарным поиском.
+     */
+    public record UserProgress(int rank, int experience, long[] completedMissionIds, int maxCompetencyPoints) {
+
+        public boolean hasCompleted(long missionId) {
+            return Arrays.binarySearch(completedMissionIds, missionId) >= 0;
+        }
+    }
+
+    private final UserRepository userRepository;
+    private final UserMissionRepository userMissionRepository;
+    private final UserCompetencyRepository userCompetencyRepository;
+    private final int maxUsers;
+
+    private final Map<Long, UserProgress> progress = new ConcurrentHashMap<>();
+    // Счётчик сбросов: снимок, прочитанный до сброса, в кэш не попадает
+    private final AtomicLong evictions = new AtomicLong();
+
+    public RankProgressCache(UserRepository userRepository,
+                             UserMissionRepository userMissionRepository,
+                             UserCompetencyRepository userCompetencyRepository,
+                             @Value("${alabuga.ranks.progress-cache-max-users:100000}") int maxUsers) {
+        this.userRepository = userRepository;
+        this.userMissionRepository = userMissionRepository;
+        this.userCompetencyRepository = userCompetencyRepository;
+        this.maxUsers = maxUsers;
+    }
+
+    public UserProgress get(Long userId) {
+        UserProgress cached = progress.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = evictions.get();
+        UserProgress loaded = load(userId);
+        if (progress.size() >= maxUsers) {
+            // Снимки дешёвые: при переполнении проще начать заново, чем вести LRU на каждого пользователя
+            progress.clear();
+        }
+        progress.put(userId, loaded);
+        if (evictions.get() != stamp) {
+            progress.remove(userId, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Снимок прямо из БД в обход кэша (для операций, которые меняют ранг).
+     */
+    public UserProgress load(Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Пользователь", userId));
+        long[] completed = userMissionRepository.findCompletedMissionIdsByUserId(userId).stream()
+                .mapToLong(Long::longValue)
+                .sorted()
+                .toArray();
+        Integer maxPoints = userCompetencyRepository.findMaxExperiencePointsByUserId(userId);
+        return new UserProgress(
+                user.getRank() != null ? user.getRank() : 0,
+                user.getExperience() != null ? user.getExperience() : 0,
+                completed,
+                maxPoints != null ? maxPoints : 0);
+    }
+
+    /**
+     * Сбрасывает снимок пользователя после коммита текущей транзакции (или сразу, если её нет).
+     */
+    public void evict(Long userId) {
+        TransactionUtils.afterCommit(() -> {
+            evictions.incrementAndGet();
+            progress.remove(userId);
+        });
+    }
+}
@@ -0,0 +1,314 @@
+package com.example.alabuga.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.alabuga.dto.RankReevaluationStatusDTO;
+import com.example.alabuga.entity.Rank;
+import com.example.alabuga.entity.RankReevaluationJob;
+import com.example.alabuga.entity.RankReevaluationJob.JobStatus;
+import com.example.alabuga.exception.ResourceNotFoundException;
+import com.example.alabuga.repository.RankReevaluationJobRepository;
+import com.example.alabuga.repository.UserCompetencyRepository;
+import com.example.alabuga.repository.UserMissionRepository;
+import com.example.alabuga.repository.UserRepository;
+import com.example.alabuga.repository.UserRepositoryCustom.RankChange;
+import com.example.alabuga.util.TransactionUtils;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Массовый пересчёт рангов после изменения требований.
+ * Активные пользователи читаются порциями по возрастанию id (keyset), прогресс порции собирается
+ * двумя запросами по диапазону id, требования проверяются в памяти через RankRequirementsIndex,
+ * повышения применяются одним JDBC-пакетом. Порция, её уведомления (пакетная вставка в той же
+ * транзакции, а не асинхронный конвейер) и контрольная точка задания фиксируются одной транзакцией,
+ * поэтому после сбоя задание продолжается с последнего обработанного пользователя без повторных
+ * повышений и уведомлений. Остановка приложения оставляет задание RUNNING, его продолжит следующий
+ * запуск; временные ошибки БД повторяются с задержкой, FAILED ставится только после исчерпания повторов
+ * или при постоянной ошибке.
+ */
+@Service
+@Slf4j
+public class RankReevaluationService {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final int MAX_REASON_LENGTH = 200;
+
+    private final RankReevaluationJobRepository jobRepository;
+    private final UserRepository userRepository;
+    private final UserMissionRepository userMissionRepository;
+    private final UserCompetencyRepository userCompetencyRepository;
+    private final RankRequirementsIndex rankRequirementsIndex;
+    private final RankProgressCache rankProgressCache;
+    private final NotificationService notificationService;
+    private final LeaderboardService leaderboardService;
+    private final TransactionTemplate transactionTemplate;
+
+    // Один поток: задания выполняются по очереди и не повышают одних и тех же пользователей одновременно
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rank-reevaluation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${alabuga.ranks.reevaluation.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${alabuga.ranks.reevaluation.on-requirements-change:true}")
+    private boolean onRequirementsChange;
+
+    @Value("${alabuga.ranks.reevaluation.max-retries:5}")
+    private int maxRetries;
+
+    @Value("${alabuga.ranks.reevaluation.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+
+    private volatile boolean stopping;
+
+    public RankReevaluationService(RankReevaluationJobRepository jobRepository,
+                                   UserRepository userRepository,
+                                   UserMissionRepository userMissionRepository,
+                                   UserCompetencyRepository userCompetencyRepository,
+                                   RankRequirementsIndex rankRequirementsIndex,
+                                   RankProgressCache rankProgressCache,
+                                   NotificationService notificationService,
+                                   LeaderboardService leaderboardService,
+                                   PlatformTransactionManager transactionManager) {
+        this.jobRepository = jobRepository;
+        this.userRepository = userRepository;
+        this.userMissionRepository = userMissionRepository;
+        this.userCompetencyRepository = userCompetencyRepository;
+        this.rankRequirementsIndex = rankRequirementsIndex;
+        this.rankProgressCache = rankProgressCache;
+        this.notificationService = notificationService;
+        this.leaderboardService = leaderboardService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Продолжает задания, прерванные остановкой приложения, с их контрольных точек.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinished() {
+        for (RankReevaluationJob job : jobRepository.findByStatusInOrderByIdAsc(List.of(JobStatus.PENDING, JobStatus.RUNNING))) {
+            log.info("Пересчёт рангов {}: продолжение с пользователя {}", job.getId(), job.getLastUserId());
+            executor.submit(() -> run(job.getId()));
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopping = true;
+        executor.shutdownNow();
+    }
+
+    /**
+     * Ставит пересчёт в очередь после коммита текущей транзакции. Если уже есть ожидающее задание,
+     * возвращается оно: стартовав позже, оно и так проверит всех по актуальным требованиям.
+     */
+    @Transactional
+    public RankReevaluationStatusDTO requestReevaluation(String reason) {
+        List<RankReevaluationJob> pending = jobRepository.findByStatusInOrderByIdAsc(List.of(JobStatus.PENDING));
+        if (!pending.isEmpty()) {
+            return toDTO(pending.get(0));
+        }
+        RankReevaluationJob job = jobRepository.saveAndFlush(RankReevaluationJob.builder()
+                .status(JobStatus.PENDING)
+                .triggerReason(truncate(reason, MAX_REASON_LENGTH))
+                .build());
+        Long jobId = job.getId();
+        TransactionUtils.afterCommit(() -> executor.submit(() -> run(jobId)));
+        return toDTO(job);
+    }
+
+    /**
+     * Вызывается при изменении требований ранга; запуск отключается alabuga.ranks.reevaluation.on-requirements-change.
+     */
+    public void onRequirementsChanged(Integer rankLevel) {
+        if (onRequirementsChange) {
+            requestReevaluation("Изменены требования ранга уровня " + rankLevel);
+        }
+    }
+
+    public RankReevaluationStatusDTO getStatus(Long jobId) {
+        return jobRepository.findById(jobId)
+                .map(this::toDTO)
+                .orElseThrow(() -> new ResourceNotFoundException("Задание пересчёта рангов", jobId));
+    }
+
+    public RankReevaluationStatusDTO getLatestStatus() {
+        return jobRepository.findTopByOrderByIdDesc()
+                .map(this::toDTO)
+                .orElseThrow(() -> new ResourceNotFoundException("Задание пересчёта рангов не найдено"));
+    }
+
+    // ========== PRIVATE METHODS ==========
+
+    private record ChunkResult(int processed, int promoted) {
+    }
+
+    private void run(Long jobId) {
+        RankReevaluationJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus() == JobStatus.COMPLETED || job.getStatus() == JobStatus.FAILED) {
+            return;
+        }
+        if (job.getStartedAt() == null) {
+            job.setStartedAt(LocalDateTime.now());
+        }
+        job.setStatus(JobStatus.RUNNING);
+        jobRepository.save(job);
+
+        int failures = 0;
+        while (!isStopped()) {
+            try {
+                ChunkResult result = transactionTemplate.execute(status -> processChunk(jobId));
+                failures = 0;
+                if (result == null || result.processed() == 0) {
+                    finish(jobId, JobStatus.COMPLETED, null);
+                    return;
+                }
+            } catch (RuntimeException e) {
+                // Порция откатилась целиком, повтор начнётся с той же контрольной точки
+                if (isStopped()) {
+                    break;
+                }
+                if (!isTransient(e) || ++failures > maxRetries) {
+                    log.error("Пересчёт рангов {} прерван", jobId, e);
+                    finish(jobId, JobStatus.FAILED, e.getMessage());
+                    return;
+                }
+                long delayMs = retryBackoffMs << Math.min(failures - 1, 10);
+                log.warn("Пересчёт рангов {}: временная ошибка, повтор {} из {} через {} мс: {}",
+                        jobId, failures, maxRetries, delayMs, e.getMessage());
+                try {
+                    Thread.sleep(delayMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        log.info("Пересчёт рангов {} остановлен вместе с приложением, продолжится с пользователя после {}",
+                jobId, jobRepository.findById(jobId).map(RankReevaluationJob::getLastUserId).orElse(null));
+    }
+
+    private boolean isStopped() {
+        return stopping || Thread.currentThread().isInterrupted();
+    }
+
+    private static boolean isTransient(Throwable error) {
+        return error instanceof TransientDataAccessException
+                || error instanceof RecoverableDataAccessException
+                || error instanceof CannotCreateTransactionException;
+    }
+
+    private ChunkResult processChunk(Long jobId) {
+        long startedAt = System.nanoTime();
+        RankReevaluationJob job = jobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Задание пересчёта рангов", jobId));
+
+        List<Object[]> users = userRepository.findRankSnapshotsAfter(job.getLastUserId(), PageRequest.of(0, chunkSize));
+        if (users.isEmpty()) {
+            return new ChunkResult(0, 0);
+        }
+        Long fromUserId = (Long) users.get(0)[0];
+        Long toUserId = (Long) users.get(users.size() - 1)[0];
+
+        Map<Long, List<Long>> completedMissions = new HashMap<>();
+        for (Object[] row : userMissionRepository.findCompletedMissionIdsByUserIdBetween(fromUserId, toUserId)) {
+            completedMissions.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((Long) row[1]);
+        }
+        Map<Long, Integer> maxPoints = new HashMap<>();
+        for (Object[] row : userCompetencyRepository.findMaxExperiencePointsByUserIdBetween(fromUserId, toUserId)) {
+            maxPoints.put((Long) row[0], row[1] != null ? ((Number) row[1]).intValue() : 0);
+        }
+
+        List<RankChange> changes = new ArrayList<>();
+        for (Object[] row : users) {
+            Long userId = (Long) row[0];
+            int rank = row[1] != null ? ((Number) row[1]).intValue() : 0;
+            int experience = row[2] != null ? ((Number) row[2]).intValue() : 0;
+            long[] completed = completedMissions.getOrDefault(userId, List.of()).stream()
+                    .mapToLong(Long::longValue)
+                    .sorted()
+                    .toArray();
+            RankProgressCache.UserProgress progress = new RankProgressCache.UserProgress(
+                    rank, experience, completed, maxPoints.getOrDefault(userId, 0));
+            int target = rankRequirementsIndex.reachableLevel(progress);
+            if (target > Rank.fromLevel(rank).getLevel()) {
+                changes.add(new RankChange(userId, rank, target));
+            }
+        }
+
+        List<RankChange> promoted = new ArrayList<>(changes.size());
+        int[] updated = userRepository.updateRanks(changes);
+        for (int i = 0; i < changes.size(); i++) {
+            // 0 — ранг пользователя успели изменить параллельно, его повышение пропускаем
+            if (updated[i] == 0) {
+                continue;
+            }
+            RankChange change = changes.get(i);
+            rankProgressCache.evict(change.userId());
+            leaderboardService.onUserChanged(change.userId());
+            promoted.add(change);
+        }
+        notificationService.createRankPromotionNotifications(promoted);
+
+        job.setLastUserId(toUserId);
+        job.setProcessedUsers(job.getProcessedUsers() + users.size());
+        job.setPromotedUsers(job.getPromotedUsers() + promoted.size());
+        job.setActiveMillis(job.getActiveMillis() + (System.nanoTime() - startedAt) / 1_000_000);
+        jobRepository.save(job);
+        return new ChunkResult(users.size(), promoted.size());
+    }
+
+    private void finish(Long jobId, JobStatus status, String error) {
+        jobRepository.findById(jobId).ifPresent(job -> {
+            job.setStatus(status);
+            job.setFinishedAt(LocalDateTime.now());
+            job.setError(truncate(error, MAX_ERROR_LENGTH));
+            jobRepository.save(job);
+            log.info("Пересчёт рангов {} {}: проверено {}, повышено {} за {} мс", job.getId(), status,
+                    job.getProcessedUsers(), job.getPromotedUsers(), job.getActiveMillis());
+        });
+    }
+
+    private RankReevaluationStatusDTO toDTO(RankReevaluationJob job) {
+        long activeMillis = Math.max(job.getActiveMillis(), 1);
+        return RankReevaluationStatusDTO.builder()
+                .jobId(job.getId())
+                .status(job.getStatus())
+                .triggerReason(job.getTriggerReason())
+                .lastUserId(job.getLastUserId())
+                .processedUsers(job.getProcessedUsers())
+                .promotedUsers(job.getPromotedUsers())
+                .usersPerSecond(job.getProcessedUsers() * 1000.0 / activeMillis)
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .error(job.getError())
+                .build();
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+}
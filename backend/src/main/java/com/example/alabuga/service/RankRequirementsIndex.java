@@ -0,0 +1,116 @@
+package com.example.alabuga.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import com.example.alabuga.entity.Rank;
+import com.example.alabuga.entity.RankRequirements;
+import com.example.alabuga.repository.MissionRepository;
+import com.example.alabuga.repository.RankRequirementsRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Требования рангов, подготовленные для проверки в памяти: обязательная миссия уже сопоставлена
+ * с ID миссий по названию. Пересобирается при смене версии справочников рангов или миссий.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class RankRequirementsIndex {
+
+    private final RankRequirementsRepository rankRequirementsRepository;
+    private final MissionRepository missionRepository;
+    private final CatalogCache catalogCache;
+
+    private volatile Compiled compiled;
+
+    /**
+     * Требования ранга. Пустой requiredMissionIds при заданном названии означает,
+     * что такой миссии нет и требование невыполнимо.
+     */
+    public record Requirement(boolean active, int requiredExperience, boolean missionRequired,
+                              long[] requiredMissionIds, int requiredCompetencyPoints) {
+
+        public boolean isSatisfiedBy(RankProgressCache.UserProgress progress) {
+            if (progress.experience() < requiredExperience) {
+                return false;
+            }
+            if (missionRequired) {
+                boolean missionCompleted = false;
+                for (long missionId : requiredMissionIds) {
+                    if (progress.hasCompleted(missionId)) {
+                        missionCompleted = true;
+                        break;
+                    }
+                }
+                if (!missionCompleted) {
+                    return false;
+                }
+            }
+            return requiredCompetencyPoints <= 0 || progress.maxCompetencyPoints() >= requiredCompetencyPoints;
+        }
+    }
+
+    private record Compiled(long ranksVersion, long missionsVersion, Map<Integer, Requirement> byLevel) {
+    }
+
+    /**
+     * Требования для уровня ранга или null, если их нет.
+     */
+    public Requirement forLevel(int rankLevel) {
+        return byLevel().get(rankLevel);
+    }
+
+    /**
+     * Наивысший уровень, до которого пользователя можно последовательно повысить по текущему прогрессу.
+     * Совпадает с текущим уровнем, если повышать некуда.
+     */
+    public int reachableLevel(RankProgressCache.UserProgress progress) {
+        Map<Integer, Requirement> byLevel = byLevel();
+        int level = Rank.fromLevel(progress.rank()).getLevel();
+        while (level < Rank.STATION_KEEPER.getLevel()) {
+            Requirement requirement = byLevel.get(level + 1);
+            if (requirement == null || !requirement.active() || !requirement.isSatisfiedBy(progress)) {
+                break;
+            }
+            level++;
+        }
+        return level;
+    }
+
+    private Map<Integer, Requirement> byLevel() {
+        long ranksVersion = catalogCache.version(CatalogCache.Section.RANKS);
+        long missionsVersion = catalogCache.version(CatalogCache.Section.MISSIONS);
+        Compiled current = compiled;
+        if (current != null && current.ranksVersion() == ranksVersion && current.missionsVersion() == missionsVersion) {
+            return current.byLevel();
+        }
+        Map<Integer, Requirement> byLevel = new HashMap<>();
+        for (RankRequirements requirements : rankRequirementsRepository.findAll(Sort.by("id"))) {
+            if (byLevel.containsKey(requirements.getRankLevel())) {
+                // findByRankLevel рассчитан на одну запись на уровень; остальные дубликаты не участвуют
+                log.warn("Несколько требований для ранга уровня {}, используется запись с меньшим ID", requirements.getRankLevel());
+                continue;
+            }
+            String missionName = requirements.getRequiredMissionName();
+            boolean missionRequired = missionName != null && !missionName.isEmpty();
+            long[] missionIds = missionRequired
+                    ? missionRepository.findIdsByName(missionName).stream().mapToLong(Long::longValue).toArray()
+                    : new long[0];
+            byLevel.put(requirements.getRankLevel(), new Requirement(
+                    Boolean.TRUE.equals(requirements.getIsActive()),
+                    requirements.getRequiredExperience() != null ? requirements.getRequiredExperience() : 0,
+                    missionRequired,
+                    missionIds,
+                    requirements.getRequiredCompetencyPoints() != null ? requirements.getRequiredCompetencyPoints() : 0));
+        }
+        // Версии взяты до чтения: если справочник изменился во время сборки, следующий вызов соберёт заново
+        compiled = new Compiled(ranksVersion, missionsVersion, byLevel);
+        return byLevel;
+    }
+}
@@ -1,7 +1,6 @@
 package com.example.alabuga.service;
 
 import java.util.List;
-import java.util.Optional;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -13,13 +12,10 @@ import com.example.alabuga.dto.RankRequirementsUpdateDTO;
 import com.example.alabuga.entity.Rank;
 import com.example.alabuga.entity.RankRequirements;
 import com.example.alabuga.entity.User;
-import com.example.alabuga.entity.UserCompetency;
 import com.example.alabuga.exception.BusinessLogicException;
 import com.example.alabuga.exception.ResourceNotFoundException;
 import com.example.alabuga.mapper.RankMapper;
 import com.example.alabuga.repository.RankRequirementsRepository;
-import com.example.alabuga.repository.UserCompetencyRepository;
-import com.example.alabuga.repository.UserMissionRepository;
 import com.example.alabuga.repository.UserRepository;
 
 import lombok.RequiredArgsConstructor;
@@ -30,10 +26,12 @@ public class RankService {
     
     private final RankRequirementsRepository rankRequirementsRepository;
     private final UserRepository userRepository;
-    private final UserCompetencyRepository userCompetencyRepository;
-    private final UserMissionRepository userMissionRepository;
     private final RankMapper rankMapper;
     private final NotificationService notificationService;
+    private final CatalogCache catalogCache;
+    private final RankProgressCache rankProgressCache;
+    private final RankRequirementsIndex rankRequirementsIndex;
+    private final RankReevaluationService rankReevaluationService;
     
     // ========== RANK MANAGEMENT ==========
     
@@ -58,13 +56,13 @@ public class RankService {
     // ========== RANK REQUIREMENTS MANAGEMENT ==========
     
     public List<RankRequirementsDTO> getAllRankRequirements() {
-        List<RankRequirements> requirements = rankRequirementsRepository.findAll();
-        return rankMapper.toRequirementsDTOList(requirements);
+        return catalogCache.get(CatalogCache.Section.RANKS, "all",
+                () -> rankMapper.toRequirementsDTOList(rankRequirementsRepository.findAll()));
     }
     
     public List<RankRequirementsDTO> getActiveRankRequirements() {
-        List<RankRequirements> requirements = rankRequirementsRepository.findByIsActive(true);
-        return rankMapper.toRequirementsDTOList(requirements);
+        return catalogCache.get(CatalogCache.Section.RANKS, "active",
+                () -> rankMapper.toRequirementsDTOList(rankRequirementsRepository.findByIsActive(true)));
     }
     
     public RankRequirementsDTO getRankRequirementsByLevel(Integer rankLevel) {
@@ -82,6 +80,8 @@ public class RankService {
         
         RankRequirements requirements = rankMapper.toEntity(dto);
         RankRequirements savedRequirements = rankRequirementsRepository.save(requirements);
+        catalogCache.invalidate(CatalogCache.Section.RANKS);
+        rankReevaluationService.onRequirementsChanged(savedRequirements.getRankLevel());
         return rankMapper.toDTO(savedRequirements);
     }
     
@@ -92,6 +92,8 @@ public class RankService {
         
         rankMapper.updateEntity(requirements, dto);
         RankRequirements savedRequirements = rankRequirementsRepository.save(requirements);
+        catalogCache.invalidate(CatalogCache.Section.RANKS);
+        rankReevaluationService.onRequirementsChanged(savedRequirements.getRankLevel());
         return rankMapper.toDTO(savedRequirements);
     }
     
@@ -101,6 +103,7 @@ public class RankService {
                 .orElseThrow(() -> new ResourceNotFoundException("Требования ранга", id));
         
         rankRequirementsRepository.delete(requirements);
+        catalogCache.invalidate(CatalogCache.Section.RANKS);
     }
     
     // ========== RANK PROMOTION ==========
@@ -120,21 +123,24 @@ public class RankService {
         }
         
         // Проверяем требования для следующего ранга
-        RankRequirements requirements = rankRequirementsRepository.findByRankLevel(nextRank.getLevel())
-                .orElseThrow(() -> new ResourceNotFoundException("Требования для ранга", nextRank.getLevel()));
+        RankRequirementsIndex.Requirement requirement = rankRequirementsIndex.forLevel(nextRank.getLevel());
+        if (requirement == null) {
+            throw new ResourceNotFoundException("Требования для ранга", nextRank.getLevel());
+        }
         
-        if (!requirements.getIsActive()) {
+        if (!requirement.active()) {
             throw new BusinessLogicException("Требования для ранга " + nextRank.getName() + " неактивны");
         }
         
-        // Проверяем выполнение требований
-        if (!checkRankRequirements(user, requirements)) {
+        // Проверяем выполнение требований по свежему снимку, а не по кэшу
+        if (!requirement.isSatisfiedBy(rankProgressCache.load(userId))) {
             throw new BusinessLogicException("Пользователь не выполнил требования для повышения до ранга " + nextRank.getName());
         }
         
         // Повышаем ранг
         user.setRank(nextRank.getLevel());
         User savedUser = userRepository.save(user);
+        rankProgressCache.evict(userId);
         
         // Создаем уведомление о повышении ранга
         notificationService.createRankPromotionNotification(savedUser, currentRank, nextRank);
@@ -142,28 +148,26 @@ public class RankService {
         return savedUser;
     }
     
+    /**
+     * Проверка по кэшированному снимку прогресса: без запросов к БД, пока снимок пользователя
+     * и справочник требований не менялись.
+     */
     public boolean checkUserCanBePromoted(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Пользователь", userId));
+        RankProgressCache.UserProgress progress = rankProgressCache.get(userId);
         
-        Rank currentRank = Rank.fromLevel(user.getRank());
+        Rank currentRank = Rank.fromLevel(progress.rank());
         Rank nextRank = getNextRank(currentRank);
         
         if (nextRank == null) {
             return false; // Уже максимальный ранг
         }
         
-        Optional<RankRequirements> requirementsOpt = rankRequirementsRepository.findByRankLevel(nextRank.getLevel());
-        if (requirementsOpt.isEmpty()) {
-            return false; // Нет требований для следующего ранга
+        RankRequirementsIndex.Requirement requirement = rankRequirementsIndex.forLevel(nextRank.getLevel());
+        if (requirement == null || !requirement.active()) {
+            return false; // Нет требований для следующего ранга или они неактивны
         }
         
-        RankRequirements requirements = requirementsOpt.get();
-        if (!requirements.getIsActive()) {
-            return false; // Требования неактивны
-        }
-        
-        return checkRankRequirements(user, requirements);
+        return requirement.isSatisfiedBy(progress);
     }
     
     private Rank getNextRank(Rank currentRank) {
@@ -178,39 +182,4 @@ public class RankService {
         
         return Rank.fromLevel(nextLevel);
     }
-    
-    private boolean checkRankRequirements(User user, RankRequirements requirements) {
-        // Проверяем опыт
-        if (user.getExperience() < requirements.getRequiredExperience()) {
-            return false;
-        }
-        
-        // Проверяем обязательную миссию
-        if (requirements.getRequiredMissionName() != null && !requirements.getRequiredMissionName().isEmpty()) {
-            boolean missionCompleted = userMissionRepository.findByUserId(user.getId())
-                    .stream()
-                    .anyMatch(userMission -> 
-                        userMission.getMission().getName().equals(requirements.getRequiredMissionName()) &&
-                        userMission.getStatus().name().equals("COMPLETED"));
-            
-            if (!missionCompleted) {
-                return false;
-            }
-        }
-        
-        // Проверяем очки в компетенциях
-        if (requirements.getRequiredCompetencyPoints() != null && requirements.getRequiredCompetencyPoints() > 0) {
-            List<UserCompetency> userCompetencies = userCompetencyRepository.findByUserId(user.getId());
-            
-            // Проверяем, есть ли компетенции с достаточным количеством очков
-            boolean hasEnoughPoints = userCompetencies.stream()
-                    .anyMatch(uc -> uc.getExperiencePoints() >= requirements.getRequiredCompetencyPoints());
-            
-            if (!hasEnoughPoints) {
-                return false;
-            }
-        }
-        
-        return true;
-    }
 }
@@ -1,6 +1,8 @@
 package com.example.alabuga.service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -8,8 +10,11 @@ import org.springframework.transaction.annotation.Transactional;
 import com.example.alabuga.dto.PurchaseDTO;
 import com.example.alabuga.dto.ShopItemCreateDTO;
 import com.example.alabuga.dto.ShopItemDTO;
+import com.example.alabuga.dto.ShopItemStockDTO;
 import com.example.alabuga.dto.ShopItemUpdateDTO;
+import com.example.alabuga.dto.ShopPurchaseStatsDTO;
 import com.example.alabuga.dto.UserPurchaseDTO;
+import com.example.alabuga.entity.EnergyTransactionType;
 import com.example.alabuga.entity.ShopItem;
 import com.example.alabuga.entity.User;
 import com.example.alabuga.entity.UserPurchase;
@@ -33,15 +38,40 @@ public class ShopService {
     private final ShopItemMapper shopItemMapper;
     private final UserPurchaseMapper userPurchaseMapper;
     private final NotificationService notificationService;
+    private final EnergyLedgerService energyLedgerService;
+    private final CatalogCache catalogCache;
     
+    // Счётчики пути покупки для оценки пропускной способности под нагрузкой
+    private final LongAdder purchaseAttempts = new LongAdder();
+    private final LongAdder purchasesCompleted = new LongAdder();
+    private final LongAdder purchasesRejected = new LongAdder();
+    private final LongAdder purchasesSoldOut = new LongAdder();
+    private final LongAdder purchaseLatencyNanos = new LongAdder();
+    private final long statsStartedAt = System.nanoTime();
+    
+    // Каталог кэшируется без остатков: покупка меняет только остаток и не сбрасывает раздел.
+    // Текущие остатки отдаёт getStock
     public List<ShopItemDTO> getAllShopItems() {
-        List<ShopItem> shopItems = shopItemRepository.findAll();
-        return shopItemMapper.toDTOList(shopItems);
+        return catalogCache.get(CatalogCache.Section.SHOP, "all",
+                () -> withoutStock(shopItemRepository.findAll()));
     }
     
+    // Распроданный товар пропадает из списка: последняя единица сбрасывает раздел
     public List<ShopItemDTO> getAvailableItems() {
-        List<ShopItem> shopItems = shopItemRepository.findAvailableItems();
-        return shopItemMapper.toDTOList(shopItems);
+        return catalogCache.get(CatalogCache.Section.SHOP, "available",
+                () -> withoutStock(shopItemRepository.findAvailableItems()));
+    }
+    
+    public List<ShopItemStockDTO> getStock() {
+        List<Object[]> rows = shopItemRepository.findStockQuantities();
+        List<ShopItemStockDTO> stock = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            stock.add(ShopItemStockDTO.builder()
+                    .shopItemId((Long) row[0])
+                    .stockQuantity((Integer) row[1])
+                    .build());
+        }
+        return stock;
     }
     
     
@@ -64,6 +94,7 @@ public class ShopService {
         
         ShopItem shopItem = shopItemMapper.toEntity(shopItemCreateDTO);
         ShopItem savedShopItem = shopItemRepository.save(shopItem);
+        catalogCache.invalidate(CatalogCache.Section.SHOP);
         return shopItemMapper.toDTO(savedShopItem);
     }
     
@@ -79,6 +110,7 @@ public class ShopService {
         
         shopItemMapper.updateEntity(shopItem, shopItemUpdateDTO);
         ShopItem savedShopItem = shopItemRepository.save(shopItem);
+        catalogCache.invalidate(CatalogCache.Section.SHOP);
         return shopItemMapper.toDTO(savedShopItem);
     }
     
@@ -88,6 +120,7 @@ public class ShopService {
                 .orElseThrow(() -> new ResourceNotFoundException("Товар", id));
         
         shopItemRepository.delete(shopItem);
+        catalogCache.invalidate(CatalogCache.Section.SHOP);
     }
     
     @Transactional
@@ -97,11 +130,47 @@ public class ShopService {
         
         shopItem.setIsActive(!shopItem.getIsActive());
         ShopItem savedShopItem = shopItemRepository.save(shopItem);
+        catalogCache.invalidate(CatalogCache.Section.SHOP);
         return shopItemMapper.toDTO(savedShopItem);
     }
     
+    /**
+     * Покупка без чтения-изменения-записи: Энергоны и склад списываются условными UPDATE,
+     * поэтому одновременные покупатели не могут уйти в минус ни по балансу, ни по остатку.
+     * Склад списывается последним, чтобы блокировка строки популярного товара держалась
+     * только до коммита, а не всё время покупки.
+     */
     @Transactional
     public PurchaseDTO purchaseItem(Long userId, Long shopItemId) {
+        long startedAt = System.nanoTime();
+        purchaseAttempts.increment();
+        try {
+            PurchaseDTO purchase = doPurchase(userId, shopItemId);
+            purchasesCompleted.increment();
+            return purchase;
+        } catch (BusinessLogicException e) {
+            purchasesRejected.increment();
+            throw e;
+        } finally {
+            purchaseLatencyNanos.add(System.nanoTime() - startedAt);
+        }
+    }
+    
+    public ShopPurchaseStatsDTO getPurchaseStats() {
+        long attempts = purchaseAttempts.sum();
+        long completed = purchasesCompleted.sum();
+        double uptimeSeconds = Math.max((System.nanoTime() - statsStartedAt) / 1_000_000_000.0, 1e-3);
+        return ShopPurchaseStatsDTO.builder()
+                .attempts(attempts)
+                .completed(completed)
+                .rejected(purchasesRejected.sum())
+                .soldOut(purchasesSoldOut.sum())
+                .averageLatencyMs(attempts == 0 ? 0 : purchaseLatencyNanos.sum() / 1_000_000.0 / attempts)
+                .completedPerSecond(completed / uptimeSeconds)
+                .build();
+    }
+    
+    private PurchaseDTO doPurchase(Long userId, Long shopItemId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Пользователь", userId));
         
@@ -113,25 +182,14 @@ public class ShopService {
             throw new BusinessLogicException("Товар недоступен для покупки");
         }
         
-        // Проверяем наличие на складе
+        // Быстрый отказ по прочитанному остатку; окончательно решает условный UPDATE ниже
         if (shopItem.getStockQuantity() != null && shopItem.getStockQuantity() <= 0) {
+            purchasesSoldOut.increment();
             throw new BusinessLogicException("Товар закончился на складе");
         }
         
-        // Проверяем, достаточно ли Энергонов
-        if (user.getEnergy() < shopItem.getPrice()) {
-            throw new BusinessLogicException("Недостаточно Энергонов для покупки");
-        }
-        
-        // Списываем Энергоны
-        user.setEnergy(user.getEnergy() - shopItem.getPrice());
-        userRepository.save(user);
-        
-        // Уменьшаем количество на складе
-        if (shopItem.getStockQuantity() != null) {
-            shopItem.setStockQuantity(shopItem.getStockQuantity() - 1);
-            shopItemRepository.save(shopItem);
-        }
+        // Списываем Энергоны условным UPDATE: при нехватке средств покупка откатывается
+        int energyAfter = energyLedgerService.debit(user, shopItem.getPrice(), EnergyTransactionType.PURCHASE, shopItem.getId());
         
         // Сохраняем покупку в историю
         UserPurchase userPurchase = UserPurchase.builder()
@@ -139,18 +197,29 @@ public class ShopService {
                 .shopItem(shopItem)
                 .purchasedAt(java.time.LocalDateTime.now())
                 .pricePaid(shopItem.getPrice())
-                .energyAfter(user.getEnergy())
+                .energyAfter(energyAfter)
                 .build();
         userPurchaseRepository.save(userPurchase);
         
         // Создаем уведомление о покупке
         notificationService.createShopPurchaseNotification(user, shopItem.getName(), shopItem.getPrice());
         
+        // Уменьшаем количество на складе; если другой покупатель забрал последнюю единицу, транзакция откатится целиком
+        if (shopItem.getStockQuantity() != null && shopItemRepository.decrementStock(shopItemId) == 0) {
+            purchasesSoldOut.increment();
+            throw new BusinessLogicException("Товар закончился на складе");
+        }
+        // Строка товара заблокирована нашим UPDATE, поэтому остаток точный. Каталог меняется,
+        // только когда товар распродан: он уходит из списка доступных
+        if (shopItem.getStockQuantity() != null && shopItemRepository.findStockQuantityById(shopItemId) == 0) {
+            catalogCache.invalidate(CatalogCache.Section.SHOP);
+        }
+        
         // Формируем сообщение подтверждения
         String confirmationMessage = String.format(
             "Товар «%s» добавлен. Остаток: %d энергонов", 
             shopItem.getName(), 
-            user.getEnergy()
+            energyAfter
         );
         
         return PurchaseDTO.builder()
@@ -159,7 +228,7 @@ public class ShopService {
                 .price(shopItem.getPrice())
                 .userId(user.getId())
                 .userName(user.getFirstName() + " " + user.getLastName())
-                .remainingEnergy(user.getEnergy())
+                .remainingEnergy(energyAfter)
                 .confirmationMessage(confirmationMessage)
                 .build();
     }
@@ -169,4 +238,10 @@ public class ShopService {
         return userPurchaseMapper.toDTOList(purchases);
     }
     
+    private List<ShopItemDTO> withoutStock(List<ShopItem> shopItems) {
+        List<ShopItemDTO> dtos = shopItemMapper.toDTOList(shopItems);
+        dtos.forEach(dto -> dto.setStockQuantity(null));
+        return dtos;
+    }
+    
 }
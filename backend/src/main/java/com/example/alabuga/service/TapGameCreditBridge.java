@@ -0,0 +1,70 @@
+package com.example.alabuga.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.alabuga.dto.NotificationCreateDTO;
+import com.example.alabuga.entity.EnergyTransactionType;
+import com.example.alabuga.entity.Notification;
+import com.example.alabuga.exception.ResourceNotFoundException;
+
+import lombok.extern.slf4j.Slf4j;
+import tapgame.integration.PlatformTransport;
+
+/**
+ * Доставка событий tapgame напрямую в журнал Энергонов, когда игра запущена внутри AlabugaApplication.
+ * Начисление записывается в журнал синхронно: отправка считается успешной только после коммита,
+ * а ошибка уходит в PlatformDeliveryService и проходит через повторы и dead-letter.
+ * Суммирование начислений пользователя делает очередь доставки, поэтому на отправку приходится одна запись журнала.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "tapgame.platform.transport", havingValue = "in-process")
+public class TapGameCreditBridge implements PlatformTransport {
+
+    private final EnergyLedgerService energyLedgerService;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+
+    public TapGameCreditBridge(EnergyLedgerService energyLedgerService,
+                               NotificationService notificationService,
+                               PlatformTransactionManager transactionManager) {
+        this.energyLedgerService = energyLedgerService;
+        this.notificationService = notificationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void postCredits(Long userId, long credits) {
+        if (credits <= 0) {
+            return;
+        }
+        try {
+            // Баланс хранится в Integer: сумма больше Integer.MAX_VALUE пишется частями в одной транзакции
+            transactionTemplate.executeWithoutResult(status -> {
+                long left = credits;
+                while (left > 0) {
+                    int portion = (int) Math.min(Integer.MAX_VALUE, left);
+                    energyLedgerService.credit(userId, portion, EnergyTransactionType.TAP_CREDIT, null);
+                    left -= portion;
+                }
+            });
+        } catch (ResourceNotFoundException e) {
+            // Повтор не поможет: подтверждаем отправку, чтобы событие не копилось в dead-letter
+            log.warn("Начисление из tapgame для несуществующего пользователя {} отброшено", userId);
+        }
+    }
+
+    @Override
+    public void postAchievement(Long userId, String achievement) {
+        NotificationCreateDTO dto = NotificationCreateDTO.builder()
+                .userId(userId)
+                .title("СИСТЕМНЫЙ ЖУРНАЛ: ДОСТИЖЕНИЕ В ИГРЕ")
+                .content(achievement)
+                .notificationType(Notification.NotificationType.ACHIEVEMENT.getCode())
+                .build();
+        notificationService.publishNotification(dto);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.alabuga.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.alabuga.repository.NotificationRepository;
+import com.example.alabuga.util.TransactionUtils;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Счётчик непрочитанных уведомлений в памяти.
+ * Значение пользователя загружается из БД при первом запросе, дальше меняется
+ * инкрементально после коммита создания, прочтения и удаления уведомлений.
+ * Редкие расхождения (гонка первой загрузки с записью) исправляет периодическая сверка.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class UnreadNotificationCounter {
+    
+    private static final int RECONCILE_CHUNK = 500;
+    
+    private final NotificationRepository notificationRepository;
+    
+    private final ConcurrentHashMap<Long, AtomicLong> counters = new ConcurrentHashMap<>();
+    
+    public long get(Long userId) {
+        return counters.computeIfAbsent(userId,
+                id -> new AtomicLong(notificationRepository.countUnreadNotificationsByUserId(id))).get();
+    }
+    
+    /**
+     * Меняет счётчик после коммита текущей транзакции (или сразу, если её нет).
+     * Пользователи, чей счётчик ещё не загружен, пропускаются — их значение прочитается из БД.
+     */
+    public void add(Long userId, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> apply(userId, delta));
+    }
+    
+    /**
+     * Сбрасывает загруженные значения после коммита: следующий запрос прочитает их из БД.
+     */
+    public void evict(Collection<Long> userIds) {
+        TransactionUtils.afterCommit(() -> userIds.forEach(counters::remove));
+    }
+    
+    @Scheduled(fixedDelayString = "${alabuga.notifications.unread-reconcile-interval-ms:600000}")
+    public void reconcile() {
+        List<Long> userIds = new ArrayList<>(counters.keySet());
+        int corrected = 0;
+        for (int from = 0; from < userIds.size(); from += RECONCILE_CHUNK) {
+            List<Long> chunk = userIds.subList(from, Math.min(from + RECONCILE_CHUNK, userIds.size()));
+            Map<Long, Long> actual = new HashMap<>();
+            for (Object[] row : notificationRepository.countUnreadByUserIds(chunk)) {
+                actual.put((Long) row[0], ((Number) row[1]).longValue());
+            }
+            for (Long userId : chunk) {
+                long expected = actual.getOrDefault(userId, 0L);
+                AtomicLong counter = counters.get(userId);
+                if (counter != null && counter.getAndSet(expected) != expected) {
+                    corrected++;
+                }
+            }
+        }
+        if (corrected > 0) {
+            log.info("Сверка счётчиков непрочитанных уведомлений: исправлено {} из {}", corrected, userIds.size());
+        }
+    }
+    
+    
+    private void apply(Long userId, long delta) {
+        AtomicLong counter = counters.get(userId);
+        if (counter != null && counter.addAndGet(delta) < 0) {
+            counter.set(0);
+        }
+    }
+}
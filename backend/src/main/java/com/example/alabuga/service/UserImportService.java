@@ -0,0 +1,394 @@
+package com.example.alabuga.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.alabuga.dto.UserCreateDTO;
+import com.example.alabuga.dto.UserImportErrorDTO;
+import com.example.alabuga.dto.UserImportStatusDTO;
+import com.example.alabuga.entity.Rank;
+import com.example.alabuga.entity.User;
+import com.example.alabuga.entity.UserRole;
+import com.example.alabuga.exception.BusinessLogicException;
+import com.example.alabuga.exception.ResourceNotFoundException;
+import com.example.alabuga.mapper.UserMapper;
+import com.example.alabuga.repository.UserCompetencyRepository;
+import com.example.alabuga.repository.UserRepository;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Массовый импорт пользователей из JSON-массива или CSV.
+ * Входные данные разбираются потоково, затем импорт идёт в фоне порциями по batchSize записей:
+ * уникальность логинов и email проверяется двумя запросами на порцию, пользователи вставляются
+ * JDBC-пакетом с id, заранее взятыми из последовательности, компетенции — одним INSERT ... SELECT,
+ * уведомления о присвоении ранга уходят в NotificationPipeline. Ход импорта доступен по id задачи.
+ */
+@Service
+@Slf4j
+public class UserImportService {
+
+    public static final String CSV_HEADER = "login,email,password,firstName,lastName,role,experience,energy,rank";
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final Duration FINISHED_JOB_TTL = Duration.ofHours(1);
+
+    private final UserRepository userRepository;
+    private final UserCompetencyRepository userCompetencyRepository;
+    private final UserMapper userMapper;
+    private final NotificationService notificationService;
+    private final BroadcastNotificationService broadcastNotificationService;
+    private final LeaderboardService leaderboardService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    // Один поток: импорты не гоняются друг с другом за одни и те же логины
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${alabuga.users.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${alabuga.users.import.max-rows:100000}")
+    private int maxRows;
+
+    public UserImportService(UserRepository userRepository,
+                             UserCompetencyRepository userCompetencyRepository,
+                             UserMapper userMapper,
+                             NotificationService notificationService,
+                             BroadcastNotificationService broadcastNotificationService,
+                             LeaderboardService leaderboardService,
+                             ObjectMapper objectMapper,
+                             Validator validator,
+                             PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.userCompetencyRepository = userCompetencyRepository;
+        this.userMapper = userMapper;
+        this.notificationService = notificationService;
+        this.broadcastNotificationService = broadcastNotificationService;
+        this.leaderboardService = leaderboardService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Разбирает входные данные и ставит импорт в очередь. Ошибки формата отдельных записей
+     * попадают в отчёт задачи, нечитаемый поток целиком отклоняется.
+     */
+    public UserImportStatusDTO startImport(InputStream input, boolean csv) {
+        List<ImportRow> rows;
+        try {
+            rows = csv ? parseCsv(input) : parseJson(input);
+        } catch (IOException e) {
+            throw new BusinessLogicException("Не удалось прочитать данные импорта: %s", e.getMessage());
+        }
+        if (rows.isEmpty()) {
+            throw new BusinessLogicException("Данные импорта не содержат ни одной записи");
+        }
+
+        pruneFinishedJobs();
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), rows.size());
+        jobs.put(job.id, job);
+        executor.submit(() -> run(job, rows));
+        return job.toDTO();
+    }
+
+    public UserImportStatusDTO getStatus(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Задача импорта", jobId);
+        }
+        return job.toDTO();
+    }
+
+    // ========== IMPORT ==========
+
+    private void run(ImportJob job, List<ImportRow> rows) {
+        Set<String> seenLogins = new HashSet<>();
+        Set<String> seenEmails = new HashSet<>();
+        try {
+            for (int from = 0; from < rows.size(); from += batchSize) {
+                List<ImportRow> chunk = rows.subList(from, Math.min(from + batchSize, rows.size()));
+                importChunk(job, chunk, seenLogins, seenEmails);
+                job.processed.addAndGet(chunk.size());
+            }
+            job.finish(UserImportStatusDTO.Status.COMPLETED);
+            log.info("Импорт пользователей {} завершён: создано {}, отклонено {}", job.id, job.created.get(), job.failed.get());
+        } catch (RuntimeException e) {
+            log.error("Импорт пользователей {} прерван", job.id, e);
+            job.finish(UserImportStatusDTO.Status.FAILED);
+        }
+    }
+
+    private void importChunk(ImportJob job, List<ImportRow> chunk, Set<String> seenLogins, Set<String> seenEmails) {
+        List<ImportRow> valid = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            String error = validate(row, seenLogins, seenEmails);
+            if (error != null) {
+                job.reject(row, error);
+            } else {
+                valid.add(row);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        // Уникальность против БД — два запроса на всю порцию
+        Set<String> existingLogins = new HashSet<>(userRepository.findExistingLogins(
+                valid.stream().map(row -> row.dto().getLogin()).toList()));
+        Set<String> existingEmails = new HashSet<>(userRepository.findExistingEmails(
+                valid.stream().map(row -> row.dto().getEmail()).toList()));
+        List<ImportRow> fresh = new ArrayList<>(valid.size());
+        for (ImportRow row : valid) {
+            if (existingLogins.contains(row.dto().getLogin())) {
+                job.reject(row, String.format("Пользователь с логином '%s' уже существует", row.dto().getLogin()));
+            } else if (existingEmails.contains(row.dto().getEmail())) {
+                job.reject(row, String.format("Пользователь с email '%s' уже существует", row.dto().getEmail()));
+            } else {
+                fresh.add(row);
+            }
+        }
+        if (fresh.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(fresh));
+            job.created.addAndGet(fresh.size());
+        } catch (DataAccessException e) {
+            // Обычно гонка с параллельным созданием пользователя: порция откатывается целиком
+            log.warn("Импорт {}: порция из {} записей не сохранена", job.id, fresh.size(), e);
+            fresh.forEach(row -> job.reject(row, "Не удалось сохранить порцию: " + e.getMostSpecificCause().getMessage()));
+        }
+    }
+
+    private void insert(List<ImportRow> rows) {
+        List<Long> ids = userRepository.allocateIds(rows.size());
+        List<User> users = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            User user = userMapper.toEntity(rows.get(i).dto());
+            user.setId(ids.get(i));
+            users.add(user);
+        }
+        userRepository.insertBatch(users);
+        userCompetencyRepository.insertActiveCompetencies(ids);
+        broadcastNotificationService.markAllAsRead(ids);
+        for (User user : users) {
+            notificationService.createRankAssignmentNotification(user, Rank.fromLevel(user.getRank()));
+            leaderboardService.onUserChanged(user);
+        }
+    }
+
+    private String validate(ImportRow row, Set<String> seenLogins, Set<String> seenEmails) {
+        if (row.error() != null) {
+            return row.error();
+        }
+        Set<ConstraintViolation<UserCreateDTO>> violations = validator.validate(row.dto());
+        if (!violations.isEmpty()) {
+            return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+        }
+        if (!seenLogins.add(row.dto().getLogin())) {
+            return String.format("Логин '%s' повторяется во входных данных", row.dto().getLogin());
+        }
+        if (!seenEmails.add(row.dto().getEmail())) {
+            return String.format("Email '%s' повторяется во входных данных", row.dto().getEmail());
+        }
+        return null;
+    }
+
+    // ========== PARSING ==========
+
+    private record ImportRow(int line, UserCreateDTO dto, String error) {
+    }
+
+    private List<ImportRow> parseJson(InputStream input) throws IOException {
+        List<ImportRow> rows = new ArrayList<>();
+        try (MappingIterator<UserCreateDTO> iterator = objectMapper.readerFor(UserCreateDTO.class).readValues(input)) {
+            while (iterator.hasNextValue()) {
+                checkRowLimit(rows.size());
+                rows.add(new ImportRow(rows.size() + 1, iterator.nextValue(), null));
+            }
+        }
+        return rows;
+    }
+
+    // Простой CSV без кавычек: первая строка — заголовок с именами полей UserCreateDTO в любом порядке
+    private List<ImportRow> parseCsv(InputStream input) throws IOException {
+        List<ImportRow> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String header = reader.readLine();
+            if (header == null) {
+                return rows;
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            String[] names = header.replace("\uFEFF", "").split(",", -1);
+            for (int i = 0; i < names.length; i++) {
+                columns.put(names[i].trim().toLowerCase(Locale.ROOT), i);
+            }
+            if (!columns.containsKey("login") || !columns.containsKey("email")) {
+                throw new BusinessLogicException("Заголовок CSV должен содержать поля: %s", CSV_HEADER);
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                checkRowLimit(rows.size());
+                rows.add(parseCsvRow(rows.size() + 1, line.split(",", -1), columns));
+            }
+        }
+        return rows;
+    }
+
+    private ImportRow parseCsvRow(int lineNumber, String[] values, Map<String, Integer> columns) {
+        UserCreateDTO dto = new UserCreateDTO();
+        dto.setLogin(csvValue(values, columns, "login"));
+        dto.setEmail(csvValue(values, columns, "email"));
+        dto.setPassword(csvValue(values, columns, "password"));
+        dto.setFirstName(csvValue(values, columns, "firstname"));
+        dto.setLastName(csvValue(values, columns, "lastname"));
+        try {
+            String role = csvValue(values, columns, "role");
+            if (role != null) {
+                dto.setRole(UserRole.valueOf(role.toUpperCase(Locale.ROOT)));
+            }
+            String experience = csvValue(values, columns, "experience");
+            if (experience != null) {
+                dto.setExperience(Integer.valueOf(experience));
+            }
+            String energy = csvValue(values, columns, "energy");
+            if (energy != null) {
+                dto.setEnergy(Integer.valueOf(energy));
+            }
+            String rank = csvValue(values, columns, "rank");
+            if (rank != null) {
+                dto.setRank(Integer.valueOf(rank));
+            }
+        } catch (IllegalArgumentException e) {
+            return new ImportRow(lineNumber, dto, "Некорректное значение роли или числового поля: " + e.getMessage());
+        }
+        return new ImportRow(lineNumber, dto, null);
+    }
+
+    private static String csvValue(String[] values, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= values.length) {
+            return null;
+        }
+        String value = values[index].trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private void checkRowLimit(int count) {
+        if (count >= maxRows) {
+            throw new BusinessLogicException("За один импорт можно загрузить не более %d пользователей", maxRows);
+        }
+    }
+
+    private void pruneFinishedJobs() {
+        LocalDateTime threshold = LocalDateTime.now().minus(FINISHED_JOB_TTL);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(threshold));
+    }
+
+    // ========== JOB STATE ==========
+
+    private static final class ImportJob {
+        private final String id;
+        private final int total;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final long startedAtNanos = System.nanoTime();
+        private final AtomicInteger processed = new AtomicInteger();
+        private final AtomicInteger created = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final List<UserImportErrorDTO> errors = Collections.synchronizedList(new ArrayList<>());
+        private volatile UserImportStatusDTO.Status status = UserImportStatusDTO.Status.RUNNING;
+        private volatile LocalDateTime finishedAt;
+        private volatile long finishedAtNanos;
+
+        private ImportJob(String id, int total) {
+            this.id = id;
+            this.total = total;
+        }
+
+        private void reject(ImportRow row, String message) {
+            failed.incrementAndGet();
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(UserImportErrorDTO.builder()
+                        .line(row.line())
+                        .login(row.dto() != null ? row.dto().getLogin() : null)
+                        .message(message)
+                        .build());
+            }
+        }
+
+        private void finish(UserImportStatusDTO.Status finalStatus) {
+            finishedAtNanos = System.nanoTime();
+            finishedAt = LocalDateTime.now();
+            status = finalStatus;
+        }
+
+        private UserImportStatusDTO toDTO() {
+            long endNanos = finishedAt != null ? finishedAtNanos : System.nanoTime();
+            long elapsedNanos = Math.max(endNanos - startedAtNanos, 1);
+            List<UserImportErrorDTO> errorsCopy;
+            synchronized (errors) {
+                errorsCopy = new ArrayList<>(errors);
+            }
+            return UserImportStatusDTO.builder()
+                    .jobId(id)
+                    .status(status)
+                    .total(total)
+                    .processed(processed.get())
+                    .created(created.get())
+                    .failed(failed.get())
+                    .usersPerSecond(created.get() * 1_000_000_000.0 / elapsedNanos)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .errors(errorsCopy)
+                    .build();
+        }
+    }
+}
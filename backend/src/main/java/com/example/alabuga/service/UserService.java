@@ -1,22 +1,32 @@
 package com.example.alabuga.service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.alabuga.dto.ArtifactDTO;
 import com.example.alabuga.dto.CompetencyDTO;
+import com.example.alabuga.dto.EnergyTransactionDTO;
 import com.example.alabuga.dto.UserArtifactDTO;
 import com.example.alabuga.dto.UserCompetencyDTO;
 import com.example.alabuga.dto.UserCreateDTO;
 import com.example.alabuga.dto.UserDTO;
+import com.example.alabuga.dto.UserInclude;
 import com.example.alabuga.dto.UserMissionDTO;
+import com.example.alabuga.dto.UserPageDTO;
 import com.example.alabuga.dto.UserUpdateDTO;
 import com.example.alabuga.entity.Artifact;
 import com.example.alabuga.entity.Competency;
+import com.example.alabuga.entity.EnergyTransactionType;
 import com.example.alabuga.entity.Mission;
 import com.example.alabuga.entity.Rank;
 import com.example.alabuga.entity.User;
@@ -38,6 +48,7 @@ import com.example.alabuga.repository.UserArtifactRepository;
 import com.example.alabuga.repository.UserCompetencyRepository;
 import com.example.alabuga.repository.UserMissionRepository;
 import com.example.alabuga.repository.UserRepository;
+import com.example.alabuga.repository.UserRepositoryCustom.UserKey;
 import com.example.alabuga.service.NotificationService;
 
 import lombok.RequiredArgsConstructor;
@@ -59,16 +70,27 @@ public class UserService {
     private final ArtifactMapper artifactMapper;
     private final NotificationService notificationService;
     private final UserArtifactMapper userArtifactMapper;
+    private final LeaderboardService leaderboardService;
+    private final EnergyLedgerService energyLedgerService;
+    private final BroadcastNotificationService broadcastNotificationService;
+    private final CatalogCache catalogCache;
+    private final RankProgressCache rankProgressCache;
     
+    
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
   
-    public List<UserDTO> getAllUsers() {
-        List<User> users = userRepository.findAll();
-        return userMapper.toDTOList(users);
+    public UserPageDTO getAllUsers(Set<UserInclude> include, String cursor, Integer size) {
+        return getUsersPage(null, null, null, null, include, cursor, size);
     }
     
     public Optional<UserDTO> getUserById(Long id) {
+        return getUserById(id, Set.of());
+    }
+    
+    public Optional<UserDTO> getUserById(Long id, Set<UserInclude> include) {
         return userRepository.findById(id)
-                .map(userMapper::toDTO);
+                .map(user -> toDTOs(List.of(user), include).get(0));
     }
     
     public Optional<UserDTO> getUserByLogin(String login) {
@@ -100,6 +122,8 @@ public class UserService {
         // Создаем уведомление о присвоении начального ранга
         Rank initialRank = Rank.fromLevel(savedUser.getRank());
         notificationService.createRankAssignmentNotification(savedUser, initialRank);
+        broadcastNotificationService.initReadMarker(savedUser.getId());
+        leaderboardService.onUserChanged(savedUser);
         
         return userMapper.toDTO(savedUser);
     }
@@ -121,8 +145,11 @@ public class UserService {
             throw new DuplicateResourceException("Пользователь", "email", userUpdateDTO.getEmail());
         }
         
-        // Обновляем поля через маппер
+        // Обновляем поля через маппер; баланс меняется только через журнал
         userMapper.updateEntity(user, userUpdateDTO);
+        if (userUpdateDTO.getEnergy() != null) {
+            energyLedgerService.adjust(user, userUpdateDTO.getEnergy());
+        }
         
         User savedUser = userRepository.save(user);
         
@@ -132,6 +159,8 @@ public class UserService {
             Rank newRankObj = Rank.fromLevel(userUpdateDTO.getRank());
             notificationService.createRankPromotionNotification(savedUser, oldRankObj, newRankObj);
         }
+        leaderboardService.onUserChanged(savedUser);
+        rankProgressCache.evict(savedUser.getId());
         
         return userMapper.toDTO(savedUser);
     }
@@ -142,6 +171,8 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("Пользователь", id));
         
         userRepository.delete(user);
+        leaderboardService.onUserDeleted(id);
+        rankProgressCache.evict(id);
     }
     
     @Transactional
@@ -151,6 +182,8 @@ public class UserService {
         
         user.setIsActive(false);
         User savedUser = userRepository.save(user);
+        leaderboardService.onUserChanged(savedUser);
+        rankProgressCache.evict(savedUser.getId());
         return userMapper.toDTO(savedUser);
     }
     
@@ -161,24 +194,50 @@ public class UserService {
         return userMapper.toDTOList(users);
     }
     
-    public List<UserDTO> getUsersByRole(UserRole role) {
-        List<User> users = userRepository.findByRole(role);
-        return userMapper.toDTOList(users);
+    public UserPageDTO getUsersByRole(UserRole role, Set<UserInclude> include, String cursor, Integer size) {
+        return getUsersPage(role, null, null, null, include, cursor, size);
     }
     
-    public List<UserDTO> getActiveUsers() {
-        List<User> users = userRepository.findByIsActive(true);
-        return userMapper.toDTOList(users);
+    public UserPageDTO getActiveUsers(Set<UserInclude> include, String cursor, Integer size) {
+        return getUsersPage(null, true, null, null, include, cursor, size);
     }
     
-    public List<UserDTO> getUsersByMinRank(Integer minRank) {
-        List<User> users = userRepository.findByRankGreaterThanEqualOrderByRankDesc(minRank);
-        return userMapper.toDTOList(users);
+    public UserPageDTO getUsersByMinRank(Integer minRank, Set<UserInclude> include, String cursor, Integer size) {
+        return getUsersPage(null, null, minRank, null, include, cursor, size);
     }
     
-    public List<UserDTO> getUsersByMinExperience(Integer minExperience) {
-        List<User> users = userRepository.findByExperienceGreaterThanEqualOrderByExperienceDesc(minExperience);
-        return userMapper.toDTOList(users);
+    public UserPageDTO getUsersByMinExperience(Integer minExperience, Set<UserInclude> include, String cursor, Integer size) {
+        return getUsersPage(null, null, null, minExperience, include, cursor, size);
+    }
+    
+    /**
+     * Keyset-пагинация по (rank, experience, id) в порядке убывания.
+     * Курсор — позиция последней строки предыдущей страницы, поэтому стоимость запроса
+     * не зависит от номера страницы, а в памяти находится не больше size пользователей.
+     */
+    public UserPageDTO getUsersPage(UserRole role, Boolean isActive, Integer minRank, Integer minExperience,
+                                    Set<UserInclude> include, String cursor, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new BusinessLogicException("Размер страницы должен быть от 1 до %d", MAX_PAGE_SIZE);
+        }
+        
+        Slice<User> slice = userRepository.findPageAfter(role, isActive, minRank, minExperience,
+                decodeCursor(cursor), pageSize);
+        
+        List<User> users = slice.getContent();
+        String nextCursor = null;
+        if (slice.hasNext() && !users.isEmpty()) {
+            User last = users.get(users.size() - 1);
+            nextCursor = encodeCursor(new UserKey(last.getRank(), last.getExperience(), last.getId()));
+        }
+        
+        return UserPageDTO.builder()
+                .items(toDTOs(users, include))
+                .nextCursor(nextCursor)
+                .hasNext(slice.hasNext())
+                .size(pageSize)
+                .build();
     }
     
     // ========== USER STATS OPERATIONS ==========
@@ -195,38 +254,39 @@ public class UserService {
         user.setRank(newRank);
         
         User savedUser = userRepository.save(user);
+        leaderboardService.onUserChanged(savedUser);
+        rankProgressCache.evict(savedUser.getId());
         return userMapper.toDTO(savedUser);
     }
     
     @Transactional
     public UserDTO addEnergy(Long userId, Integer energy) {
+        energyLedgerService.credit(userId, energy, EnergyTransactionType.ADMIN_GRANT, null);
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Пользователь", userId));
-        
-        user.setEnergy(user.getEnergy() + energy);
-        User savedUser = userRepository.save(user);
-        return userMapper.toDTO(savedUser);
+        return userMapper.toDTO(user);
     }
     
     @Transactional
     public UserDTO spendEnergy(Long userId, Integer energy) {
+        energyLedgerService.debit(userId, energy, EnergyTransactionType.ADMIN_DEBIT, null);
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Пользователь", userId));
-        
-        if (user.getEnergy() < energy) {
-            throw new BusinessLogicException("Недостаточно Энергонов. Текущие Энергоны: %d, требуется: %d", user.getEnergy(), energy);
+        return userMapper.toDTO(user);
+    }
+    
+    public List<EnergyTransactionDTO> getEnergyHistory(Long userId, Long beforeId, Integer size) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("Пользователь", userId);
         }
-        
-        user.setEnergy(user.getEnergy() - energy);
-        User savedUser = userRepository.save(user);
-        return userMapper.toDTO(savedUser);
+        return energyLedgerService.getHistory(userId, beforeId, size);
     }
     
     // ========== COMPETENCY OPERATIONS ==========
     
     public List<CompetencyDTO> getAllCompetencies() {
-        List<Competency> competencies = competencyRepository.findByIsActive(true);
-        return competencyMapper.toDTOList(competencies);
+        return catalogCache.get(CatalogCache.Section.COMPETENCIES, "active",
+                () -> competencyMapper.toDTOList(competencyRepository.findByIsActive(true)));
     }
     
     public List<UserCompetencyDTO> getUserCompetencies(Long userId) {
@@ -254,6 +314,7 @@ public class UserService {
                 .build();
         
         UserCompetency savedUserCompetency = userCompetencyRepository.save(userCompetency);
+        rankProgressCache.evict(userId);
         return competencyMapper.toDTO(savedUserCompetency);
     }
     
@@ -267,6 +328,7 @@ public class UserService {
         userCompetency.setExperiencePoints(newExperiencePoints);
         
         UserCompetency savedUserCompetency = userCompetencyRepository.save(userCompetency);
+        rankProgressCache.evict(userId);
         return competencyMapper.toDTO(savedUserCompetency);
     }
     
@@ -347,25 +409,12 @@ public class UserService {
     
     @Transactional
     public void addAllCompetenciesToUser(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Пользователь", userId));
-        
-        List<Competency> allCompetencies = competencyRepository.findByIsActive(true);
-        
-        for (Competency competency : allCompetencies) {
-            // Проверяем, есть ли уже такая компетенция у пользователя
-            boolean exists = userCompetencyRepository.findByUserIdAndCompetencyId(userId, competency.getId()).isPresent();
-            
-            if (!exists) {
-                UserCompetency userCompetency = UserCompetency.builder()
-                        .user(user)
-                        .competency(competency)
-                        .experiencePoints(0)
-                        .build();
-                
-                userCompetencyRepository.save(userCompetency);
-            }
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("Пользователь", userId);
         }
+        
+        // Недостающие активные компетенции добавляются одним INSERT ... SELECT
+        userCompetencyRepository.insertActiveCompetencies(List.of(userId));
     }
     
     @Transactional
@@ -378,6 +427,7 @@ public class UserService {
         userCompetency.setExperiencePoints(newExperiencePoints);
         
         UserCompetency savedUserCompetency = userCompetencyRepository.save(userCompetency);
+        rankProgressCache.evict(userId);
         return competencyMapper.toDTO(savedUserCompetency);
     }
     
@@ -404,8 +454,8 @@ public class UserService {
             throw new BusinessLogicException("Пользователь уже взял эту миссию");
         }
         
-        // Проверки доступности по рангу/опыту опущены, т.к. у сущности Mission нет таких полей.
-        // При необходимости можно добавить бизнес-логику проверки компетенций через requiredCompetencies.
+        // Требования по рангу, опыту и компетенциям здесь не проверяются: доступные пользователю
+        // миссии отдаёт MissionEligibilityService (GET /api/missions/available/{userId}).
         
         // Создаем UserMission
         UserMission userMission = UserMission.builder()
@@ -436,6 +486,7 @@ public class UserService {
         }
         
         userMissionRepository.delete(userMissionOpt.get());
+        rankProgressCache.evict(userId);
     }
     
     private UserMissionDTO mapToUserMissionDTO(UserMission userMission) {
@@ -452,4 +503,48 @@ public class UserService {
                 .build();
     }
     
+    /**
+     * Маппинг страницы пользователей. Коллекции подгружаются только по запросу include,
+     * одним IN-запросом на коллекцию для всей страницы, а не по запросу на пользователя.
+     */
+    private List<UserDTO> toDTOs(List<User> users, Set<UserInclude> include) {
+        if (users.isEmpty() || include.isEmpty()) {
+            return userMapper.toDTOList(users);
+        }
+        
+        List<Long> userIds = users.stream().map(User::getId).toList();
+        Map<Long, List<UserCompetency>> competencies = include.contains(UserInclude.COMPETENCIES)
+                ? userCompetencyRepository.findWithCompetencyByUserIdIn(userIds).stream()
+                        .collect(Collectors.groupingBy(uc -> uc.getUser().getId()))
+                : null;
+        Map<Long, List<UserArtifact>> artifacts = include.contains(UserInclude.ARTIFACTS)
+                ? userArtifactRepository.findWithArtifactByUserIdIn(userIds).stream()
+                        .collect(Collectors.groupingBy(ua -> ua.getUser().getId()))
+                : null;
+        
+        return users.stream()
+                .map(user -> userMapper.toDTO(user,
+                        competencies != null ? competencies.getOrDefault(user.getId(), List.of()) : null,
+                        artifacts != null ? artifacts.getOrDefault(user.getId(), List.of()) : null))
+                .toList();
+    }
+    
+    // Курсор — позиция (rank, experience, id) последней строки страницы в base64url; null — первая страница
+    private static UserKey decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("_");
+            return new UserKey(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new BusinessLogicException("Некорректный курсор страницы");
+        }
+    }
+    
+    private static String encodeCursor(UserKey key) {
+        String raw = key.rank() + "_" + key.experience() + "_" + key.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
 }
@@ -0,0 +1,90 @@
+package com.example.alabuga.util;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Действия, которые должны выполняться только после коммита текущей транзакции.
+ */
+public final class TransactionUtils {
+
+    // Поток сейчас выполняет afterCommit-действие: транзакция уже зафиксирована
+    private static final ThreadLocal<Boolean> COMMITTED = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private TransactionUtils() {
+    }
+
+    /**
+     * Выполняет действие после коммита текущей транзакции или сразу, если транзакции нет.
+     * При откате действие не выполняется. Вызов из другого afterCommit-действия выполняется сразу:
+     * синхронизации, зарегистрированные на этой фазе, Spring уже не вызывает.
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || COMMITTED.get()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                COMMITTED.set(Boolean.TRUE);
+                try {
+                    action.run();
+                } finally {
+                    COMMITTED.remove();
+                }
+            }
+        });
+    }
+
+    /**
+     * Копит элементы в рамках текущей транзакции и после её коммита передаёт их действию одним набором:
+     * один вызов на транзакцию и ключ, сколько бы элементов ни добавили. При откате набор отбрасывается.
+     * Без транзакции (или из afterCommit-действия) действие вызывается сразу с одним элементом.
+     * Вложенная транзакция REQUIRES_NEW копит свой набор.
+     */
+    public static <T> void afterCommitBatched(Object key, T item, Consumer<Set<T>> action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || COMMITTED.get()) {
+            action.accept(Set.of(item));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<T> items = (Set<T>) TransactionSynchronizationManager.getResource(key);
+        if (items == null) {
+            Set<T> batch = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(key, batch);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void suspend() {
+                    TransactionSynchronizationManager.unbindResource(key);
+                }
+
+                @Override
+                public void resume() {
+                    TransactionSynchronizationManager.bindResource(key, batch);
+                }
+
+                @Override
+                public void afterCommit() {
+                    COMMITTED.set(Boolean.TRUE);
+                    try {
+                        action.accept(batch);
+                    } finally {
+                        COMMITTED.remove();
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(key);
+                }
+            });
+            items = batch;
+        }
+        items.add(item);
+    }
+}
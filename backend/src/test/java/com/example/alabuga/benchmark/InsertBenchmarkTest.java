@@ -0,0 +1,170 @@
+package com.example.alabuga.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.alabuga.entity.Competency;
+import com.example.alabuga.entity.Notification;
+import com.example.alabuga.entity.User;
+import com.example.alabuga.entity.UserCompetency;
+import com.example.alabuga.repository.CompetencyRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Замер вставки: построчно с IDENTITY (INSERT и чтение сгенерированного ключа на каждую строку —
+ * так Hibernate пишет сущности с IDENTITY и не может их пакетировать) против пакетной вставки сущностей
+ * через Hibernate с id из последовательностей. Транзакция откатывается, живая БД не используется.
+ * По умолчанию это H2 в памяти: сетевых обращений там нет, и цифры показывают только накладные расходы
+ * Hibernate. Выигрыш от пакетов виден на одноразовой PostgreSQL (benchmark.datasource.url и соседние свойства).
+ * Запуск: mvn test -Dbenchmark=true -Dtest=InsertBenchmarkTest [-Dbenchmark.rows=5000]
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=${benchmark.datasource.url:jdbc:h2:mem:insert-benchmark;DB_CLOSE_DELAY=-1}",
+        "spring.datasource.driver-class-name=${benchmark.datasource.driver:org.h2.Driver}",
+        "spring.datasource.username=${benchmark.datasource.username:sa}",
+        "spring.datasource.password=${benchmark.datasource.password:}",
+        "spring.jpa.properties.hibernate.dialect=${benchmark.dialect:org.hibernate.dialect.H2Dialect}",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.liquibase.change-log=classpath:db/changelog/db.changelog-master.xml"
+})
+@ActiveProfiles("prod")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+class InsertBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 5000);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CompetencyRepository competencyRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void batchedSequenceInsertsOutrunIdentityRoundTrips() {
+        createIdentityTables();
+        List<Competency> competencies = competencyRepository.findByIsActive(true);
+        assertThat(competencies).isNotEmpty();
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<User> users = new ArrayList<>(ROWS);
+
+            measure("users",
+                    i -> identityInsert("INSERT INTO bench_identity_users (login, email, password_hash, first_name, last_name, created_at) " +
+                            "VALUES (?, ?, ?, ?, ?, ?)", "a" + i, "a" + i + "@benchmark.local", "", "Бенчмарк", "Пользователь", now),
+                    i -> {
+                        User user = User.builder()
+                                .login("bench-b" + i)
+                                .email("bench-b" + i + "@benchmark.local")
+                                .firstName("Бенчмарк")
+                                .lastName("Пользователь")
+                                .build();
+                        users.add(user);
+                        entityManager.persist(user);
+                    });
+
+            measure("user_competencies",
+                    i -> identityInsert("INSERT INTO bench_identity_user_competencies (user_id, competency_id, experience_points) " +
+                            "VALUES (?, ?, 0)", users.get(i / competencies.size()).getId(), competencies.get(i % competencies.size()).getId()),
+                    i -> entityManager.persist(UserCompetency.builder()
+                            .user(entityManager.getReference(User.class, users.get(i / competencies.size()).getId()))
+                            .competency(entityManager.getReference(Competency.class, competencies.get(i % competencies.size()).getId()))
+                            .experiencePoints(0)
+                            .build()));
+
+            Long recipientId = users.get(0).getId();
+            measure("notifications",
+                    i -> identityInsert("INSERT INTO bench_identity_notifications (user_id, title, content, notification_type, is_read, created_at) " +
+                            "VALUES (?, ?, ?, ?, false, ?)", recipientId, "БЕНЧМАРК", "Запись " + i,
+                            Notification.NotificationType.ACHIEVEMENT.getCode(), now),
+                    i -> entityManager.persist(Notification.builder()
+                            .user(entityManager.getReference(User.class, recipientId))
+                            .title("БЕНЧМАРК")
+                            .content("Запись " + i)
+                            .notificationType(Notification.NotificationType.ACHIEVEMENT.getCode())
+                            .build()));
+
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bench_identity_notifications", Long.class))
+                    .isEqualTo(ROWS);
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notifications WHERE title = 'БЕНЧМАРК'", Long.class))
+                    .isEqualTo(ROWS);
+        });
+    }
+
+    private void measure(String table, IntConsumer identityRow, IntConsumer batchedRow) {
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < ROWS; i++) {
+            identityRow.accept(i);
+        }
+        long identityNanos = Math.max(System.nanoTime() - startedAt, 1);
+
+        startedAt = System.nanoTime();
+        for (int i = 0; i < ROWS; i++) {
+            batchedRow.accept(i);
+        }
+        entityManager.flush();
+        long batchedNanos = Math.max(System.nanoTime() - startedAt, 1);
+        // Сущности уже в БД транзакции; users остаются доступны по id для следующих замеров
+        entityManager.clear();
+
+        double identityPerSecond = ROWS * 1_000_000_000.0 / identityNanos;
+        double batchedPerSecond = ROWS * 1_000_000_000.0 / batchedNanos;
+        log.info(String.format("%-18s rows=%d identity=%.0f/s batched=%.0f/s speedup=%.1fx",
+                table, ROWS, identityPerSecond, batchedPerSecond, batchedPerSecond / identityPerSecond));
+    }
+
+    private void identityInsert(String sql, Object... args) {
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            for (int i = 0; i < args.length; i++) {
+                statement.setObject(i + 1, args[i]);
+            }
+            return statement;
+        }, keyHolder);
+        assertThat(keyHolder.getKeyList()).hasSize(1);
+    }
+
+    // Копии форм таблиц с IDENTITY: так id выдавались до перехода на последовательности
+    private void createIdentityTables() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS bench_identity_users (" +
+                "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, login VARCHAR(50) NOT NULL, " +
+                "email VARCHAR(100) NOT NULL, password_hash VARCHAR(255) NOT NULL, first_name VARCHAR(50) NOT NULL, " +
+                "last_name VARCHAR(50) NOT NULL, created_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS bench_identity_user_competencies (" +
+                "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, user_id BIGINT NOT NULL, " +
+                "competency_id BIGINT NOT NULL, experience_points INT NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS bench_identity_notifications (" +
+                "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, user_id BIGINT NOT NULL, title VARCHAR(255), " +
+                "content TEXT, notification_type VARCHAR(50), is_read BOOLEAN, created_at TIMESTAMP)");
+    }
+}
@@ -0,0 +1,340 @@
+package com.example.alabuga.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.alabuga.entity.MissionStatus;
+
+/**
+ * Планы горячих запросов на PostgreSQL: схема накатывается Liquibase, таблицы заполняются
+ * сотнями пользователей с сотнями записей, после ANALYZE каждый запрос проходит EXPLAIN.
+ * SQL берётся тот, что Hibernate действительно отправил при вызове метода репозитория
+ * (StatementInspector, первый запрос вызова — до догрузки EAGER-связей), параметры подставляются те же по порядку.
+ * Для каждого запроса проверяется, что таблица читается нужным индексом, без Seq Scan и без
+ * соединения с users, а для постраничных выборок — без сортировки: порядок даёт сам индекс.
+ * Без Docker тест пропускается.
+ */
+@SpringBootTest(properties = {
+        "spring.liquibase.change-log=classpath:db/changelog/db.changelog-master.xml",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.alabuga.repository.HotFinderQueryPlanTest$FirstStatement"
+})
+@ActiveProfiles("prod")
+@Testcontainers(disabledWithoutDocker = true)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class HotFinderQueryPlanTest {
+
+    private static final int USERS = 200;
+    private static final int ROWS_PER_USER = 200;
+    private static final int PAGE = 50;
+    private static final int MISSIONS = 20000;
+    private static final int BRANCHES = 200;
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private EnergyTransactionRepository energyTransactionRepository;
+
+    @Autowired
+    private MissionRepository missionRepository;
+
+    @Autowired
+    private UserMissionRepository userMissionRepository;
+
+    @Autowired
+    private UserArtifactRepository userArtifactRepository;
+
+    @Autowired
+    private UserCompetencyRepository userCompetencyRepository;
+
+    private Long userId;
+    private Long missionId;
+    private Long artifactId;
+    private Long competencyId;
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("INSERT INTO users (login, email, password_hash, first_name, last_name) " +
+                "SELECT 'plan-' || g, 'plan-' || g || '@plan.local', '', 'План', 'Запроса' FROM generate_series(1, ?) g", USERS);
+        // Пользователи с разными рангами и опытом для постраничного списка
+        jdbcTemplate.update("INSERT INTO users (login, email, password_hash, first_name, last_name, rank, experience) " +
+                "SELECT 'page-' || g, 'page-' || g || '@plan.local', '', 'План', 'Запроса', g % 10 + 1, g % 5000 " +
+                "FROM generate_series(1, ?) g", USERS * 100);
+        // Половина уведомлений не прочитана: страница непрочитанных меньше, чем их у пользователя
+        jdbcTemplate.update("INSERT INTO notifications (user_id, title, content, notification_type, is_read, created_at) " +
+                "SELECT u.id, 'План', 'Запись', 'SYSTEM', g % 2 = 0, now() - g * interval '1 minute' " +
+                "FROM users u CROSS JOIN generate_series(1, ?) g WHERE u.login LIKE 'plan-%'", ROWS_PER_USER);
+        // Номера доставки уже проставлены, как у строк после секвенсора
+        jdbcTemplate.update("UPDATE notifications SET delivery_seq = id");
+        jdbcTemplate.update("INSERT INTO notifications_archive (id, user_id, title, content, notification_type, is_read, created_at) " +
+                "SELECT 1000000000 + row_number() OVER (), u.id, 'План', 'Запись', 'SYSTEM', true, now() - interval '1 year' - g * interval '1 minute' " +
+                "FROM users u CROSS JOIN generate_series(1, ?) g WHERE u.login LIKE 'plan-%'", ROWS_PER_USER);
+        jdbcTemplate.update("INSERT INTO energy_transactions (user_id, transaction_type, amount, balance_after, created_at) " +
+                "SELECT u.id, 'ADMIN_GRANT', 1, g, now() - g * interval '1 minute' " +
+                "FROM users u CROSS JOIN generate_series(1, ?) g WHERE u.login LIKE 'plan-%'", ROWS_PER_USER);
+        // Миссии по веткам, каждая десятая неактивна, половина с модерацией
+        jdbcTemplate.update("INSERT INTO missions (name, branch_id, type, difficulty, experience_reward, energy_reward, " +
+                "is_active, requires_moderation) SELECT 'План-' || g, g % ? + 1, 'QUEST', 'EASY', 10, 5, g % 10 <> 0, g % 2 = 0 " +
+                "FROM generate_series(1, ?) g", BRANCHES, MISSIONS);
+        // У каждого пользователя по миссии из первых ROWS_PER_USER, статусы перемешаны и по пользователю, и по миссии;
+        // каждая пятая доведена до 100%, поэтому в очереди модерации тысячи строк, больше страницы
+        jdbcTemplate.update("INSERT INTO user_missions (user_id, mission_id, status, progress) " +
+                "SELECT u.id, m.id, (ARRAY['NOT_STARTED', 'IN_PROGRESS', 'COMPLETED', 'FAILED'])[(u.id + m.id) % 4 + 1], " +
+                "CASE WHEN (u.id * 7 + m.id) % 5 = 0 THEN 100 ELSE (u.id + m.id) % 100 END " +
+                "FROM users u CROSS JOIN (SELECT id FROM missions WHERE name LIKE 'План-%' ORDER BY id LIMIT ?) m " +
+                "WHERE u.login LIKE 'plan-%'", ROWS_PER_USER);
+        // Все артефакты у каждого пользователя, экипированы несколько
+        jdbcTemplate.update("INSERT INTO artifacts (name, rarity, is_active) " +
+                "SELECT 'План-' || g, 'COMMON', true FROM generate_series(1, ?) g", ROWS_PER_USER);
+        jdbcTemplate.update("INSERT INTO user_artifacts (user_id, artifact_id, is_equipped) " +
+                "SELECT u.id, a.id, (u.id + a.id) % 50 = 0 FROM users u CROSS JOIN artifacts a " +
+                "WHERE u.login LIKE 'plan-%' AND a.name LIKE 'План-%'");
+        jdbcTemplate.update("INSERT INTO competencies (name, is_active) " +
+                "SELECT 'План-' || g, true FROM generate_series(1, ?) g", ROWS_PER_USER);
+        jdbcTemplate.update("INSERT INTO user_competencies (user_id, competency_id, experience_points) " +
+                "SELECT u.id, c.id, (u.id + c.id) % 1000 FROM users u CROSS JOIN competencies c " +
+                "WHERE u.login LIKE 'plan-%' AND c.name LIKE 'План-%'");
+        jdbcTemplate.execute("ANALYZE");
+        userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE login = 'plan-1'", Long.class);
+        missionId = jdbcTemplate.queryForObject("SELECT MIN(mission_id) FROM user_missions WHERE user_id = ?", Long.class, userId);
+        artifactId = jdbcTemplate.queryForObject("SELECT MIN(artifact_id) FROM user_artifacts WHERE user_id = ?", Long.class, userId);
+        competencyId = jdbcTemplate.queryForObject("SELECT MIN(competency_id) FROM user_competencies WHERE user_id = ?",
+                Long.class, userId);
+    }
+
+    // ========== USERS ==========
+
+    @Test
+    void usersPageAfterCursorReadsKeysetIndex() {
+        UserRepositoryCustom.UserKey after = new UserRepositoryCustom.UserKey(5, 2500, Long.MAX_VALUE);
+        String sql = capture(() -> userRepository.findPageAfter(null, true, null, null, after, PAGE));
+        // Курсор, фильтр и лишняя строка для признака следующей страницы
+        assertOrderedIndexScan(explain(sql, 5, 2500, Long.MAX_VALUE, true, PAGE + 1), "users", "idx_users_rank_experience_id");
+    }
+
+    // ========== NOTIFICATIONS ==========
+
+    @Test
+    void userNotificationsPageReadsCreatedAtIdIndex() {
+        String sql = capture(() -> notificationRepository.findUserNotificationsOrderedByDate(userId, PageRequest.of(0, PAGE)));
+        assertOrderedIndexScan(explain(sql, userId, PAGE), "notifications", "idx_notifications_user_created_at_id");
+    }
+
+    @Test
+    void notificationHistoryPageReadsCreatedAtIdIndex() {
+        LocalDateTime before = LocalDateTime.now().minusHours(1);
+        String sql = capture(() -> notificationRepository.findUserNotificationsBefore(userId, before, Long.MAX_VALUE,
+                PageRequest.of(0, PAGE)));
+        assertOrderedIndexScan(explain(sql, userId, Timestamp.valueOf(before), Long.MAX_VALUE, PAGE),
+                "notifications", "idx_notifications_user_created_at_id");
+    }
+
+    @Test
+    void unreadNotificationsPageReadsPartialUnreadIndex() {
+        String sql = capture(() -> notificationRepository.findByUserIdAndIsReadOrderByCreatedAtDescIdDesc(userId, false,
+                PageRequest.of(0, PAGE)));
+        assertOrderedIndexScan(explain(sql, userId, false, PAGE), "notifications", "idx_notifications_user_unread");
+    }
+
+    @Test
+    void unreadCountReadsPartialUnreadIndex() {
+        String sql = capture(() -> notificationRepository.countUnreadNotificationsByUserId(userId));
+        assertIndexScan(explain(sql, userId), "notifications", "idx_notifications_user_unread");
+    }
+
+    @Test
+    void sseCatchUpReadsDeliverySeqIndex() {
+        String sql = capture(() -> notificationRepository.findByUserIdAndDeliverySeqGreaterThanOrderByDeliverySeqAsc(userId, 0L,
+                PageRequest.of(0, PAGE)));
+        assertOrderedIndexScan(explain(sql, userId, 0L, PAGE), "notifications", "idx_notifications_user_delivery_seq");
+    }
+
+    @Test
+    void lastDeliverySeqReadsDeliverySeqIndex() {
+        String sql = capture(() -> notificationRepository.findMaxDeliverySeqByUserId(userId));
+        assertIndexScan(explain(sql, userId), "notifications", "idx_notifications_user_delivery_seq");
+    }
+
+    @Test
+    void undeliveredRowsReadPartialIndex() {
+        String plan = explain(NotificationRepositoryImpl.UNDELIVERED_SQL, 1000);
+        assertOrderedIndexScan(plan, "notifications", "idx_notifications_undelivered");
+    }
+
+    @Test
+    void archivePageReadsArchiveCreatedAtIdIndex() {
+        LocalDateTime before = LocalDateTime.now();
+        String plan = explain(NotificationRepositoryImpl.ARCHIVE_PAGE_SQL, userId, Timestamp.valueOf(before), Long.MAX_VALUE, PAGE);
+        assertOrderedIndexScan(plan, "notifications_archive", "idx_notifications_archive_user_created_at_id");
+    }
+
+    // ========== ENERGY LEDGER ==========
+
+    @Test
+    void energyHistoryPageReadsUserIdIdIndex() {
+        String sql = capture(() -> energyTransactionRepository.findByUserIdAndIdLessThanOrderByIdDesc(userId, Long.MAX_VALUE,
+                PageRequest.of(0, PAGE)));
+        // Slice запрашивает на строку больше, чтобы узнать о следующей странице
+        assertOrderedIndexScan(explain(sql, userId, Long.MAX_VALUE, PAGE + 1),
+                "energy_transactions", "idx_energy_transactions_user_id_id");
+    }
+
+    // ========== MISSIONS ==========
+
+    @Test
+    void activeBranchMissionsReadPartialActiveIndex() {
+        String sql = capture(() -> missionRepository.findActiveMissionsByBranch(1L));
+        assertIndexScan(explain(sql, 1L), "missions", "idx_missions_branch_active");
+    }
+
+    @Test
+    void userMissionReadsUserMissionUniqueIndex() {
+        String sql = capture(() -> userMissionRepository.findByUserIdAndMissionId(userId, missionId));
+        assertIndexScan(explain(sql, userId, missionId), "user_missions", "uq_user_missions_user_mission");
+    }
+
+    @Test
+    void completedUserMissionsReadUserStatusIndex() {
+        String sql = capture(() -> userMissionRepository.findCompletedMissionIdsByUserId(userId));
+        assertIndexScan(explain(sql, userId), "user_missions", "idx_user_missions_user_status");
+    }
+
+    @Test
+    void missionParticipantsByStatusReadMissionStatusIndex() {
+        String sql = capture(() -> userMissionRepository.findByMissionIdAndStatusIn(missionId,
+                List.of(MissionStatus.IN_PROGRESS, MissionStatus.COMPLETED)));
+        assertIndexScan(explain(sql, missionId, MissionStatus.IN_PROGRESS.name(), MissionStatus.COMPLETED.name()),
+                "user_missions", "idx_user_missions_mission_status");
+    }
+
+    @Test
+    void moderationQueueReadsStatusProgressIdIndex() {
+        String sql = capture(() -> userMissionRepository.findModerationQueue(0L, PageRequest.of(0, PAGE + 1)));
+        assertOrderedIndexScan(explain(sql, 0L, PAGE + 1), "user_missions", "idx_user_missions_status_progress_id");
+    }
+
+    @Test
+    void branchModerationQueueReadsStatusProgressIdIndex() {
+        String sql = capture(() -> userMissionRepository.findModerationQueueByBranch(0L, 2L, PageRequest.of(0, PAGE + 1)));
+        assertIndexScan(explain(sql, 0L, 2L, PAGE + 1), "user_missions", "idx_user_missions_status_progress_id");
+    }
+
+    // ========== ARTIFACTS ==========
+
+    @Test
+    void userArtifactReadsUserArtifactUniqueIndex() {
+        String sql = capture(() -> userArtifactRepository.findByUserIdAndArtifactId(userId, artifactId));
+        assertIndexScan(explain(sql, userId, artifactId), "user_artifacts", "uq_user_artifacts_user_artifact");
+    }
+
+    @Test
+    void ownedArtifactCheckReadsUserArtifactUniqueIndex() {
+        String sql = capture(() -> userArtifactRepository.existsByUserIdAndArtifactId(userId, artifactId));
+        assertIndexScan(explain(sql, userId, artifactId), "user_artifacts", "uq_user_artifacts_user_artifact");
+    }
+
+    @Test
+    void equippedArtifactsReadPartialEquippedIndex() {
+        String sql = capture(() -> userArtifactRepository.findByUserIdAndIsEquippedTrue(userId));
+        assertIndexScan(explain(sql, userId), "user_artifacts", "idx_user_artifacts_user_equipped");
+    }
+
+    @Test
+    void equippedArtifactsCountReadsPartialEquippedIndex() {
+        String sql = capture(() -> userArtifactRepository.countEquippedArtifactsByUserId(userId));
+        assertIndexScan(explain(sql, userId), "user_artifacts", "idx_user_artifacts_user_equipped");
+    }
+
+    // ========== COMPETENCIES ==========
+
+    @Test
+    void userCompetencyReadsUserCompetencyUniqueIndex() {
+        String sql = capture(() -> userCompetencyRepository.findByUserIdAndCompetencyId(userId, competencyId));
+        assertIndexScan(explain(sql, userId, competencyId), "user_competencies", "uk_user_competencies_user_competency");
+    }
+
+    // ========== HELPERS ==========
+
+    private static String capture(Runnable finder) {
+        FirstStatement.sql = null;
+        finder.run();
+        assertThat(FirstStatement.sql).as("SQL метода репозитория").isNotNull();
+        return FirstStatement.sql;
+    }
+
+    private String explain(String sql, Object... args) {
+        assertThat(countPlaceholders(sql)).as("параметры запроса %s", sql).isEqualTo(args.length);
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, args));
+    }
+
+    private static void assertIndexScan(String plan, String table, String index) {
+        assertThat(plan).as(plan).doesNotContain("Seq Scan on " + table);
+        // Фильтр по user_id идёт по внешнему ключу, без соединения с users
+        if (!"users".equals(table)) {
+            assertThat(plan).as(plan).doesNotContain(" on users ");
+        }
+        assertThat(plan).as(plan).containsPattern("(Index (Only )?Scan( Backward)? using " + index + " on " + table + "|"
+                + "Bitmap Index Scan on " + index + ")\\b");
+    }
+
+    private static void assertOrderedIndexScan(String plan, String table, String index) {
+        assertIndexScan(plan, table, index);
+        assertThat(plan).as(plan).doesNotContainPattern("(?m)^\\s*(->\\s*)?(Incremental )?Sort\\b");
+    }
+
+    private static int countPlaceholders(String sql) {
+        int count = 0;
+        Matcher matcher = Pattern.compile("\\?").matcher(sql);
+        while (matcher.find()) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Запоминает первый SQL, подготовленный Hibernate после сброса: запрос самого метода,
+     * а не догрузку EAGER-связей найденных сущностей.
+     */
+    public static class FirstStatement implements StatementInspector {
+
+        static volatile String sql;
+
+        @Override
+        public String inspect(String statement) {
+            if (sql == null) {
+                sql = statement;
+            }
+            return statement;
+        }
+    }
+}
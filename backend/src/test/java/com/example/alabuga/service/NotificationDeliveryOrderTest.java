@@ -0,0 +1,151 @@
+package com.example.alabuga.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.alabuga.dto.NotificationCreateDTO;
+import com.example.alabuga.entity.Notification;
+import com.example.alabuga.repository.NotificationRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Догонка SSE при параллельной записи: писатели вставляют уведомления в транзакциях разной длины,
+ * поэтому уведомления с меньшим id коммитятся после уведомлений с большим. Читатель, как выборка
+ * NotificationPushService, всё это время читает после последнего полученного номера доставки.
+ * Каждое уведомление должно прийти ровно один раз, без пропусков.
+ * По умолчанию H2 в памяти; на PostgreSQL — через delivery.datasource.url и соседние свойства.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=${delivery.datasource.url:jdbc:h2:mem:delivery-order;DB_CLOSE_DELAY=-1}",
+        "spring.datasource.driver-class-name=${delivery.datasource.driver:org.h2.Driver}",
+        "spring.datasource.username=${delivery.datasource.username:sa}",
+        "spring.datasource.password=${delivery.datasource.password:}",
+        "spring.jpa.properties.hibernate.dialect=${delivery.dialect:org.hibernate.dialect.H2Dialect}",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.liquibase.change-log=classpath:db/changelog/db.changelog-master.xml"
+})
+@ActiveProfiles("prod")
+@Slf4j
+class NotificationDeliveryOrderTest {
+
+    private static final int WRITERS = 8;
+    private static final int NOTIFICATIONS = 400;
+    private static final int PAGE = 50;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private NotificationPushService pushService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void lateCommitsAreDeliveredWithoutGaps() throws Exception {
+        Long userId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users", Long.class);
+        long startSeq = notificationRepository.findMaxDeliverySeqByUserId(userId).orElse(0L);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        AtomicBoolean writersDone = new AtomicBoolean();
+        List<Long> deliveredIds = new ArrayList<>();
+        List<String> deliveredTitles = new ArrayList<>();
+        ExecutorService readerPool = Executors.newSingleThreadExecutor();
+        Future<?> reader = readerPool.submit(() -> {
+            long afterSeq = startSeq;
+            while (true) {
+                // Флаги читаются до выборки: последний проход видит всё, что закоммичено к его началу
+                boolean finished = writersDone.get() && countUndelivered(userId) == 0;
+                List<Notification> page = notificationRepository.findByUserIdAndDeliverySeqGreaterThanOrderByDeliverySeqAsc(
+                        userId, afterSeq, PageRequest.of(0, PAGE));
+                for (Notification notification : page) {
+                    deliveredIds.add(notification.getId());
+                    deliveredTitles.add(notification.getTitle());
+                    afterSeq = notification.getDeliverySeq();
+                }
+                if (page.isEmpty()) {
+                    if (finished) {
+                        return null;
+                    }
+                    Thread.sleep(2);
+                }
+            }
+        });
+
+        Set<String> written = ConcurrentHashMap.newKeySet();
+        ExecutorService writers = Executors.newFixedThreadPool(WRITERS);
+        List<Future<?>> writes = new ArrayList<>();
+        for (int i = 0; i < NOTIFICATIONS; i++) {
+            String title = "ПОРЯДОК-" + i;
+            writes.add(writers.submit(() -> {
+                transactionTemplate.executeWithoutResult(status -> {
+                    notificationRepository.insertBatch(List.of(NotificationCreateDTO.builder()
+                            .userId(userId)
+                            .title(title)
+                            .content("Проверка порядка доставки")
+                            .notificationType(Notification.NotificationType.SYSTEM_MESSAGE.getCode())
+                            .build()));
+                    // Транзакции разной длины: уведомление с меньшим id коммитится позже
+                    sleep(ThreadLocalRandom.current().nextInt(15));
+                });
+                written.add(title);
+                pushService.notifyUser(userId);
+            }));
+        }
+        for (Future<?> write : writes) {
+            write.get(60, TimeUnit.SECONDS);
+        }
+        writers.shutdown();
+        writersDone.set(true);
+        reader.get(60, TimeUnit.SECONDS);
+        readerPool.shutdown();
+
+        int lateCommits = 0;
+        for (int i = 1; i < deliveredIds.size(); i++) {
+            if (deliveredIds.get(i) < deliveredIds.get(i - 1)) {
+                lateCommits++;
+            }
+        }
+        log.info("Доставлено {} уведомлений, из них после уведомления с большим id: {}", deliveredIds.size(), lateCommits);
+
+        assertThat(deliveredTitles).as("каждое уведомление ровно один раз").doesNotHaveDuplicates();
+        assertThat(deliveredTitles).containsExactlyInAnyOrderElementsOf(written);
+        assertThat(lateCommits).as("уведомления коммитились не в порядке id").isPositive();
+    }
+
+    private long countUndelivered(Long userId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notifications WHERE user_id = ? AND delivery_seq IS NULL",
+                Long.class, userId);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
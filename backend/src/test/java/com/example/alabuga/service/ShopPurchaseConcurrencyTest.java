@@ -0,0 +1,129 @@
+package com.example.alabuga.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.alabuga.dto.ShopItemDTO;
+import com.example.alabuga.exception.BusinessLogicException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Распродажа товара с ограниченным остатком: тысячи покупателей одновременно покупают один товар,
+ * каждый дважды, а Энергонов у каждого хватает на одну покупку. Продано должно быть ровно столько,
+ * сколько было на складе, ни один баланс не уходит в минус, каталог сбрасывается один раз — когда
+ * товар распродан. Пропускная способность пишется в лог.
+ * По умолчанию H2 в памяти; на PostgreSQL — через purchase.datasource.url и соседние свойства.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=${purchase.datasource.url:jdbc:h2:mem:shop-purchase;DB_CLOSE_DELAY=-1}",
+        "spring.datasource.driver-class-name=${purchase.datasource.driver:org.h2.Driver}",
+        "spring.datasource.username=${purchase.datasource.username:sa}",
+        "spring.datasource.password=${purchase.datasource.password:}",
+        "spring.jpa.properties.hibernate.dialect=${purchase.dialect:org.hibernate.dialect.H2Dialect}",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.liquibase.change-log=classpath:db/changelog/db.changelog-master.xml"
+})
+@ActiveProfiles("prod")
+@Slf4j
+class ShopPurchaseConcurrencyTest {
+
+    private static final int BUYERS = 2000;
+    private static final int ATTEMPTS_PER_BUYER = 2;
+    private static final int STOCK = 500;
+    private static final int PRICE = 10;
+    // Хватает на одну покупку, но не на две
+    private static final int ENERGY = 15;
+    private static final int THREADS = 16;
+
+    @Autowired
+    private ShopService shopService;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void limitedItemIsNeverOversoldAndBalancesStayNonNegative() throws Exception {
+        List<Object[]> buyers = new ArrayList<>(BUYERS);
+        for (int i = 0; i < BUYERS; i++) {
+            buyers.add(new Object[]{"buyer-" + i, "buyer-" + i + "@shop.local", ENERGY});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (login, email, password_hash, first_name, last_name, energy) " +
+                "VALUES (?, ?, '', 'Покупатель', 'Нексуса', ?)", buyers);
+        List<Long> buyerIds = jdbcTemplate.queryForList("SELECT id FROM users WHERE login LIKE 'buyer-%'", Long.class);
+        jdbcTemplate.update("INSERT INTO shop_items (name, description, price, is_active, stock_quantity) " +
+                "VALUES ('Распродажа', 'Ограниченная партия', ?, true, ?)", PRICE, STOCK);
+        Long itemId = jdbcTemplate.queryForObject("SELECT id FROM shop_items WHERE name = 'Распродажа'", Long.class);
+
+        assertThat(shopService.getAvailableItems()).extracting(ShopItemDTO::getId).contains(itemId);
+        long catalogVersion = catalogCache.version(CatalogCache.Section.SHOP);
+
+        // Каждый покупатель встречается дважды, порядок перемешан
+        List<Long> attempts = new ArrayList<>(BUYERS * ATTEMPTS_PER_BUYER);
+        for (int i = 0; i < ATTEMPTS_PER_BUYER; i++) {
+            attempts.addAll(buyerIds);
+        }
+        Collections.shuffle(attempts);
+
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> purchases = new ArrayList<>(attempts.size());
+        long startedAt = System.nanoTime();
+        for (Long buyerId : attempts) {
+            purchases.add(pool.submit(() -> {
+                try {
+                    shopService.purchaseItem(buyerId, itemId);
+                    completed.incrementAndGet();
+                } catch (BusinessLogicException e) {
+                    rejected.incrementAndGet();
+                }
+            }));
+        }
+        // Любая другая ошибка (блокировка, таймаут) провалит тест здесь
+        for (Future<?> purchase : purchases) {
+            purchase.get(120, TimeUnit.SECONDS);
+        }
+        double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+        pool.shutdown();
+        log.info("Покупок: {} попыток за {} с, {} попыток/с, успешных {}, отказов {}",
+                attempts.size(), String.format("%.2f", seconds), String.format("%.0f", attempts.size() / seconds),
+                completed.get(), rejected.get());
+
+        assertThat(completed.get()).as("продано ровно столько, сколько было").isEqualTo(STOCK);
+        assertThat(rejected.get()).isEqualTo(attempts.size() - STOCK);
+        assertThat(jdbcTemplate.queryForObject("SELECT stock_quantity FROM shop_items WHERE id = ?", Integer.class, itemId))
+                .isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_purchases WHERE shop_item_id = ?", Integer.class, itemId))
+                .isEqualTo(STOCK);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (SELECT user_id FROM user_purchases " +
+                "WHERE shop_item_id = ? GROUP BY user_id HAVING COUNT(*) > 1) twice", Integer.class, itemId))
+                .as("Энергонов хватает только на одну покупку").isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT MIN(energy) FROM users WHERE login LIKE 'buyer-%'", Integer.class))
+                .as("баланс не уходит в минус").isGreaterThanOrEqualTo(0);
+        assertThat(jdbcTemplate.queryForObject("SELECT SUM(? - energy) FROM users WHERE login LIKE 'buyer-%'", Long.class, ENERGY))
+                .as("списано ровно за проданное").isEqualTo((long) STOCK * PRICE);
+
+        // Покупки не сбрасывают каталог, кроме последней единицы: товар уходит из доступных
+        assertThat(catalogCache.version(CatalogCache.Section.SHOP)).isEqualTo(catalogVersion + 1);
+        assertThat(shopService.getAvailableItems()).extracting(ShopItemDTO::getId).doesNotContain(itemId);
+        assertThat(shopService.getPurchaseStats().getCompletedPerSecond()).isPositive();
+    }
+}
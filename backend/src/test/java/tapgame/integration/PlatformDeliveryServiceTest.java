@@ -0,0 +1,170 @@
+package tapgame.integration;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Повторы и задержки доставки против заглушки платформы на локальном HTTP-сервере.
+ */
+class PlatformDeliveryServiceTest {
+
+    private static final long INITIAL_BACKOFF_MS = 100;
+
+    @TempDir
+    Path tempDir;
+
+    private HttpServer server;
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private final List<Long> requestNanos = new CopyOnWriteArrayList<>();
+    private final List<String> requestBodies = new CopyOnWriteArrayList<>();
+    private PlatformDeliveryService service;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/user/", exchange -> {
+            requestNanos.add(System.nanoTime());
+            requestBodies.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            int status = failuresLeft.getAndDecrement() > 0 ? 500 : 200;
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        if (service != null) {
+            service.stop();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    void retriesWithExponentialBackoffAndDeliversCoalescedCredits() throws Exception {
+        failuresLeft.set(2);
+        PlatformDeadLetterStore store = newStore(100);
+        service = newService(store, 5);
+
+        // До старта воркеров оба начисления складываются в одно событие
+        service.enqueueCredits(42L, 5);
+        service.enqueueCredits(42L, 7);
+        service.start();
+
+        await(() -> service.getStats().delivered() == 1);
+
+        assertThat(requestBodies).containsExactly("12", "12", "12");
+        assertThat(service.getStats().retried()).isEqualTo(2);
+        assertThat(service.getStats().deadLettered()).isZero();
+        assertThat(gapMs(0)).isGreaterThanOrEqualTo(INITIAL_BACKOFF_MS);
+        assertThat(gapMs(1)).isGreaterThanOrEqualTo(2 * INITIAL_BACKOFF_MS);
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void deadLettersAfterMaxAttemptsAndKeepsThemAcrossRestart() throws Exception {
+        failuresLeft.set(Integer.MAX_VALUE);
+        PlatformDeadLetterStore store = newStore(100);
+        service = newService(store, 3);
+        service.start();
+
+        service.enqueueCredits(7L, 30);
+        await(() -> store.size() == 1);
+
+        assertThat(requestBodies).hasSize(3);
+        assertThat(service.getStats().deadLettered()).isEqualTo(1);
+
+        PlatformDeadLetterStore restarted = newStore(100);
+        assertThat(restarted.list())
+                .singleElement()
+                .satisfies(delivery -> {
+                    assertThat(delivery.type()).isEqualTo(PlatformDelivery.Type.CREDITS);
+                    assertThat(delivery.userId()).isEqualTo(7L);
+                    assertThat(delivery.amount()).isEqualTo(30);
+                });
+    }
+
+    @Test
+    void keepsRestoredDeadLettersInSpoolUntilDelivered() throws Exception {
+        PlatformDeadLetterStore saved = newStore(100);
+        saved.add(PlatformDelivery.credits(7L, 30));
+        saved.add(PlatformDelivery.achievement(7L, "first"));
+
+        failuresLeft.set(Integer.MAX_VALUE);
+        PlatformDeadLetterStore store = newStore(100);
+        service = newService(store, 100);
+        service.start();
+        await(() -> requestBodies.size() >= 2);
+
+        // Падение процесса, пока платформа недоступна: записи всё ещё в файле
+        assertThat(newStore(100).list())
+                .extracting(delivery -> delivery.type() == PlatformDelivery.Type.CREDITS
+                        ? "credits:" + delivery.amount()
+                        : delivery.achievement())
+                .containsExactly("credits:30", "first");
+
+        failuresLeft.set(0);
+        await(() -> service.getStats().delivered() == 2);
+
+        assertThat(store.size()).isZero();
+        assertThat(newStore(100).list()).isEmpty();
+    }
+
+    @Test
+    void countsDroppedAchievementsAndNeverDropsCredits() {
+        PlatformDeadLetterStore store = newStore(2);
+        store.add(PlatformDelivery.credits(1L, 10));
+        store.add(PlatformDelivery.achievement(1L, "first"));
+        store.add(PlatformDelivery.achievement(1L, "second"));
+        store.add(PlatformDelivery.achievement(1L, "third"));
+        store.add(PlatformDelivery.credits(1L, 5));
+
+        assertThat(store.getDropped()).isEqualTo(1);
+
+        PlatformDeadLetterStore restarted = newStore(2);
+        assertThat(restarted.list())
+                .extracting(delivery -> delivery.type() == PlatformDelivery.Type.CREDITS
+                        ? "credits:" + delivery.amount()
+                        : delivery.achievement())
+                .containsExactly("credits:15", "second", "third");
+    }
+
+    private PlatformDeadLetterStore newStore(int capacity) {
+        PlatformDeadLetterStore store = new PlatformDeadLetterStore(capacity, tempDir.resolve("dead-letters.spool").toString());
+        store.load();
+        return store;
+    }
+
+    private PlatformDeliveryService newService(PlatformDeadLetterStore store, int maxAttempts) {
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        return new PlatformDeliveryService(new HttpPlatformTransport(baseUrl, 1000), store,
+                100, 1, maxAttempts, INITIAL_BACKOFF_MS, 10_000, 1000);
+    }
+
+    private long gapMs(int index) {
+        return TimeUnit.NANOSECONDS.toMillis(requestNanos.get(index + 1) - requestNanos.get(index));
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("ожидание доставки").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+}
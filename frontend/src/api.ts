@@ -47,6 +47,7 @@ export type ShopItemDTO = { id: number; name: string; price: number; available:
 export type ArtifactDTO = { id: number; name: string; rarity?: string; isActive?: boolean; description?: string };
 export type UserRoleDTO = { value: string; displayName: string };
 export type UserDTO = { id: number; login: string; email: string; role: string; experience: number; energy: number; rank: number; branchId?: number; firstName?: string; lastName?: string; createdAt?: string; isActive?: boolean; };
+export type UserPageDTO = { items: UserDTO[]; nextCursor?: string | null; hasNext: boolean; size: number };
 export type UserPurchaseDTO = { id: number; itemName: string; itemDescription: string; pricePaid: number; energyAfter: number; purchasedAt: string; };
 export type UserCompetency = { id: number; name: string; points?: number; level?: number; maxPoints?: number };
 export type UserMission = { id: number; missionId?: number; missionName?: string; status?: string; progress?: number };
@@ -96,7 +97,8 @@ export const backend = {
   },
   users: {
     create: (body: any) => api.post<any>('/api/users', body),
-    list: () => api.get<UserDTO[]>('/api/users'),
+    // Одна страница по курсору; следующую экран запрашивает сам, когда она нужна
+    page: (cursor?: string | null, size = 50) => api.get<UserPageDTO>(`/api/users/page?size=${size}${cursor ? `&cursor=${encodeURIComponent(cursor)}` : ''}`),
     roles: () => api.get<UserRoleDTO[]>('/api/users/roles'),
     byId: (id: number) => api.get<UserDTO>(`/api/users/${id}`),
     byLogin: (login: string) => api.get<UserDTO>(`/api/users/login/${encodeURIComponent(login)}`),
@@ -176,17 +176,22 @@ const AdminScreen: React.FC = () => {
     participants: [],
     teams: []
   });
-  // Загрузка пользователей из бэкенда
+  // Курсор следующей страницы пользователей; null — загружены все
+  const [usersCursor, setUsersCursor] = useState<string | null>(null);
+  const [loadingMoreUsers, setLoadingMoreUsers] = useState(false);
+  const toAdminUser = (u: any) => ({ id: u.id, name: u.firstName || u.login, email: u.email, role: u.role, status: (u.isActive ? 'active' : 'inactive'), lastLogin: u.createdAt || '—', level: u.rank, createdAt: u.createdAt });
+  // Загрузка пользователей из бэкенда: первая страница сразу, остальные — по кнопке
   useEffect(() => {
     (async () => {
       try {
-        const [list, rolesResp, shopItemsResp] = await Promise.all([
-          backend.users.list(), 
+        const [page, rolesResp, shopItemsResp] = await Promise.all([
+          backend.users.page(), 
           backend.users.roles().catch(() => []),
           backend.shop.list().catch(() => [])
         ]);
         setRoles(rolesResp || []);
-        setUsers((list as any[]).map((u: any) => ({ id: u.id, name: u.firstName || u.login, email: u.email, role: u.role, status: (u.isActive ? 'active' : 'inactive'), lastLogin: u.createdAt || '—', level: u.rank, createdAt: u.createdAt })));
+        setUsers((page.items || []).map(toAdminUser));
+        setUsersCursor(page.nextCursor || null);
         setShopItems(shopItemsResp || []);
       } catch (e) {
         setNotif({ open: true, title: 'Не удалось загрузить данные', variant: 'error' });
@@ -194,6 +199,20 @@ const AdminScreen: React.FC = () => {
     })();
   }, []);
 
+  const loadMoreUsers = async () => {
+    if (!usersCursor || loadingMoreUsers) return;
+    setLoadingMoreUsers(true);
+    try {
+      const page = await backend.users.page(usersCursor);
+      setUsers(prev => [...prev, ...(page.items || []).map(toAdminUser)]);
+      setUsersCursor(page.nextCursor || null);
+    } catch (e) {
+      setNotif({ open: true, title: 'Не удалось загрузить пользователей', variant: 'error' });
+    } finally {
+      setLoadingMoreUsers(false);
+    }
+  };
+
   const [editUserOpen, setEditUserOpen] = useState(false);
   const [editUser, setEditUser] = useState<any | null>(null);
   const [userBranches, setUserBranches] = useState<any[]>([]);
@@ -937,6 +956,15 @@ const AdminScreen: React.FC = () => {
             >
               Вперёд →
             </MainButton>
+            {usersCursor && (
+              <MainButton
+                onClick={loadMoreUsers}
+                disabled={loadingMoreUsers}
+                className="px-4 py-2 bg-white/10 border border-white/20 rounded-lg text-white hover:bg-white/20 transition-all duration-300 disabled:opacity-50 disabled:cursor-not-allowed"
+              >
+                {loadingMoreUsers ? 'Загрузка...' : 'Загрузить ещё'}
+              </MainButton>
+            )}
           </div>
         )}
       </div>
@@ -98,6 +98,8 @@ const CrewScreen: React.FC = () => {
   const [activeTab, setActiveTab] = useState<'ranking'>('ranking');
   const [timeframe, setTimeframe] = useState<'all' | 'week'>('all');
   const [users, setUsers] = useState<UserDTO[]>([]);
+  // Курсор следующей страницы рейтинга; null — загружены все
+  const [usersCursor, setUsersCursor] = useState<string | null>(null);
   const [loadingRank, setLoadingRank] = useState(false);
 
   const tabs: never[] = [];
@@ -115,9 +117,10 @@ const CrewScreen: React.FC = () => {
     (async () => {
       try {
         setLoadingRank(true);
-        const list = await backend.users.list();
+        const page = await backend.users.page();
         if (!mounted) return;
-        setUsers(list);
+        setUsers(page.items || []);
+        setUsersCursor(page.nextCursor || null);
       } finally {
         if (mounted) setLoadingRank(false);
       }
@@ -125,6 +128,18 @@ const CrewScreen: React.FC = () => {
     return () => { mounted = false; };
   }, [activeTab]);
 
+  const loadMoreUsers = async () => {
+    if (!usersCursor || loadingRank) return;
+    setLoadingRank(true);
+    try {
+      const page = await backend.users.page(usersCursor);
+      setUsers(prev => [...prev, ...(page.items || [])]);
+      setUsersCursor(page.nextCursor || null);
+    } finally {
+      setLoadingRank(false);
+    }
+  };
+
   const [weeklyXpByUser, setWeeklyXpByUser] = useState<Record<number, number>>({});
 
   useEffect(() => {
@@ -242,7 +257,7 @@ const CrewScreen: React.FC = () => {
               </tr>
             </thead>
             <tbody>
-              {rankingData.slice(0, 50).map((p) => (
+              {rankingData.map((p) => (
                 <tr key={p.rank} className="border-t border-white/10 hover:bg-white/5 transition">
                   <td className="py-2 pr-4">
                     {p.rank <= 10 ? (
@@ -259,6 +274,16 @@ const CrewScreen: React.FC = () => {
             </tbody>
           </table>
           {loadingRank && <div className="text-center text-gray-400 mt-3">Загрузка...</div>}
+          {!loadingRank && usersCursor && (
+            <div className="flex justify-center mt-3">
+              <MainButton
+                onClick={loadMoreUsers}
+                className="px-4 py-2 bg-white/10 border border-white/20 rounded-lg text-white hover:bg-white/20 transition-all duration-300"
+              >
+                Показать ещё
+              </MainButton>
+            </div>
+          )}
         </div>
       </div>
     </div>
@@ -0,0 +1,10 @@
+package tapgame.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class TapGameSchedulingConfig {
+    // Фоновые задачи tapgame (сброс счётчиков тапов) работают как внутри AlabugaApplication, так и в отдельном jar
+}
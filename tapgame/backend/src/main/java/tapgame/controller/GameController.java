@@ -2,45 +2,49 @@ package tapgame.controller;
 
 import org.springframework.web.bind.annotation.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import tapgame.dto.TapBatchRequest;
+import tapgame.dto.TapBatchResponse;
+import tapgame.dto.TapResponse;
 import tapgame.entity.GooseGameProfile;
 import tapgame.repository.GooseGameProfileRepository;
-
-import java.time.LocalDateTime;
-import java.util.Optional;
+import tapgame.service.TapBatchService;
+import tapgame.service.TapService;
 
 @RestController
 @RequestMapping("/game")
 public class GameController {
     private final GooseGameProfileRepository profileRepository;
+    private final TapService tapService;
+    private final TapBatchService tapBatchService;
 
     @Autowired
-    public GameController(GooseGameProfileRepository profileRepository) {
+    public GameController(GooseGameProfileRepository profileRepository, TapService tapService,
+                          TapBatchService tapBatchService) {
         this.profileRepository = profileRepository;
+        this.tapService = tapService;
+        this.tapBatchService = tapBatchService;
     }
 
-    // Первый тап: создаём профиль, если его нет, и сохраняем время первого тапа
+    // Тап засчитывается в памяти; профиль создаётся при первом тапе, в БД тапы уходят пакетно
     @PostMapping("/tap/{userId}")
-    public GooseGameProfile tap(@PathVariable Long userId, @RequestParam String username) {
-        Optional<GooseGameProfile> optionalProfile = profileRepository.findById(userId);
-        GooseGameProfile profile;
-        if (optionalProfile.isPresent()) {
-            profile = optionalProfile.get();
-        } else {
-            profile = new GooseGameProfile();
-            profile.setUserId(userId);
-            profile.setUsername(username);
-            profile.setFirstTap(LocalDateTime.now());
-        }
-        // Здесь можно добавить игровую механику (очки, ачивки и т.д.)
-        profileRepository.save(profile);
-        return profile;
+    public TapResponse tap(@PathVariable Long userId, @RequestParam String username) {
+        long taps = tapService.tap(userId, username, 1);
+        return new TapResponse(userId, taps);
     }
 
-
+    // Пакет тапов: один запрос на N тапов или на окно ~250 мс, повторы по номерам отбрасываются
+    @PostMapping("/tap/{userId}/batch")
+    public TapBatchResponse tapBatch(@PathVariable Long userId, @RequestBody TapBatchRequest batch) {
+        return tapBatchService.submit(userId, batch);
+    }
 
     @GetMapping("/profile/{userId}")
     public GooseGameProfile getProfile(@PathVariable Long userId) {
-        return profileRepository.findById(userId).orElse(null);
+        GooseGameProfile profile = profileRepository.findById(userId).orElse(null);
+        if (profile != null) {
+            profile.setTaps(tapService.getTotalTaps(userId));
+        }
+        return profile;
     }
 }
 
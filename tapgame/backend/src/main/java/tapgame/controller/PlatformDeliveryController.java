@@ -0,0 +1,37 @@
+package tapgame.controller;
+
+import org.springframework.web.bind.annotation.*;
+import tapgame.integration.PlatformDeadLetterStore;
+import tapgame.integration.PlatformDelivery;
+import tapgame.integration.PlatformDeliveryService;
+import tapgame.integration.PlatformDeliveryStats;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/game/platform")
+public class PlatformDeliveryController {
+    private final PlatformDeliveryService deliveryService;
+    private final PlatformDeadLetterStore deadLetterStore;
+
+    public PlatformDeliveryController(PlatformDeliveryService deliveryService, PlatformDeadLetterStore deadLetterStore) {
+        this.deliveryService = deliveryService;
+        this.deadLetterStore = deadLetterStore;
+    }
+
+    // Глубина очереди, число доставок/повторов и задержка доставки
+    @GetMapping("/stats")
+    public PlatformDeliveryStats getStats() {
+        return deliveryService.getStats();
+    }
+
+    @GetMapping("/dead-letters")
+    public List<PlatformDelivery> getDeadLetters() {
+        return deadLetterStore.list();
+    }
+
+    @PostMapping("/dead-letters/retry")
+    public int retryDeadLetters() {
+        return deliveryService.retryDeadLetters();
+    }
+}
@@ -0,0 +1,9 @@
+package tapgame.dto;
+
+/**
+ * Пакет тапов от клиента: count тапов с порядковыми номерами firstSeq..lastSeq,
+ * сделанных в окне windowStartMs..windowEndMs (время клиента, epoch millis).
+ */
+public record TapBatchRequest(String username, int count, long firstSeq, long lastSeq,
+                              long windowStartMs, long windowEndMs) {
+}
@@ -0,0 +1,5 @@
+package tapgame.dto;
+
+// accepted — сколько тапов пакета засчитано (повторно присланные номера не учитываются)
+public record TapBatchResponse(Long userId, int accepted, long lastSeq, long taps) {
+}
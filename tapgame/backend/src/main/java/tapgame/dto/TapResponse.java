@@ -0,0 +1,5 @@
+package tapgame.dto;
+
+// Ответ на тап: полный счёт пользователя с учётом ещё не сброшенных в БД тапов
+public record TapResponse(Long userId, long taps) {
+}
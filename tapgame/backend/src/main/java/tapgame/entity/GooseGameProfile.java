@@ -16,6 +16,9 @@ public class GooseGameProfile {
     @Column(name = "start")
     private LocalDateTime firstTap;
 
+    @Column(name = "taps", nullable = false)
+    private Long taps = 0L;
+
     // Геттеры и сеттеры
     public Long getUserId() { return userId; }
     public void setUserId(Long userId) { this.userId = userId; }
@@ -23,5 +26,7 @@ public class GooseGameProfile {
     public void setUsername(String username) { this.username = username; }
     public LocalDateTime getFirstTap() { return firstTap; }
     public void setFirstTap(LocalDateTime firstTap) { this.firstTap = firstTap; }
+    public Long getTaps() { return taps; }
+    public void setTaps(Long taps) { this.taps = taps; }
 }
 
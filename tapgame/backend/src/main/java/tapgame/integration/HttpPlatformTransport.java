@@ -0,0 +1,37 @@
+package tapgame.integration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Синхронные HTTP-вызовы платформы. Вызывается только из воркеров {@link PlatformDeliveryService},
+ * поэтому медленная платформа не занимает потоки обработки запросов.
+ */
+@Component
+@ConditionalOnProperty(name = "tapgame.platform.transport", havingValue = "http", matchIfMissing = true)
+public class HttpPlatformTransport implements PlatformTransport {
+    private final RestTemplate restTemplate;
+    private final String baseUrl;
+
+    public HttpPlatformTransport(@Value("${tapgame.platform.base-url:https://platform/api}") String baseUrl,
+                                 @Value("${tapgame.platform.timeout-ms:2000}") int timeoutMs) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeoutMs);
+        requestFactory.setReadTimeout(timeoutMs);
+        this.restTemplate = new RestTemplate(requestFactory);
+        this.baseUrl = baseUrl;
+    }
+
+    @Override
+    public void postCredits(Long userId, long credits) {
+        restTemplate.postForObject(baseUrl + "/user/" + userId + "/credits", credits, Void.class);
+    }
+
+    @Override
+    public void postAchievement(Long userId, String achievement) {
+        restTemplate.postForObject(baseUrl + "/user/" + userId + "/achievements", achievement, Void.class);
+    }
+}
@@ -1,19 +1,21 @@
 package tapgame.integration;
 
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+// Вызовы не блокируют: события уходят в очередь PlatformDeliveryService
 @Service
 public class PlatformApiService {
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final PlatformDeliveryService deliveryService;
+
+    public PlatformApiService(PlatformDeliveryService deliveryService) {
+        this.deliveryService = deliveryService;
+    }
 
     public void addCredits(Long userId, int credits) {
-        String url = "https://platform/api/user/" + userId + "/credits";
-        restTemplate.postForObject(url, credits, Void.class);
+        deliveryService.enqueueCredits(userId, credits);
     }
 
     public void addAchievement(Long userId, String achievement) {
-        String url = "https://platform/api/user/" + userId + "/achievements";
-        restTemplate.postForObject(url, achievement, Void.class);
+        deliveryService.enqueueAchievement(userId, achievement);
     }
 }
@@ -0,0 +1,270 @@
+package tapgame.integration;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * События, которые не удалось доставить после всех повторов или не успели уйти до остановки.
+ * Каждая запись дописывается в spool-файл и подхватывается при следующем старте.
+ * Запись остаётся в файле, пока событие не доставлено: {@link #checkout()} только отмечает записи как отправляемые,
+ * удаляет запись {@link #acknowledge(PlatformDelivery)} после успешной отправки. Падение до подтверждения
+ * ничего не теряет — при следующем старте запись отправится снова.
+ * Начисления суммируются по пользователю и никогда не вытесняются: их число ограничено числом пользователей.
+ * Ёмкость ограничивает только ачивки; вытесненная ачивка пишется в лог и учитывается в счётчике.
+ */
+@Component
+public class PlatformDeadLetterStore {
+    private static final Logger log = LoggerFactory.getLogger(PlatformDeadLetterStore.class);
+
+    // Файл сжимается, когда подтверждений в нём накопилось больше, чем живых записей
+    private static final int COMPACT_MIN_LINES = 1000;
+
+    private final int capacity;
+    private final Path spoolFile;
+
+    // Записи по номеру в порядке первого попадания
+    private final Map<Long, PlatformDelivery> entries = new LinkedHashMap<>();
+    // Ожидающая запись начислений пользователя, в которую суммируются новые: userId -> номер записи
+    private final Map<Long, Long> waitingCredits = new HashMap<>();
+    // Номера ачивок в порядке поступления для вытеснения; уже удалённые пропускаются
+    private final Deque<Long> achievementOrder = new ArrayDeque<>();
+    // Записи, отданные на отправку и ещё не подтверждённые
+    private final Set<Long> inFlight = new HashSet<>();
+    private final LongAdder dropped = new LongAdder();
+
+    private int achievements;
+    private long lastId;
+    private int spoolLines;
+
+    public PlatformDeadLetterStore(@Value("${tapgame.platform.dead-letter-capacity:10000}") int capacity,
+                                   @Value("${tapgame.platform.dead-letter-file:tapgame-dead-letters.spool}") String spoolFile) {
+        this.capacity = capacity;
+        this.spoolFile = Paths.get(spoolFile);
+    }
+
+    @PostConstruct
+    public synchronized void load() {
+        if (!Files.exists(spoolFile)) {
+            return;
+        }
+        try {
+            String content = Files.readString(spoolFile, StandardCharsets.UTF_8);
+            String[] lines = content.split("\n", -1);
+            // Последний элемент пуст, если файл заканчивается переводом строки; иначе это оборванная запись
+            if (!lines[lines.length - 1].isEmpty()) {
+                log.warn("Dead-letter файл {} оборван на записи, она пропущена", spoolFile);
+            }
+            for (int i = 0; i < lines.length - 1; i++) {
+                replay(lines[i].strip());
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Не удалось прочитать dead-letter файл {}", spoolFile, e);
+        }
+        if (size() > 0) {
+            log.info("Восстановлено {} недоставленных событий платформы из {}", size(), spoolFile);
+        }
+        // Сжимаем файл до текущего состояния: без подтверждённых и вытесненных записей
+        compact();
+    }
+
+    public synchronized void add(PlatformDelivery delivery) {
+        // Событие из spool не доставлено и снова ждёт: его запись уже в файле
+        if (delivery.spoolId() != 0 && entries.containsKey(delivery.spoolId())) {
+            inFlight.remove(delivery.spoolId());
+            entries.put(delivery.spoolId(), delivery);
+            if (delivery.type() == PlatformDelivery.Type.CREDITS) {
+                waitingCredits.putIfAbsent(delivery.userId(), delivery.spoolId());
+            }
+            return;
+        }
+        StringBuilder records = new StringBuilder();
+        PlatformDelivery stored;
+        Long waiting = delivery.type() == PlatformDelivery.Type.CREDITS ? waitingCredits.get(delivery.userId()) : null;
+        if (waiting != null) {
+            // Запись с тем же номером заменяет прежнюю сумму при чтении файла
+            PlatformDelivery previous = entries.get(waiting);
+            stored = previous.withAmount(previous.amount() + delivery.amount());
+        } else {
+            if (delivery.type() == PlatformDelivery.Type.ACHIEVEMENT && achievements >= capacity) {
+                records.append(formatAck(evictOldestAchievement())).append('\n');
+            }
+            stored = delivery.withSpoolId(++lastId);
+        }
+        put(stored);
+        records.append(format(stored)).append('\n');
+        append(records.toString());
+    }
+
+    public synchronized List<PlatformDelivery> list() {
+        return new ArrayList<>(entries.values());
+    }
+
+    // Отдаёт ожидающие записи на отправку; из файла они удаляются только подтверждением
+    public synchronized List<PlatformDelivery> checkout() {
+        List<PlatformDelivery> waiting = new ArrayList<>();
+        for (PlatformDelivery delivery : entries.values()) {
+            if (inFlight.add(delivery.spoolId())) {
+                waiting.add(delivery);
+            }
+        }
+        // Новые начисления не должны суммироваться в запись, которая уже отправляется
+        waitingCredits.clear();
+        return waiting;
+    }
+
+    // Событие доставлено: его запись больше не нужна
+    public synchronized void acknowledge(PlatformDelivery delivery) {
+        if (delivery.spoolId() == 0 || !remove(delivery.spoolId())) {
+            return;
+        }
+        append(formatAck(delivery.spoolId()) + '\n');
+        if (spoolLines > COMPACT_MIN_LINES && spoolLines > 2 * entries.size()) {
+            compact();
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // Сколько ачивок вытеснено из-за переполнения с момента старта
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    private void replay(String line) {
+        String[] parts = line.split(";", 6);
+        if (parts.length == 2 && "ACK".equals(parts[0])) {
+            remove(Long.parseLong(parts[1]));
+            return;
+        }
+        if (parts.length != 6 || !"ADD".equals(parts[0])) {
+            log.warn("Пропущена нераспознанная строка dead-letter файла {}: {}", spoolFile, line);
+            return;
+        }
+        PlatformDelivery delivery = parse(parts);
+        lastId = Math.max(lastId, delivery.spoolId());
+        if (!entries.containsKey(delivery.spoolId())
+                && delivery.type() == PlatformDelivery.Type.ACHIEVEMENT && achievements >= capacity) {
+            evictOldestAchievement();
+        }
+        put(delivery);
+    }
+
+    private void put(PlatformDelivery delivery) {
+        long id = delivery.spoolId();
+        if (entries.put(id, delivery) != null) {
+            return;
+        }
+        if (delivery.type() == PlatformDelivery.Type.CREDITS) {
+            waitingCredits.putIfAbsent(delivery.userId(), id);
+        } else {
+            achievements++;
+            achievementOrder.addLast(id);
+        }
+    }
+
+    private boolean remove(long id) {
+        PlatformDelivery removed = entries.remove(id);
+        if (removed == null) {
+            return false;
+        }
+        inFlight.remove(id);
+        if (removed.type() == PlatformDelivery.Type.CREDITS) {
+            waitingCredits.remove(removed.userId(), id);
+        } else {
+            achievements--;
+        }
+        return true;
+    }
+
+    private long evictOldestAchievement() {
+        Long oldestId = achievementOrder.pollFirst();
+        while (!entries.containsKey(oldestId)) {
+            oldestId = achievementOrder.pollFirst();
+        }
+        PlatformDelivery oldest = entries.get(oldestId);
+        remove(oldestId);
+        dropped.increment();
+        log.warn("Dead-letter переполнен ({}), вытеснена ачивка '{}' пользователя {}",
+                capacity, oldest.achievement(), oldest.userId());
+        return oldestId;
+    }
+
+    // Одна запись — одна строка с переводом в конце: оборванная при падении строка не читается
+    private void append(String records) {
+        try {
+            Files.writeString(spoolFile, records, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            spoolLines += (int) records.chars().filter(c -> c == '\n').count();
+        } catch (IOException e) {
+            log.error("Не удалось дописать dead-letter файл {}: {}", spoolFile, records.strip(), e);
+        }
+    }
+
+    // Запись через временный файл и атомарное переименование, чтобы не оставить обрезанный spool
+    private void compact() {
+        try {
+            if (entries.isEmpty()) {
+                Files.deleteIfExists(spoolFile);
+                spoolLines = 0;
+                return;
+            }
+            StringBuilder content = new StringBuilder();
+            entries.values().forEach(delivery -> content.append(format(delivery)).append('\n'));
+            Path tmp = spoolFile.resolveSibling(spoolFile.getFileName() + ".tmp");
+            Files.writeString(tmp, content, StandardCharsets.UTF_8);
+            Files.move(tmp, spoolFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            spoolLines = entries.size();
+        } catch (IOException e) {
+            log.error("Не удалось переписать dead-letter файл {}", spoolFile, e);
+        }
+    }
+
+    // ADD;id;CREDITS;userId;attempt;amount или ADD;id;ACHIEVEMENT;userId;attempt;base64(achievement)
+    private static String format(PlatformDelivery delivery) {
+        String payload = delivery.type() == PlatformDelivery.Type.CREDITS
+                ? Long.toString(delivery.amount())
+                : Base64.getEncoder().encodeToString(delivery.achievement().getBytes(StandardCharsets.UTF_8));
+        return "ADD;" + delivery.spoolId() + ";" + delivery.type() + ";" + delivery.userId() + ";"
+                + delivery.attempt() + ";" + payload;
+    }
+
+    // ACK;id — запись доставлена или вытеснена
+    private static String formatAck(long id) {
+        return "ACK;" + id;
+    }
+
+    private static PlatformDelivery parse(String[] parts) {
+        long id = Long.parseLong(parts[1]);
+        PlatformDelivery.Type type = PlatformDelivery.Type.valueOf(parts[2]);
+        Long userId = Long.parseLong(parts[3]);
+        int attempt = Integer.parseInt(parts[4]);
+        PlatformDelivery delivery = type == PlatformDelivery.Type.CREDITS
+                ? PlatformDelivery.credits(userId, Long.parseLong(parts[5]))
+                : PlatformDelivery.achievement(userId, new String(Base64.getDecoder().decode(parts[5]), StandardCharsets.UTF_8));
+        return delivery.withAttempt(attempt).withSpoolId(id);
+    }
+}
@@ -0,0 +1,44 @@
+package tapgame.integration;
+
+/**
+ * Одно исходящее событие для платформы.
+ * Для CREDITS amount — сумма начислений пользователя, накопленная пока событие ждало в очереди.
+ * spoolId — номер записи в {@link PlatformDeadLetterStore}, из которой событие поднято при повторе; 0 — событие не из spool.
+ */
+public record PlatformDelivery(Type type, Long userId, long amount, String achievement,
+                               long enqueuedAtNanos, int attempt, long spoolId) {
+
+    public enum Type {
+        CREDITS,
+        ACHIEVEMENT
+    }
+
+    public static PlatformDelivery credits(Long userId, long amount) {
+        return new PlatformDelivery(Type.CREDITS, userId, amount, null, System.nanoTime(), 0, 0);
+    }
+
+    public static PlatformDelivery achievement(Long userId, String achievement) {
+        return new PlatformDelivery(Type.ACHIEVEMENT, userId, 0, achievement, System.nanoTime(), 0, 0);
+    }
+
+    public PlatformDelivery withAmount(long amount) {
+        return new PlatformDelivery(type, userId, amount, achievement, enqueuedAtNanos, attempt, spoolId);
+    }
+
+    public PlatformDelivery withAttempt(int attempt) {
+        return new PlatformDelivery(type, userId, amount, achievement, enqueuedAtNanos, attempt, spoolId);
+    }
+
+    public PlatformDelivery withSpoolId(long spoolId) {
+        return new PlatformDelivery(type, userId, amount, achievement, enqueuedAtNanos, attempt, spoolId);
+    }
+
+    public PlatformDelivery nextAttempt() {
+        return new PlatformDelivery(type, userId, amount, achievement, enqueuedAtNanos, attempt + 1, spoolId);
+    }
+
+    // Новая отправка того же события: попытки и задержка считаются заново, запись в spool та же
+    public PlatformDelivery restart() {
+        return new PlatformDelivery(type, userId, amount, achievement, System.nanoTime(), 0, spoolId);
+    }
+}
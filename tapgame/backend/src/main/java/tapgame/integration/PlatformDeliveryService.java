@@ -0,0 +1,280 @@
+package tapgame.integration;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Асинхронная доставка начислений и ачивок на платформу.
+ * События складываются в ограниченную очередь и отправляются пулом воркеров.
+ * Начисления одного пользователя, ожидающие в очереди, суммируются в одну отправку.
+ * Неудачные отправки повторяются с экспоненциальной задержкой, после maxAttempts уходят в {@link PlatformDeadLetterStore}.
+ * При остановке очередь, несобранные начисления и отложенные повторы сохраняются туда же
+ * и снова ставятся в очередь при следующем старте; из spool событие удаляется только после успешной отправки.
+ */
+@Service
+public class PlatformDeliveryService {
+    private static final Logger log = LoggerFactory.getLogger(PlatformDeliveryService.class);
+
+    private final PlatformTransport transport;
+    private final PlatformDeadLetterStore deadLetterStore;
+    private final int workers;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final long shutdownTimeoutMs;
+
+    private final BlockingQueue<PlatformDelivery> queue;
+    // Начисления, ещё не забранные воркером: userId -> сумма. В очереди на пользователя лежит одно событие
+    private final ConcurrentHashMap<Long, Long> pendingCredits = new ConcurrentHashMap<>();
+    // Повторы, ожидающие задержки в планировщике: при остановке они сохраняются в dead-letter
+    private final ConcurrentHashMap<Long, PlatformDelivery> scheduledRetries = new ConcurrentHashMap<>();
+    private final AtomicLong retrySequence = new AtomicLong();
+
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder latencyTotalMs = new LongAdder();
+    private final AtomicLong latencyMaxMs = new AtomicLong();
+
+    private ExecutorService workerPool;
+    private ScheduledExecutorService retryScheduler;
+    private volatile boolean running;
+
+    public PlatformDeliveryService(PlatformTransport transport,
+                                   PlatformDeadLetterStore deadLetterStore,
+                                   @Value("${tapgame.platform.queue-capacity:10000}") int queueCapacity,
+                                   @Value("${tapgame.platform.workers:4}") int workers,
+                                   @Value("${tapgame.platform.max-attempts:5}") int maxAttempts,
+                                   @Value("${tapgame.platform.initial-backoff-ms:200}") long initialBackoffMs,
+                                   @Value("${tapgame.platform.max-backoff-ms:30000}") long maxBackoffMs,
+                                   @Value("${tapgame.platform.shutdown-timeout-ms:5000}") long shutdownTimeoutMs) {
+        this.transport = transport;
+        this.deadLetterStore = deadLetterStore;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.workers = workers;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        workerPool = Executors.newFixedThreadPool(workers, namedThreads("platform-delivery-"));
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(namedThreads("platform-retry-"));
+        for (int i = 0; i < workers; i++) {
+            workerPool.submit(this::workerLoop);
+        }
+        // Всё, что не ушло до прошлой остановки, отправляем заново
+        int restored = retryDeadLetters();
+        if (restored > 0) {
+            log.info("Доставка на платформу: {} сохранённых событий снова в очереди", restored);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        retryScheduler.shutdownNow();
+        workerPool.shutdown();
+        try {
+            // Воркеры дожидаются текущей отправки; неудача при остановке сразу уходит в dead-letter
+            if (!workerPool.awaitTermination(shutdownTimeoutMs, TimeUnit.MILLISECONDS)) {
+                workerPool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workerPool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        List<PlatformDelivery> unsent = new ArrayList<>(scheduledRetries.values());
+        scheduledRetries.clear();
+        List<PlatformDelivery> queued = new ArrayList<>();
+        queue.drainTo(queued);
+        for (PlatformDelivery delivery : queued) {
+            unsent.add(claimCredits(delivery));
+        }
+        pendingCredits.forEach((userId, sum) -> unsent.add(PlatformDelivery.credits(userId, sum)));
+        pendingCredits.clear();
+
+        int saved = 0;
+        for (PlatformDelivery delivery : unsent) {
+            if (delivery.type() == PlatformDelivery.Type.CREDITS && delivery.amount() == 0) {
+                continue;
+            }
+            deadLetterStore.add(delivery);
+            saved++;
+        }
+        if (saved > 0) {
+            log.warn("Остановка доставки на платформу: {} неотправленных событий сохранено в dead-letter", saved);
+        }
+    }
+
+    public void enqueueCredits(Long userId, long credits) {
+        if (credits == 0) {
+            return;
+        }
+        // Если событие пользователя уже в очереди, просто увеличиваем сумму
+        boolean[] isNew = new boolean[1];
+        pendingCredits.compute(userId, (id, sum) -> {
+            isNew[0] = sum == null;
+            return sum == null ? credits : sum + credits;
+        });
+        if (isNew[0] && !queue.offer(PlatformDelivery.credits(userId, 0))) {
+            Long lost = pendingCredits.remove(userId);
+            reject(PlatformDelivery.credits(userId, lost == null ? credits : lost));
+        }
+    }
+
+    public void enqueueAchievement(Long userId, String achievement) {
+        PlatformDelivery delivery = PlatformDelivery.achievement(userId, achievement);
+        if (!queue.offer(delivery)) {
+            reject(delivery);
+        }
+    }
+
+    // Повторно ставит в очередь всё, что ждёт в dead-letter; записи остаются в spool до успешной отправки
+    public int retryDeadLetters() {
+        List<PlatformDelivery> deliveries = deadLetterStore.checkout();
+        for (PlatformDelivery delivery : deliveries) {
+            PlatformDelivery fresh = delivery.restart();
+            if (!queue.offer(fresh)) {
+                reject(fresh);
+            }
+        }
+        return deliveries.size();
+    }
+
+    public PlatformDeliveryStats getStats() {
+        long count = delivered.sum();
+        return new PlatformDeliveryStats(
+                queue.size(),
+                pendingCredits.size(),
+                count,
+                retried.sum(),
+                deadLettered.sum(),
+                rejected.sum(),
+                count == 0 ? 0 : (double) latencyTotalMs.sum() / count,
+                latencyMaxMs.get(),
+                deadLetterStore.size(),
+                deadLetterStore.getDropped()
+        );
+    }
+
+    private void workerLoop() {
+        while (running) {
+            try {
+                // Ожидание с таймаутом, чтобы воркер заметил остановку и вышел, не бросив событие
+                PlatformDelivery delivery = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (delivery == null) {
+                    continue;
+                }
+                deliver(claimCredits(delivery));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Ошибка воркера доставки на платформу", e);
+            }
+        }
+    }
+
+    // Первое событие начислений забирает всю накопленную сумму; при повторе сумма уже зафиксирована
+    private PlatformDelivery claimCredits(PlatformDelivery delivery) {
+        if (delivery.type() != PlatformDelivery.Type.CREDITS || delivery.attempt() > 0 || delivery.amount() != 0) {
+            return delivery;
+        }
+        Long sum = pendingCredits.remove(delivery.userId());
+        return delivery.withAmount(sum == null ? 0 : sum);
+    }
+
+    private void deliver(PlatformDelivery delivery) {
+        if (delivery.type() == PlatformDelivery.Type.CREDITS && delivery.amount() == 0) {
+            return;
+        }
+        try {
+            if (delivery.type() == PlatformDelivery.Type.CREDITS) {
+                transport.postCredits(delivery.userId(), delivery.amount());
+            } else {
+                transport.postAchievement(delivery.userId(), delivery.achievement());
+            }
+            deadLetterStore.acknowledge(delivery);
+            recordLatency(delivery);
+        } catch (RuntimeException e) {
+            scheduleRetry(delivery, e);
+        }
+    }
+
+    private void scheduleRetry(PlatformDelivery delivery, RuntimeException cause) {
+        PlatformDelivery next = delivery.nextAttempt();
+        if (next.attempt() >= maxAttempts || !running) {
+            deadLetter(next, cause);
+            return;
+        }
+        long delayMs = Math.min(maxBackoffMs, initialBackoffMs << Math.min(delivery.attempt(), 20));
+        Long retryId = retrySequence.incrementAndGet();
+        scheduledRetries.put(retryId, next);
+        try {
+            retryScheduler.schedule(() -> {
+                // Повтор уже сохранён остановкой — не отправляем его второй раз
+                if (scheduledRetries.remove(retryId) != null && !queue.offer(next)) {
+                    reject(next);
+                }
+            }, delayMs, TimeUnit.MILLISECONDS);
+            retried.increment();
+        } catch (RejectedExecutionException e) {
+            // Планировщик остановлен между проверкой running и постановкой повтора
+            if (scheduledRetries.remove(retryId) != null) {
+                deadLetter(next, cause);
+            }
+        }
+    }
+
+    private void deadLetter(PlatformDelivery delivery, RuntimeException cause) {
+        log.warn("Событие {} для пользователя {} не доставлено после {} попыток: {}",
+                delivery.type(), delivery.userId(), delivery.attempt(), cause.getMessage());
+        deadLettered.increment();
+        deadLetterStore.add(delivery);
+    }
+
+    private void reject(PlatformDelivery delivery) {
+        rejected.increment();
+        deadLetterStore.add(delivery);
+    }
+
+    private void recordLatency(PlatformDelivery delivery) {
+        long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - delivery.enqueuedAtNanos());
+        delivered.increment();
+        latencyTotalMs.add(latencyMs);
+        latencyMaxMs.accumulateAndGet(latencyMs, Math::max);
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicLong counter = new AtomicLong();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
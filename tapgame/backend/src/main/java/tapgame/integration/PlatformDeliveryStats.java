@@ -0,0 +1,7 @@
+package tapgame.integration;
+
+// Снимок метрик исходящей доставки на платформу
+public record PlatformDeliveryStats(int queueDepth, int pendingCreditUsers, long delivered, long retried,
+                                    long deadLettered, long rejected, double avgLatencyMs, long maxLatencyMs,
+                                    int deadLetterSize, long deadLetterDropped) {
+}
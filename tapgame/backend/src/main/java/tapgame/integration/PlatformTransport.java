@@ -0,0 +1,12 @@
+package tapgame.integration;
+
+/**
+ * Способ доставки событий на платформу.
+ * Выбирается свойством tapgame.platform.transport: http (отдельный jar tapgame) или in-process (внутри AlabugaApplication).
+ */
+public interface PlatformTransport {
+
+    void postCredits(Long userId, long credits);
+
+    void postAchievement(Long userId, String achievement);
+}
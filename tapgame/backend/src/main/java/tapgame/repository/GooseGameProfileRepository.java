@@ -3,6 +3,6 @@ package tapgame.repository;
 import org.springframework.data.jpa.repository.JpaRepository;
 import tapgame.entity.GooseGameProfile;
 
-public interface GooseGameProfileRepository extends JpaRepository<GooseGameProfile, Long> {
+public interface GooseGameProfileRepository extends JpaRepository<GooseGameProfile, Long>, GooseGameProfileRepositoryCustom {
     GooseGameProfile findByUsername(String username);
 }
@@ -0,0 +1,18 @@
+package tapgame.repository;
+
+import java.util.Map;
+
+public interface GooseGameProfileRepositoryCustom {
+    // Пакетно прибавляет накопленные дельты тапов и продвигает последний засчитанный номер пакетного тапа
+    void addTaps(Map<Long, TapDelta> deltas);
+
+    // Последний засчитанный номер пакетного тапа или -1, если пакетов ещё не было
+    long findLastTapSeq(Long userId);
+
+    // lastSeq = -1, если в дельте нет пакетных тапов
+    record TapDelta(long taps, long lastSeq) {
+        public TapDelta merge(TapDelta other) {
+            return new TapDelta(taps + other.taps, Math.max(lastSeq, other.lastSeq));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package tapgame.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class GooseGameProfileRepositoryImpl implements GooseGameProfileRepositoryCustom {
+    private static final String ADD_TAPS_SQL =
+            "UPDATE goose_game_profile SET taps = taps + ?, last_tap_seq = GREATEST(last_tap_seq, ?) WHERE id_tg = ?";
+    private static final String LAST_TAP_SEQ_SQL = "SELECT last_tap_seq FROM goose_game_profile WHERE id_tg = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public GooseGameProfileRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void addTaps(Map<Long, TapDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object[]> batch = new ArrayList<>(deltas.size());
+        deltas.forEach((userId, delta) -> batch.add(new Object[]{delta.taps(), delta.lastSeq(), userId}));
+        jdbcTemplate.batchUpdate(ADD_TAPS_SQL, batch);
+    }
+
+    @Override
+    public long findLastTapSeq(Long userId) {
+        List<Long> seqs = jdbcTemplate.queryForList(LAST_TAP_SEQ_SQL, Long.class, userId);
+        return seqs.isEmpty() || seqs.get(0) == null ? -1 : seqs.get(0);
+    }
+}
@@ -0,0 +1,130 @@
+package tapgame.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import tapgame.dto.TapBatchRequest;
+import tapgame.dto.TapBatchResponse;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Приём пакетов тапов с клиентскими порядковыми номерами.
+ * Повторно присланные номера отбрасываются (идемпотентность при ретраях); последний засчитанный номер
+ * сбрасывается в БД вместе с тапами и подтягивается оттуда после перезапуска или вытеснения.
+ * Частота ограничивается корзиной токенов по времени сервера: окно клиента не учитывается,
+ * запас на джиттер — это ёмкость корзины, и сверх скорости она не пополняется ни от пакета, ни от их числа.
+ * Если токенов меньше, чем новых тапов, засчитывается начало пакета, и ackSeq сообщает клиенту,
+ * с какого номера дослать остаток.
+ */
+@Service
+public class TapBatchService {
+    private final TapService tapService;
+    private final int maxTapsPerSecond;
+    private final int maxBatchSize;
+    private final double bucketCapacity;
+    private final long idleEvictNanos;
+
+    // Корзина токенов и последний засчитанный номер по пользователям, которые тапали недавно
+    private final ConcurrentHashMap<Long, SequenceState> sequences = new ConcurrentHashMap<>();
+
+    public TapBatchService(TapService tapService,
+                           @Value("${tapgame.taps.max-per-second:20}") int maxTapsPerSecond,
+                           @Value("${tapgame.taps.max-batch-size:500}") int maxBatchSize,
+                           @Value("${tapgame.taps.burst-seconds:2}") int burstSeconds,
+                           @Value("${tapgame.taps.state-idle-ms:600000}") long stateIdleMs) {
+        this.tapService = tapService;
+        this.maxTapsPerSecond = maxTapsPerSecond;
+        this.maxBatchSize = maxBatchSize;
+        this.bucketCapacity = (double) maxTapsPerSecond * Math.max(burstSeconds, 1);
+        // Вытесненный пользователь возвращается с полной корзиной, поэтому держим его не меньше времени её заполнения
+        this.idleEvictNanos = Math.max(stateIdleMs, burstSeconds * 1000L) * 1_000_000L;
+    }
+
+    public TapBatchResponse submit(Long userId, TapBatchRequest batch) {
+        validate(batch);
+        int accepted;
+        long ackSeq;
+        while (true) {
+            SequenceState state = sequences.computeIfAbsent(userId, this::loadState);
+            synchronized (state) {
+                // Состояние вытеснили между получением и блокировкой — берём свежее
+                if (state.evicted) {
+                    continue;
+                }
+                long now = System.nanoTime();
+                state.refill(now, maxTapsPerSecond, bucketCapacity);
+                state.lastSeenNanos = now;
+                // Засчитываем только номера после последнего подтверждённого и не больше накопленных токенов
+                long fromSeq = Math.max(batch.firstSeq(), state.lastSeq + 1);
+                int fresh = fromSeq > batch.lastSeq() ? 0 : (int) (batch.lastSeq() - fromSeq + 1);
+                accepted = (int) Math.min(fresh, (long) state.tokens);
+                if (fresh > 0 && accepted == 0) {
+                    throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Слишком высокая частота тапов");
+                }
+                if (accepted > 0) {
+                    state.tokens -= accepted;
+                    state.lastSeq = fromSeq + accepted - 1;
+                }
+                ackSeq = state.lastSeq;
+            }
+            break;
+        }
+        long taps = tapService.tap(userId, batch.username(), accepted, ackSeq);
+        return new TapBatchResponse(userId, accepted, ackSeq, taps);
+    }
+
+    // Пользователи без пакетов дольше tapgame.taps.state-idle-ms убираются из памяти
+    @Scheduled(fixedDelayString = "${tapgame.taps.state-evict-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        sequences.forEach((userId, state) -> {
+            synchronized (state) {
+                if (now - state.lastSeenNanos >= idleEvictNanos) {
+                    state.evicted = true;
+                    sequences.remove(userId, state);
+                }
+            }
+        });
+    }
+
+    private SequenceState loadState(Long userId) {
+        return new SequenceState(tapService.getLastSeq(userId), bucketCapacity, System.nanoTime());
+    }
+
+    private void validate(TapBatchRequest batch) {
+        if (batch.count() <= 0 || batch.count() > maxBatchSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Размер пакета должен быть от 1 до " + maxBatchSize);
+        }
+        if (batch.firstSeq() < 0 || batch.lastSeq() - batch.firstSeq() + 1 != batch.count()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Номера тапов не соответствуют их количеству");
+        }
+        if (batch.windowEndMs() < batch.windowStartMs()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Некорректное окно пакета");
+        }
+    }
+
+    private static final class SequenceState {
+        private long lastSeq;
+        private double tokens;
+        private long lastRefillNanos;
+        private long lastSeenNanos;
+        private boolean evicted;
+
+        private SequenceState(long lastSeq, double tokens, long nowNanos) {
+            this.lastSeq = lastSeq;
+            this.tokens = tokens;
+            this.lastRefillNanos = nowNanos;
+            this.lastSeenNanos = nowNanos;
+        }
+
+        // Пополнение по часам сервера со скоростью maxTapsPerSecond, не выше ёмкости корзины
+        private void refill(long nowNanos, int maxTapsPerSecond, double capacity) {
+            double earned = (nowNanos - lastRefillNanos) * maxTapsPerSecond / 1_000_000_000.0;
+            tokens = Math.min(capacity, tokens + earned);
+            lastRefillNanos = nowNanos;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package tapgame.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import tapgame.repository.GooseGameProfileRepository;
+import tapgame.repository.GooseGameProfileRepositoryCustom.TapDelta;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Периодический сброс накопленных тапов в БД одним пакетом UPDATE ... SET taps = taps + ?.
+ * Если запись не удалась, дельты возвращаются в память и дублируются в spool-файл,
+ * который подхватывается при следующем старте. При жёстком падении теряется не больше одного окна сброса.
+ */
+@Service
+public class TapFlushService {
+    private static final Logger log = LoggerFactory.getLogger(TapFlushService.class);
+
+    private final TapService tapService;
+    private final GooseGameProfileRepository profileRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Path spoolFile;
+
+    public TapFlushService(TapService tapService,
+                           GooseGameProfileRepository profileRepository,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${tapgame.taps.spool-file:tapgame-taps.spool}") String spoolFile) {
+        this.tapService = tapService;
+        this.profileRepository = profileRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.spoolFile = Paths.get(spoolFile);
+    }
+
+    // Восстанавливаем дельты, не дошедшие до БД в прошлый запуск; файл удаляется после успешного сброса
+    @PostConstruct
+    public void replaySpool() {
+        Map<Long, TapDelta> deltas = readSpool();
+        if (!deltas.isEmpty()) {
+            log.info("Восстановлено {} несохранённых счётчиков тапов из {}", deltas.size(), spoolFile);
+            tapService.restorePending(deltas);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${tapgame.taps.flush-interval-ms:1000}")
+    public void flush() {
+        Map<Long, TapDelta> deltas = tapService.drainPending();
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> profileRepository.addTaps(deltas));
+            deleteSpool();
+        } catch (RuntimeException e) {
+            log.warn("Не удалось сбросить тапы ({} пользователей), повтор в следующем окне: {}", deltas.size(), e.getMessage());
+            tapService.restorePending(deltas);
+            writeSpool(deltas);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        Map<Long, TapDelta> rest = tapService.drainPending();
+        if (!rest.isEmpty()) {
+            writeSpool(rest);
+        }
+    }
+
+    private Map<Long, TapDelta> readSpool() {
+        Map<Long, TapDelta> deltas = new HashMap<>();
+        if (!Files.exists(spoolFile)) {
+            return deltas;
+        }
+        try {
+            for (String line : Files.readAllLines(spoolFile, StandardCharsets.UTF_8)) {
+                // userId;taps;lastSeq — файлы старого формата без lastSeq тоже читаются
+                String[] parts = line.split(";");
+                if (parts.length == 2 || parts.length == 3) {
+                    long lastSeq = parts.length == 3 ? Long.parseLong(parts[2]) : -1;
+                    deltas.merge(Long.parseLong(parts[0]), new TapDelta(Long.parseLong(parts[1]), lastSeq), TapDelta::merge);
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            log.error("Не удалось прочитать spool-файл тапов {}", spoolFile, e);
+        }
+        return deltas;
+    }
+
+    // Запись через временный файл и атомарное переименование, чтобы не оставить обрезанный spool
+    private void writeSpool(Map<Long, TapDelta> deltas) {
+        List<String> lines = new ArrayList<>(deltas.size());
+        deltas.forEach((userId, delta) -> lines.add(userId + ";" + delta.taps() + ";" + delta.lastSeq()));
+        try {
+            Path tmp = spoolFile.resolveSibling(spoolFile.getFileName() + ".tmp");
+            Files.write(tmp, lines, StandardCharsets.UTF_8);
+            Files.move(tmp, spoolFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("Не удалось записать spool-файл тапов {}", spoolFile, e);
+        }
+    }
+
+    private void deleteSpool() {
+        try {
+            Files.deleteIfExists(spoolFile);
+        } catch (IOException e) {
+            log.warn("Не удалось удалить spool-файл тапов {}", spoolFile, e);
+        }
+    }
+}
@@ -1,11 +1,127 @@
 package tapgame.service;
 
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import tapgame.entity.GooseGameProfile;
+import tapgame.repository.GooseGameProfileRepository;
+import tapgame.repository.GooseGameProfileRepositoryCustom.TapDelta;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Приём тапов в памяти.
+ * Каждый тап увеличивает два счётчика: полный счёт пользователя (LongAdder, без блокировок)
+ * и дельту с момента последнего сброса (ConcurrentHashMap.merge, блокировка только на корзину).
+ * В базу дельты попадают пакетно через {@link TapFlushService}.
+ */
 @Service
 public class TapService {
-    public void tap(GooseGameProfile profile) {
-       // profile.setTaps(profile.getTaps() + 1);
+    private final GooseGameProfileRepository profileRepository;
+
+    // Полный счёт пользователя: сохранённое в БД + ещё не сброшенное
+    private final ConcurrentHashMap<Long, LongAdder> totals = new ConcurrentHashMap<>();
+    // Дельты и последний номер пакетного тапа, накопленные с момента последнего сброса
+    private final ConcurrentHashMap<Long, TapDelta> pending = new ConcurrentHashMap<>();
+
+    public TapService(GooseGameProfileRepository profileRepository) {
+        this.profileRepository = profileRepository;
+    }
+
+    /**
+     * Засчитывает count тапов и возвращает полный счёт пользователя.
+     * Обращение к БД происходит только при первом тапе пользователя после старта узла.
+     */
+    public long tap(Long userId, String username, long count) {
+        return tap(userId, username, count, -1);
+    }
+
+    /**
+     * То же для пакета тапов: lastSeq сбрасывается в БД вместе с дельтой, чтобы после перезапуска
+     * повторно присланные номера по-прежнему отбрасывались.
+     */
+    public long tap(Long userId, String username, long count, long lastSeq) {
+        LongAdder total = totals.get(userId);
+        if (total == null) {
+            // Чтение из БД вне блокировки корзины карты; при гонке остаётся счётчик, попавший в карту первым
+            LongAdder loaded = loadTotal(userId, username);
+            LongAdder existing = totals.putIfAbsent(userId, loaded);
+            total = existing != null ? existing : loaded;
+        }
+        if (count > 0) {
+            pending.merge(userId, new TapDelta(count, lastSeq), TapDelta::merge);
+            total.add(count);
+        }
+        return total.sum();
+    }
+
+    /**
+     * Последний засчитанный номер пакетного тапа: ещё не сброшенный или сохранённый в БД.
+     */
+    public long getLastSeq(Long userId) {
+        TapDelta delta = pending.get(userId);
+        long stored = profileRepository.findLastTapSeq(userId);
+        return delta != null ? Math.max(stored, delta.lastSeq()) : stored;
+    }
+
+    public long getTotalTaps(Long userId) {
+        LongAdder total = totals.get(userId);
+        if (total != null) {
+            return total.sum();
+        }
+        GooseGameProfile profile = profileRepository.findById(userId).orElse(null);
+        return profile == null ? 0 : profile.getTaps() + pendingTaps(userId);
+    }
+
+    /**
+     * Забирает накопленные дельты. Каждая запись удаляется атомарно,
+     * поэтому тап, пришедший во время сброса, попадёт в следующий пакет.
+     */
+    public Map<Long, TapDelta> drainPending() {
+        Map<Long, TapDelta> drained = new HashMap<>();
+        for (Long userId : pending.keySet()) {
+            TapDelta delta = pending.remove(userId);
+            if (delta != null && delta.taps() != 0) {
+                drained.put(userId, delta);
+            }
+        }
+        return drained;
+    }
+
+    // Возвращает несохранённые дельты обратно, например после ошибки записи в БД
+    public void restorePending(Map<Long, TapDelta> deltas) {
+        deltas.forEach((userId, delta) -> pending.merge(userId, delta, TapDelta::merge));
+    }
+
+    public int getPendingUsers() {
+        return pending.size();
+    }
+
+    // Подтягивает сохранённый счёт; профиль создаётся сразу, чтобы пакетный UPDATE нашёл строку
+    private LongAdder loadTotal(Long userId, String username) {
+        GooseGameProfile profile = profileRepository.findById(userId).orElse(null);
+        if (profile == null) {
+            profile = new GooseGameProfile();
+            profile.setUserId(userId);
+            profile.setUsername(username);
+            profile.setFirstTap(LocalDateTime.now());
+            try {
+                profileRepository.save(profile);
+            } catch (DataIntegrityViolationException e) {
+                // Профиль только что создал параллельный первый тап того же пользователя
+                profile = profileRepository.findById(userId).orElseThrow(() -> e);
+            }
+        }
+        LongAdder total = new LongAdder();
+        total.add(profile.getTaps() + pendingTaps(userId));
+        return total;
+    }
+
+    private long pendingTaps(Long userId) {
+        TapDelta delta = pending.get(userId);
+        return delta != null ? delta.taps() : 0;
     }
 }